@@ -0,0 +1,77 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*  Move generation on the kiwipete position: the possibleMoves matrix of one piece per type, the pseudo-legal and legal
+ 	move lists of the whole side, and a perft to depth 2. Results are returned to JMH, which keeps them alive */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoveGenerationBenchmark {
+
+	static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	private ChessMatch chessMatch;
+	private final MoveList list = new MoveList();
+
+	// Only possibleMoves runs once per square
+	@State(Scope.Thread)
+	public static class PieceState {
+
+		// Pawn, knight, bishop, rook, queen and king of white
+		@Param({ "d5", "e5", "d2", "a1", "f3", "e1" })
+		public String square;
+
+		ChessPiece piece;
+
+		@Setup
+		public void setUp() {
+			ChessMatch chessMatch = Fen.newMatch(KIWIPETE);
+			piece = (ChessPiece) chessMatch.getChessBoard().piece(ChessPosition.of(square.charAt(0), square.charAt(1) - '0').toSquare());
+		}
+
+	}
+
+	@Setup
+	public void setUp() {
+		chessMatch = Fen.newMatch(KIWIPETE);
+	}
+
+	@Benchmark
+	public boolean[][] possibleMoves(PieceState state) {
+		return state.piece.possibleMoves();
+	}
+
+	@Benchmark
+	public int generateMoves() {
+		chessMatch.generateMoves(list);
+		return list.size();
+	}
+
+	@Benchmark
+	public int generateLegalMoves() {
+		chessMatch.generateLegalMoves(list);
+		return list.size();
+	}
+
+	@Benchmark
+	public long perft2() {
+		return Perft.perft(chessMatch, 2);
+	}
+
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*  Making and taking back moves, and setting up and writing positions, on the kiwipete position. Every case leaves the
+ 	match as it found it, so each invocation measures the same work. Run with -prof gc for the bytes allocated per call */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlayMoveBenchmark {
+
+	private static final String[] SCRIPTED_GAME = { "e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "b5", "a7", "a6", "b5", "c6", "d7", "c6" };
+
+	private ChessMatch chessMatch;
+	private ChessMatch game;
+	private ChessMatch loaded;
+	private int bishopTakesA6;
+	private int[] scripted;
+	private final StringBuilder fen = new StringBuilder(90);
+
+	@Setup
+	public void setUp() {
+		chessMatch = Fen.newMatch(MoveGenerationBenchmark.KIWIPETE);
+		game = new ChessMatch();
+		loaded = new ChessMatch();
+		bishopTakesA6 = Move.encode(ChessPosition.of('e', 2).toSquare(), ChessPosition.of('a', 6).toSquare(), Move.CAPTURE);
+		scripted = new int[SCRIPTED_GAME.length];
+		for (int i = 0; i < scripted.length; i++) {
+			scripted[i] = ChessPosition.of(SCRIPTED_GAME[i].charAt(0), SCRIPTED_GAME[i].charAt(1) - '0').toSquare();
+		}
+	}
+
+	@Benchmark
+	public long playMoveTakeBack() {
+		chessMatch.playMove(bishopTakesA6);
+		long hash = chessMatch.getHash();
+		chessMatch.takeBack();
+		return hash;
+	}
+
+	// 1. e4 from the initial position, validated and followed by the check and mate tests, then undone
+	@Benchmark
+	public long performChessMoveUndo() {
+		game.performChessMove(scripted[0], scripted[1]);
+		long hash = game.getHash();
+		game.undo();
+		return hash;
+	}
+
+	@Benchmark
+	public ChessMatch performChessMoveNewMatch() {
+		ChessMatch match = new ChessMatch();
+		for (int i = 0; i < scripted.length; i += 2) {
+			match.performChessMove(scripted[i], scripted[i + 1]);
+		}
+		return match;
+	}
+
+	@Benchmark
+	public long fenLoad() {
+		Fen.load(loaded, MoveGenerationBenchmark.KIWIPETE);
+		return loaded.getHash();
+	}
+
+	@Benchmark
+	public int fenWrite() {
+		fen.setLength(0);
+		Fen.write(chessMatch, fen);
+		return fen.length();
+	}
+
+	@Benchmark
+	public Snapshot snapshot() {
+		return chessMatch.snapshot();
+	}
+
+}
@@ -0,0 +1,75 @@
+package application;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import chess.ChessMatch;
+import chess.archive.GameArchive;
+import chess.archive.GameArchiveWriter;
+import chess.pgn.PgnReader;
+
+/*  Usage: ArchiveCommand convert file.pgn file.cga
+ 	       ArchiveCommand replay file.cga
+ 	Converts the legal games of a PGN file into a game archive, or replays every game of an archive and reports the speed */
+public class ArchiveCommand {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 3 && args[0].equals("convert")) {
+			convert(Paths.get(args[1]), Paths.get(args[2]));
+		}
+		else if (args.length == 2 && args[0].equals("replay")) {
+			replay(Paths.get(args[1]));
+		}
+		else {
+			System.out.println("Usage: ArchiveCommand convert file.pgn file.cga | replay file.cga");
+			System.exit(2);
+		}
+	}
+
+	// Single-threaded, so that the archive keeps the order of the PGN file
+	private static void convert(Path pgn, Path archive) throws IOException {
+		long start = System.nanoTime();
+		long[] skipped = new long[1];
+		try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+			PgnReader.replay(pgn, game -> {
+				if (!game.isLegal()) {
+					skipped[0]++;
+					return;
+				}
+				writer.beginGame(game.getStartFen());
+				for (int ply = 0; ply < game.getPlyCount(); ply++) {
+					writer.addMove(game.getMove(ply));
+				}
+				try {
+					writer.endGame(game.getResult());
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			System.out.printf("%d games written, %d rejected games skipped, %.2f s%n", writer.getGameCount(), skipped[0], (System.nanoTime() - start) / 1e9);
+		}
+		System.out.printf("%s: %d bytes, %s: %d bytes%n", pgn, new File(pgn.toString()).length(), archive, new File(archive.toString()).length());
+	}
+
+	private static void replay(Path file) throws IOException {
+		try (GameArchive archive = new GameArchive(file)) {
+			ChessMatch chessMatch = new ChessMatch();
+			long plies = 0;
+			long hashes = 0;
+			long start = System.nanoTime();
+			for (int game = 0; game < archive.getGameCount(); game++) {
+				archive.replay(game, chessMatch);
+				plies += archive.getPlyCount(game);
+				hashes ^= chessMatch.getHash();
+			}
+			double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+			System.out.printf("%d games, %d plies in %.2f s (%.0f games/s, %.0f plies/s), final positions hash %d%n", archive.getGameCount(), plies,
+					seconds, archive.getGameCount() / seconds, plies / seconds, hashes);
+		}
+	}
+
+}
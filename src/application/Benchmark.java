@@ -0,0 +1,102 @@
+package application;
+
+import java.lang.management.ManagementFactory;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.MoveList;
+import chess.Perft;
+
+/*  Move generation micro benchmarks. Each case is warmed up, then timed over a fixed number of operations;
+ 	allocation is read from the JVM per-thread allocation counter. Usage: Benchmark [iterations]
+ 	A quick check that runs from the IDE without a build; the figures to quote come from the JMH benchmarks in the
+ 	benchmarks folder (mvn -P jmh test-compile exec:exec), which fork, warm up and keep the results alive */
+public class Benchmark {
+
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+	private static final String[] SCRIPTED_GAME = { "e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "b5", "a7", "a6", "b5", "c6", "d7", "c6" };
+
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private static long sink;
+
+	public static void main(String[] args) {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+		ChessMatch chessMatch = Fen.newMatch(KIWIPETE);
+		ChessPiece[][] pieces = chessMatch.getPieces();
+
+		System.out.printf("%-36s %12s %14s %12s%n", "case", "ns/op", "ops/s", "bytes/op");
+		for (String square : new String[] { "d5", "e5", "d2", "a1", "f3", "e1" }) {
+			ChessPosition position = ChessPosition.of(square.charAt(0), square.charAt(1) - '0');
+			ChessPiece piece = pieces[8 - position.getRow()][position.getColumn() - 'a'];
+			run(piece.getClass().getSimpleName() + ".possibleMoves (" + square + ")", iterations, () -> sink += piece.possibleMoves().length);
+		}
+
+		MoveList list = new MoveList();
+		run("ChessMatch.generateMoves (kiwipete)", iterations, () -> {
+			chessMatch.generateMoves(list);
+			sink += list.size();
+		});
+
+		ChessPosition source = ChessPosition.of('e', 2);
+		ChessPosition target = ChessPosition.of('a', 6);
+		run("playMove + takeBack (Be2xa6)", iterations, () -> {
+			chessMatch.playMove(source, target, "Q");
+			chessMatch.takeBack();
+		});
+
+		int sourceSquare = source.toSquare();
+		int targetSquare = target.toSquare();
+		run("performChessMove + takeBack (squares)", iterations, () -> {
+			chessMatch.performChessMove(sourceSquare, targetSquare);
+			chessMatch.takeBack();
+		});
+
+		ChessPosition[] scripted = new ChessPosition[SCRIPTED_GAME.length];
+		for (int i = 0; i < scripted.length; i++) {
+			scripted[i] = ChessPosition.of(SCRIPTED_GAME[i].charAt(0), SCRIPTED_GAME[i].charAt(1) - '0');
+		}
+		run("performChessMove x8 (new match)", iterations / 50, () -> {
+			ChessMatch match = new ChessMatch();
+			for (int i = 0; i < scripted.length; i += 2) {
+				match.performChessMove(scripted[i], scripted[i + 1]);
+			}
+		});
+
+		ChessMatch loaded = new ChessMatch();
+		run("Fen.load (kiwipete)", iterations, () -> Fen.load(loaded, KIWIPETE));
+		StringBuilder fen = new StringBuilder(90);
+		run("Fen.write (kiwipete)", iterations, () -> {
+			fen.setLength(0);
+			Fen.write(chessMatch, fen);
+			sink += fen.length();
+		});
+
+		run("perft(kiwipete, 2) [ops = nodes]", Math.max(1, iterations / 20000), 2039, () -> sink += Perft.perft(chessMatch, 2));
+		System.out.println("(" + sink + ")");
+	}
+
+	private static void run(String name, int iterations, Runnable operation) {
+		run(name, iterations, 1, operation);
+	}
+
+	// Runs the operation once per iteration; opsPerCall scales the figures when one call stands for many operations, as in perft
+	private static void run(String name, int iterations, long opsPerCall, Runnable operation) {
+		for (int i = 0; i < iterations; i++) {
+			operation.run();
+		}
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			operation.run();
+		}
+		long elapsed = System.nanoTime() - start;
+		long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		double ops = (double) iterations * opsPerCall;
+		System.out.printf("%-36s %12.1f %14.0f %12.1f%n", name, elapsed / ops, ops * 1e9 / elapsed, allocated / ops);
+	}
+
+}
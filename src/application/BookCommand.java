@@ -0,0 +1,110 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.archive.GameArchive;
+import chess.book.PolyglotBook;
+import chess.book.PolyglotBookWriter;
+import chess.book.PolyglotKeys;
+import chess.enums.Color;
+import chess.pgn.PgnGame;
+
+/*  Usage: BookCommand [keys=file|custom] build games.cga book.bin [plies]
+ 	       BookCommand [keys=file|custom] probe book.bin [FEN]
+ 	Builds a Polyglot book from the first plies (default 16) of every game of an archive, weighting a move 2 when its side
+ 	went on to win, 1 on a draw or unknown result and 0 on a loss; or lists the book moves of a position and times the lookup.
+ 	Books are keyed with the published Polyglot table, as other programs read and write them; keys=custom selects our own
+ 	table and keys=file a table loaded from a file */
+public class BookCommand {
+
+	private static final int PROBES = 100000;
+
+	public static void main(String[] argv) throws IOException {
+		PolyglotKeys keys = PolyglotKeys.DEFAULT;
+		List<String> positional = new ArrayList<>();
+		for (String arg : argv) {
+			if (arg.startsWith("keys=")) {
+				keys = PolyglotKeys.named(arg.substring("keys=".length()));
+			}
+			else {
+				positional.add(arg);
+			}
+		}
+		String[] args = positional.toArray(new String[0]);
+		if (args.length >= 3 && args[0].equals("build")) {
+			build(Paths.get(args[1]), Paths.get(args[2]), (args.length > 3) ? Integer.parseInt(args[3]) : 16, keys);
+		}
+		else if (args.length >= 2 && args[0].equals("probe")) {
+			String fen = (args.length > 2) ? String.join(" ", positional.subList(2, positional.size())) : Fen.INITIAL;
+			probe(Paths.get(args[1]), fen, keys);
+		}
+		else {
+			System.out.println("Usage: BookCommand [keys=file] build games.cga book.bin [plies] | probe book.bin [FEN]");
+			System.exit(2);
+		}
+	}
+
+	private static void build(Path archiveFile, Path bookFile, int plies, PolyglotKeys keys) throws IOException {
+		long start = System.nanoTime();
+		PolyglotBookWriter writer = new PolyglotBookWriter(keys);
+		ChessMatch chessMatch = new ChessMatch();
+		try (GameArchive archive = new GameArchive(archiveFile)) {
+			for (int game = 0; game < archive.getGameCount(); game++) {
+				String startFen = archive.getStartFen(game);
+				Fen.load(chessMatch, (startFen != null) ? startFen : Fen.INITIAL);
+				int result = archive.getResult(game);
+				int last = Math.min(plies, archive.getPlyCount(game));
+				for (int ply = 0; ply < last; ply++) {
+					int move = archive.getMove(game, ply);
+					writer.add(chessMatch, move, weight(result, chessMatch.getCurrentPlayer()));
+					chessMatch.playMove(move);
+				}
+			}
+		}
+		writer.write(bookFile);
+		System.out.printf("%d positions, %d moves written to %s in %.2f s%n", writer.getPositionCount(), writer.getEntryCount(), bookFile,
+				(System.nanoTime() - start) / 1e9);
+	}
+
+	private static int weight(int result, Color mover) {
+		if (result == PgnGame.DRAW || result == PgnGame.UNKNOWN) {
+			return 1;
+		}
+		return (result == PgnGame.WHITE_WINS) == (mover == Color.WHITE) ? 2 : 0;
+	}
+
+	private static void probe(Path bookFile, String fen, PolyglotKeys keys) throws IOException {
+		try (PolyglotBook book = new PolyglotBook(bookFile, keys)) {
+			ChessMatch chessMatch = Fen.newMatch(fen);
+			MoveList moves = new MoveList();
+			int[] weights = new int[MoveList.CAPACITY];
+			System.out.printf("%s: %d entries, key %016x%n", bookFile, book.getEntryCount(), keys.key(chessMatch));
+			int count = book.probe(chessMatch, moves, weights);
+			for (int i = 0; i < count; i++) {
+				System.out.println(Move.toString(moves.get(i)) + " " + weights[i]);
+			}
+			if (count == 0) {
+				System.out.println("Position not in the book");
+			}
+
+			Random random = new Random();
+			long picked = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < PROBES; i++) {
+				picked += book.pick(chessMatch, moves, weights, random);
+			}
+			double micros = (System.nanoTime() - start) / 1e3 / PROBES;
+			System.out.printf("%.2f us per pick (checksum %d)%n", micros, picked);
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.Snapshot;
+import chess.book.PolyglotBook;
+import chess.book.PolyglotKeys;
+
+/*  Usage: GameServer [port] [book.bin [keys file|custom]]
+ 	Hosts one ChessMatch per TCP connection, driven by a line protocol. Every reply is a single line starting with OK or ERR:
+ 	  new            starts a new game                            OK <fen>
+ 	  fen <FEN>      sets up a position                           OK <fen>
+ 	  moves          legal moves in long algebraic notation       OK e2e4 d2d4 ...
+ 	  move e7e8q     plays a move, letter only on promotions      OK <-|check|checkmate|stalemate>
+ 	  board          current position                             OK <fen>
+ 	  undo           takes back the last move                     OK <fen>
+ 	  redo           plays the last move taken back again         OK <fen>
+ 	  goto <ply>     position after that many moves of the game   OK <fen>
+ 	  book           weighted random book move, - when out of it  OK e2e4
+ 	  quit           closes the connection
+ 	Each connection is served by its own thread, which alone touches its match. Virtual threads would need Java 21, so the
+ 	threads are platform threads with a small stack, which still allows several thousand connections per process.
+ 	The opening book is mapped once and shared read-only by every session */
+public class GameServer {
+
+	private static final long SESSION_STACK_SIZE = 256 * 1024;
+
+	private static PolyglotBook book;
+
+	public static void main(String[] args) throws IOException {
+		int port = (args.length > 0) ? Integer.parseInt(args[0]) : 5555;
+		if (args.length > 1) {
+			PolyglotKeys keys = PolyglotKeys.named((args.length > 2) ? args[2] : "");
+			book = new PolyglotBook(Paths.get(args[1]), keys);
+			System.out.println("Opening book " + args[1] + " with " + book.getEntryCount() + " entries");
+		}
+		AtomicInteger sessionNumber = new AtomicInteger();
+		ExecutorService sessions = Executors.newCachedThreadPool(task -> {
+			Thread thread = new Thread(null, task, "session-" + sessionNumber.incrementAndGet(), SESSION_STACK_SIZE);
+			thread.setDaemon(true);
+			return thread;
+		});
+		try (ServerSocket server = new ServerSocket(port, 4096)) {
+			System.out.println("Game server listening on port " + server.getLocalPort());
+			while (true) {
+				Socket socket = server.accept();
+				sessions.execute(new Session(socket));
+			}
+		}
+	}
+
+	private static class Session implements Runnable {
+
+		private final Socket socket;
+		private final ChessMatch chessMatch = new ChessMatch();
+		private final MoveList moves = new MoveList();
+		private final int[] weights = new int[MoveList.CAPACITY];
+		private final StringBuilder reply = new StringBuilder(1024);
+
+		Session(Socket socket) {
+			this.socket = socket;
+		}
+
+		@Override
+		public void run() {
+			try (Socket s = socket;
+					BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+					Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))) {
+				s.setTcpNoDelay(true);
+				for (String line = in.readLine(); line != null; line = in.readLine()) {
+					line = line.trim();
+					if (line.equals("quit")) {
+						break;
+					}
+					reply.setLength(0);
+					try {
+						handle(line);
+					}
+					catch (ChessException e) {
+						reply.setLength(0);
+						reply.append("ERR ").append(e.getMessage());
+					}
+					catch (RuntimeException e) {
+						// A bug hit by this input; the match may be left half updated, so the session starts over
+						Fen.load(chessMatch, Fen.INITIAL);
+						reply.setLength(0);
+						reply.append("ERR Internal error, the game was reset: ").append(e);
+					}
+					out.append(reply).append('\n');
+					out.flush();
+				}
+			}
+			catch (IOException e) {
+				// The client went away; its match goes with the session
+			}
+		}
+
+		private void handle(String line) {
+			int space = line.indexOf(' ');
+			String command = (space < 0) ? line : line.substring(0, space);
+			String argument = (space < 0) ? "" : line.substring(space + 1).trim();
+			switch (command) {
+			case "new":
+				Fen.load(chessMatch, Fen.INITIAL);
+				reply.append("OK ");
+				Fen.write(chessMatch, reply);
+				break;
+			case "fen":
+				loadFen(argument);
+				reply.append("OK ");
+				Fen.write(chessMatch, reply);
+				break;
+			case "board":
+				reply.append("OK ");
+				Fen.write(chessMatch, reply);
+				break;
+			case "undo":
+				jumpTo(chessMatch.getPly() - 1);
+				break;
+			case "redo":
+				jumpTo(chessMatch.getPly() + 1);
+				break;
+			case "goto":
+				try {
+					jumpTo(Integer.parseInt(argument));
+				}
+				catch (NumberFormatException e) {
+					throw new ChessException("goto needs a ply number");
+				}
+				break;
+			case "moves":
+				reply.append("OK");
+				if (!chessMatch.getCheckMate() && !chessMatch.getStalemate()) {
+					chessMatch.generateLegalMoves(moves);
+					for (int i = 0; i < moves.size(); i++) {
+						reply.append(' ').append(Move.toString(moves.get(i)));
+					}
+				}
+				break;
+			case "move":
+				move(argument);
+				break;
+			case "book":
+				bookMove();
+				break;
+			default:
+				reply.append("ERR Unknown command: ").append(command);
+			}
+		}
+
+		// A rejected record would leave a partly loaded position, so the previous one is put back; its game history is lost
+		private void loadFen(String fen) {
+			Snapshot previous = chessMatch.snapshot();
+			try {
+				Fen.load(chessMatch, fen);
+			}
+			catch (ChessException e) {
+				previous.load(chessMatch);
+				throw e;
+			}
+		}
+
+		private void jumpTo(int ply) {
+			if (ply < 0 || ply > chessMatch.getHistoryLength()) {
+				throw new ChessException("The game has no position at ply " + ply);
+			}
+			chessMatch.jumpTo(ply);
+			reply.append("OK ");
+			Fen.write(chessMatch, reply);
+		}
+
+		private void bookMove() {
+			int move = (book != null) ? book.pick(chessMatch, moves, weights, ThreadLocalRandom.current()) : Move.NONE;
+			reply.append("OK ").append(move != Move.NONE ? Move.toString(move) : "-");
+		}
+
+		private void move(String move) {
+			if (chessMatch.getCheckMate() || chessMatch.getStalemate()) {
+				throw new ChessException("The game is over");
+			}
+			if (move.length() < 4 || move.length() > 5) {
+				throw new ChessException("Moves are written like e2e4 or e7e8q");
+			}
+			ChessPosition source = ChessPosition.of(move.charAt(0), move.charAt(1) - '0');
+			ChessPosition target = ChessPosition.of(move.charAt(2), move.charAt(3) - '0');
+			if (move.length() == 5) {
+				if ("qrbn".indexOf(Character.toLowerCase(move.charAt(4))) < 0) {
+					throw new ChessException("Promotion letter must be q, r, b or n");
+				}
+				if (!isPromotion(source.toSquare(), target.toSquare())) {
+					throw new ChessException(move.substring(0, 4) + " is not a promotion, so it takes no piece letter");
+				}
+			}
+			chessMatch.performChessMove(source, target);
+			if (chessMatch.getPromoted() != null && move.length() == 5) {
+				chessMatch.replacePromotedPiece(String.valueOf(Character.toUpperCase(move.charAt(4))));
+			}
+			reply.append("OK ").append(chessMatch.getCheckMate() ? "checkmate" : chessMatch.getStalemate() ? "stalemate" : chessMatch.getCheck() ? "check" : "-");
+		}
+
+		// Whether a legal move from source to target promotes a pawn
+		private boolean isPromotion(int source, int target) {
+			chessMatch.generateLegalMoves(moves);
+			for (int i = 0; i < moves.size(); i++) {
+				int move = moves.get(i);
+				if (Move.source(move) == source && Move.target(move) == target && Move.isPromotion(move)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
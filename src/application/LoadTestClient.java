@@ -0,0 +1,143 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*  Usage: LoadTestClient [host] [port] [connections] [seconds]
+ 	Opens the given number of GameServer connections (default 10000), each playing random legal moves in its own thread,
+ 	and reports the move rate and the latency percentiles of the move round trip */
+public class LoadTestClient {
+
+	private static final long CLIENT_STACK_SIZE = 256 * 1024;
+	private static final int MAX_PLIES_PER_GAME = 200;
+
+	// Latency histogram with 10 microsecond buckets up to 10 s, so that the tail of a loaded server is still measured;
+	// slower moves land in the last bucket
+	private static final int BUCKET_MICROS = 10;
+	private static final int BUCKETS = 1000000;
+	private static final AtomicLongArray latencies = new AtomicLongArray(BUCKETS + 1);
+	private static final AtomicLong failures = new AtomicLong();
+	private static volatile boolean running = true;
+	private static volatile boolean measuring;
+
+	public static void main(String[] args) throws InterruptedException {
+		String host = (args.length > 0) ? args[0] : "localhost";
+		int port = (args.length > 1) ? Integer.parseInt(args[1]) : 5555;
+		int connections = (args.length > 2) ? Integer.parseInt(args[2]) : 10000;
+		int seconds = (args.length > 3) ? Integer.parseInt(args[3]) : 30;
+
+		long connectStart = System.nanoTime();
+		CountDownLatch connected = new CountDownLatch(connections);
+		CountDownLatch go = new CountDownLatch(1);
+		Thread[] clients = new Thread[connections];
+		for (int i = 0; i < connections; i++) {
+			long seed = i;
+			clients[i] = new Thread(null, () -> play(host, port, seed, connected, go), "client-" + i, CLIENT_STACK_SIZE);
+			clients[i].setDaemon(true);
+			clients[i].start();
+		}
+		connected.await();
+		System.out.printf("%d connections open in %.1f s (%d failed), measuring for %d s%n", connections, (System.nanoTime() - connectStart) / 1e9,
+				failures.get(), seconds);
+
+		go.countDown();
+		measuring = true;
+		long start = System.nanoTime();
+		Thread.sleep(seconds * 1000L);
+		measuring = false;
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		running = false;
+
+		long count = 0;
+		for (int i = 0; i <= BUCKETS; i++) {
+			count += latencies.get(i);
+		}
+		System.out.printf("%d moves in %.1f s: %.0f moves/s, latency p50 %s, p99 %s, p99.9 %s, max %s%n", count, elapsed, count / elapsed,
+				percentile(count, 0.50), percentile(count, 0.99), percentile(count, 0.999), percentile(count, 1.0));
+		for (Thread client : clients) {
+			client.join(1000);
+		}
+	}
+
+	private static String percentile(long count, double fraction) {
+		long rank = Math.max(1, (long) Math.ceil(count * fraction));
+		long seen = 0;
+		for (int i = 0; i <= BUCKETS; i++) {
+			seen += latencies.get(i);
+			if (seen >= rank) {
+				return (i == BUCKETS) ? ">10 s" : String.format("%.2f ms", i * BUCKET_MICROS / 1000.0);
+			}
+		}
+		return "-";
+	}
+
+	private static void play(String host, int port, long seed, CountDownLatch connected, CountDownLatch go) {
+		Random random = new Random(seed);
+		boolean counted = false;
+		try (Socket socket = new Socket(host, port);
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+			socket.setTcpNoDelay(true);
+			connected.countDown();
+			counted = true;
+			//Nobody plays until every connection is open, so the connect phase is not slowed down by the traffic
+			go.await();
+			int plies = 0;
+			request(in, out, "new");
+			while (running) {
+				String[] legal = request(in, out, "moves").split(" ");
+				if (legal.length <= 1 || plies >= MAX_PLIES_PER_GAME) {
+					request(in, out, "new");
+					plies = 0;
+					continue;
+				}
+				long start = System.nanoTime();
+				String reply = request(in, out, "move " + legal[1 + random.nextInt(legal.length - 1)]);
+				long micros = (System.nanoTime() - start) / 1000;
+				if (!reply.startsWith("OK")) {
+					throw new IOException("Move refused: " + reply);
+				}
+				if (measuring) {
+					latencies.incrementAndGet((int) Math.min(micros / BUCKET_MICROS, BUCKETS));
+				}
+				plies++;
+			}
+			out.write("quit\n");
+			out.flush();
+		}
+		catch (IOException e) {
+			if (running) {
+				failures.incrementAndGet();
+				System.out.println("Connection " + seed + ": " + e.getMessage());
+			}
+			if (!counted) {
+				connected.countDown();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static String request(BufferedReader in, Writer out, String line) throws IOException {
+		out.write(line);
+		out.write('\n');
+		out.flush();
+		String reply = in.readLine();
+		if (reply == null) {
+			throw new IOException("Connection closed by the server");
+		}
+		return reply;
+	}
+
+}
@@ -0,0 +1,67 @@
+package application;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import chess.Perft;
+import chess.engine.MoveOrdering;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+/*  Usage: OrderingCommand [depth]
+ 	Searches the Perft reference positions to a fixed depth with the move ordering heuristics added one at a time and
+ 	prints the nodes each needs. Every run starts with an empty transposition table and no history, so the counts are repeatable */
+public class OrderingCommand {
+
+	private static final int TABLE_MB = 64;
+
+	private static final String[] NAMES = { "none", "+hash", "+captures", "+killers", "+history" };
+	private static final int[] FLAGS = {
+		0,
+		MoveOrdering.HASH_MOVE,
+		MoveOrdering.HASH_MOVE | MoveOrdering.CAPTURES,
+		MoveOrdering.HASH_MOVE | MoveOrdering.CAPTURES | MoveOrdering.KILLERS,
+		MoveOrdering.ALL
+	};
+
+	public static void main(String[] args) {
+		int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+		TranspositionTable table = new TranspositionTable(TABLE_MB, false);
+
+		System.out.printf("%-10s", "position");
+		for (String name : NAMES) {
+			System.out.printf(" %12s", name);
+		}
+		System.out.println();
+		long[] totals = new long[FLAGS.length];
+		long[] millis = new long[FLAGS.length];
+		for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+			System.out.printf("%-10s", reference[0]);
+			String bestMove = null;
+			for (int i = 0; i < FLAGS.length; i++) {
+				ChessMatch chessMatch = Fen.newMatch((String) reference[1]);
+				table.clear();
+				Search search = new Search(table);
+				search.setMoveOrdering(FLAGS[i]);
+				SearchResult result = search.search(chessMatch, depth, 0, 0);
+				totals[i] += result.getNodes();
+				millis[i] += result.getElapsedMillis();
+				System.out.printf(" %12d", result.getNodes());
+				bestMove = Move.toString(result.getBestMove());
+			}
+			System.out.println("  " + bestMove);
+		}
+		System.out.printf("%-10s", "total");
+		for (long total : totals) {
+			System.out.printf(" %12d", total);
+		}
+		System.out.println();
+		System.out.printf("%-10s", "ms");
+		for (long time : millis) {
+			System.out.printf(" %12d", time);
+		}
+		System.out.println();
+	}
+
+}
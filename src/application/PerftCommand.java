@@ -0,0 +1,65 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Perft;
+
+/*  Usage: PerftCommand [threads=N] [maxDepth] [positionName [divide]]
+ 	Without a position name every reference position is checked up to maxDepth (default 4) against its published node counts.
+ 	With threads=N (N > 1) the tree is split over a fork/join pool of N workers; the counts and divide output are the same */
+public class PerftCommand {
+
+	public static void main(String[] argv) {
+		int threads = 1;
+		List<String> positional = new ArrayList<>();
+		for (String arg : argv) {
+			if (arg.startsWith("threads=")) {
+				threads = Integer.parseInt(arg.substring("threads=".length()));
+			}
+			else {
+				positional.add(arg);
+			}
+		}
+		String[] args = positional.toArray(new String[0]);
+		ForkJoinPool pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+		int maxDepth = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+		boolean failed = false;
+		for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+			String name = (String) reference[0];
+			if (args.length > 1 && !args[1].equals(name)) {
+				continue;
+			}
+			ChessMatch chessMatch = Fen.newMatch((String) reference[1]);
+			long[] expected = (long[]) reference[2];
+			if (args.length > 2 && args[2].equals("divide")) {
+				if (pool != null) {
+					Perft.parallelDivide(chessMatch, maxDepth, pool, System.out);
+				}
+				else {
+					Perft.divide(chessMatch, maxDepth, System.out);
+				}
+				continue;
+			}
+			for (int depth = 1; depth <= Math.min(maxDepth, expected.length); depth++) {
+				long start = System.nanoTime();
+				long nodes = (pool != null) ? Perft.parallelPerft(chessMatch, depth, pool) : Perft.perft(chessMatch, depth);
+				long elapsed = Math.max(1, System.nanoTime() - start);
+				boolean ok = nodes == expected[depth - 1];
+				failed |= !ok;
+				System.out.printf("%-10s depth %d: %12d nodes %s (expected %d), %.0f nodes/s%n", name, depth, nodes,
+						ok ? "OK  " : "FAIL", expected[depth - 1], nodes * 1e9 / elapsed);
+			}
+		}
+		if (pool != null) {
+			pool.shutdown();
+		}
+		if (failed) {
+			System.exit(1);
+		}
+	}
+
+}
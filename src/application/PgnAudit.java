@@ -0,0 +1,37 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.pgn.PgnReader;
+
+/*  Usage: PgnAudit file.pgn [threads]
+ 	Replays every game of the file through the rules and lists the games holding a move that cannot be played */
+public class PgnAudit {
+
+	private static final int MAX_REPORTED = 20;
+
+	public static void main(String[] args) throws IOException {
+		Path file = Paths.get(args[0]);
+		int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		AtomicLong plies = new AtomicLong();
+		AtomicLong rejected = new AtomicLong();
+		long start = System.nanoTime();
+		long games = PgnReader.replay(file, threads, game -> {
+			plies.addAndGet(game.getPlyCount());
+			if (!game.isLegal() && rejected.incrementAndGet() <= MAX_REPORTED) {
+				System.out.println("Game at offset " + game.getOffset() + ": " + game.getError());
+			}
+		});
+		double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+		long bytes = file.toFile().length();
+		System.out.printf("%d games, %d plies, %d rejected in %.2f s (%.0f games/s, %.1f MB/s, %d threads)%n", games, plies.get(),
+				rejected.get(), seconds, games / seconds, bytes / seconds / 1e6, threads);
+		if (rejected.get() > 0) {
+			System.exit(1);
+		}
+	}
+
+}
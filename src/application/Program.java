@@ -1,5 +1,7 @@
 package application;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
@@ -9,16 +11,24 @@ import chess.ChessException;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.archive.GameArchiveWriter;
+import chess.enums.Color;
+import chess.pgn.PgnGame;
 
+//Usage: Program [archive file]. With an archive file the game is recorded to it as it is played
 public class Program {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 
 		Scanner sc = new Scanner(System.in);
 		ChessMatch chessMatch = new ChessMatch();
 		List<ChessPiece> captured = new ArrayList<>();
+		GameArchiveWriter archive = (args.length > 0) ? new GameArchiveWriter(Paths.get(args[0])) : null;
+		if (archive != null) {
+			archive.beginGame(chessMatch);
+		}
 		
-		while (!chessMatch.getCheckMate()) {
+		while (!chessMatch.getCheckMate() && !chessMatch.getStalemate()) {
 			try {
 				UI.clearScreen();
 				UI.printMatch(chessMatch, captured);
@@ -51,6 +61,10 @@ public class Program {
 					}
 					chessMatch.replacePromotedPiece(type);
 				}
+				
+				if (archive != null) {
+					archive.addLastMove(chessMatch);
+				}
 			}
 			catch (ChessException e) {
 				System.out.println(e.getMessage());
@@ -62,6 +76,13 @@ public class Program {
 			}
 		}
 		
+		if (archive != null) {
+			// On checkmate the turn does not pass, so the current player is the winner
+			int result = chessMatch.getStalemate() ? PgnGame.DRAW : chessMatch.getCurrentPlayer() == Color.WHITE ? PgnGame.WHITE_WINS : PgnGame.BLACK_WINS;
+			archive.endGame(result);
+			archive.close();
+		}
+		
 		UI.clearScreen();
 		UI.printMatch(chessMatch, captured);
 				
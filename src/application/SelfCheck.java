@@ -0,0 +1,19 @@
+package application;
+
+import chess.MagicBitboards;
+
+/*  Usage: SelfCheck [samples per square] [seed]
+ 	Verifies the precomputed attack tables against a reference ray walk. The seed is printed, and passing it back repeats
+ 	the same occupancies */
+public class SelfCheck {
+
+	public static void main(String[] args) {
+		int samples = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+		long seed = (args.length > 1) ? Long.parseLong(args[1]) : System.currentTimeMillis();
+		System.out.println("Seed " + seed);
+		long start = System.nanoTime();
+		MagicBitboards.selfCheck(seed, samples);
+		System.out.println("Magic sliding attacks: OK (" + samples + " random occupancies per square, " + (System.nanoTime() - start) / 1000000 + " ms)");
+	}
+
+}
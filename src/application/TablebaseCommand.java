@@ -0,0 +1,78 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.tablebase.TablebaseGenerator;
+import chess.tablebase.Tablebases;
+
+/*  Usage: TablebaseCommand [threads=N] generate directory material...
+ 	       TablebaseCommand probe directory FEN
+ 	Generates the tablebases of the given materials (e.g. KQK KRK KPK KBNK) with the smaller ones they need, or prints the
+ 	result, distance to mate and best move of a position together with the probe time */
+public class TablebaseCommand {
+
+	private static final int PROBES = 1000000;
+
+	public static void main(String[] argv) throws IOException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		List<String> args = new ArrayList<>();
+		for (String arg : argv) {
+			if (arg.startsWith("threads=")) {
+				threads = Integer.parseInt(arg.substring("threads=".length()));
+			}
+			else {
+				args.add(arg);
+			}
+		}
+		if (args.size() >= 3 && args.get(0).equals("generate")) {
+			Path directory = Paths.get(args.get(1));
+			Files.createDirectories(directory);
+			TablebaseGenerator generator = new TablebaseGenerator(directory, threads);
+			for (String material : args.subList(2, args.size())) {
+				generator.generate(material, System.out);
+			}
+		}
+		else if (args.size() >= 3 && args.get(0).equals("probe")) {
+			probe(Paths.get(args.get(1)), String.join(" ", args.subList(2, args.size())));
+		}
+		else {
+			System.out.println("Usage: TablebaseCommand [threads=N] generate directory material... | probe directory FEN");
+			System.exit(2);
+		}
+	}
+
+	private static void probe(Path directory, String fen) throws IOException {
+		try (Tablebases tablebases = new Tablebases(directory)) {
+			ChessMatch chessMatch = Fen.newMatch(fen);
+			int result = tablebases.probe(chessMatch);
+			if (result == Tablebases.UNKNOWN) {
+				System.out.println("Not in the tablebases");
+				return;
+			}
+			String[] names = { "draw", "win", "loss" };
+			System.out.print(names[Tablebases.wdl(result)]);
+			if (Tablebases.wdl(result) != Tablebases.DRAW) {
+				System.out.print(", mate in " + Tablebases.distanceToMate(result) + " plies");
+			}
+			int best = tablebases.bestMove(chessMatch, new MoveList());
+			System.out.println(best != Move.NONE ? ", best move " + Move.toString(best) : "");
+
+			long checksum = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < PROBES; i++) {
+				checksum += tablebases.probe(chessMatch);
+			}
+			System.out.printf("%.0f ns per probe (checksum %d)%n", (double) (System.nanoTime() - start) / PROBES, checksum);
+		}
+	}
+
+}
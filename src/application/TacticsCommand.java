@@ -0,0 +1,67 @@
+package application;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.San;
+import chess.engine.Search;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+/*  Usage: TacticsCommand [depth]
+ 	Searches the first positions of the Win at Chess test suite to a fixed depth, with and without the quiescence search,
+ 	and prints the move found against the best move, with the nodes and time each needed */
+public class TacticsCommand {
+
+	private static final int TABLE_MB = 64;
+
+	// FEN and best move
+	private static final String[][] POSITIONS = {
+		{ "2rr3k/pp3pp1/1nnqbN1p/3pN3/2pP4/2P3Q1/PPB4P/R4RK1 w - - 0 1", "Qg6" },
+		{ "8/7p/5k2/5p2/p1p2P2/Pr1pPK2/1P1R3P/8 b - - 0 1", "Rxb2" },
+		{ "5rk1/1ppb3p/p1pb4/6q1/3P1p1r/2P1R2P/PP1BQ1P1/5RKN w - - 0 1", "Rg3" },
+		{ "r1bq2rk/pp3pbp/2p1p1pQ/7P/3P4/2PB1N2/PP3PPR/2KR4 w - - 0 1", "Qxh7+" },
+		{ "5k2/6pp/p1qN4/1p1p4/3P4/2PKP2Q/PP3r2/3R4 b - - 0 1", "Qc4+" },
+		{ "7k/p7/1R5K/6r1/6p1/6P1/8/8 w - - 0 1", "Rb7" },
+		{ "rnbqkb1r/pppp1ppp/8/4P3/6n1/7P/PPPNPPP1/R1BQKBNR b KQkq - 0 1", "Ne3" },
+		{ "r4q1k/p2bR1rp/2p2Q1N/5p2/5p2/2P5/PP3PPP/R5K1 w - - 0 1", "Rf7" },
+		{ "3q1rk1/p4pp1/2pb3p/3p4/6Pr/1PNQ4/P1PB1PP1/4RRK1 b - - 0 1", "Bh2+" },
+		{ "2br2k1/2q3rn/p2NppQ1/2p1P3/Pp5R/4P3/1P3PPP/3R2K1 w - - 0 1", "Rh7" }
+	};
+
+	public static void main(String[] args) {
+		int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+		TranspositionTable table = new TranspositionTable(TABLE_MB, false);
+		MoveList scratch = new MoveList();
+
+		System.out.printf("%-4s %-6s %-10s %12s %-10s %12s%n", "#", "best", "no qsearch", "nodes", "qsearch", "nodes");
+		int[] solved = new int[2];
+		long[] nodes = new long[2];
+		long[] millis = new long[2];
+		for (int i = 0; i < POSITIONS.length; i++) {
+			int expected = San.resolve(Fen.newMatch(POSITIONS[i][0]), POSITIONS[i][1], scratch);
+			System.out.printf("%-4d %-6s", i + 1, POSITIONS[i][1]);
+			for (int run = 0; run < 2; run++) {
+				ChessMatch chessMatch = Fen.newMatch(POSITIONS[i][0]);
+				table.clear();
+				Search search = new Search(table);
+				search.setQuiescence(run == 1);
+				SearchResult result = search.search(chessMatch, depth, 0, 0);
+				boolean found = result.getBestMove() == expected;
+				if (found) {
+					solved[run]++;
+				}
+				nodes[run] += result.getNodes();
+				millis[run] += result.getElapsedMillis();
+				System.out.printf(" %-10s %12d", Move.toString(result.getBestMove()) + (found ? " ok" : ""), result.getNodes());
+			}
+			System.out.println();
+		}
+		for (int run = 0; run < 2; run++) {
+			System.out.printf("%s: %d/%d solved, %d nodes, %d ms%n", run == 0 ? "no qsearch" : "qsearch", solved[run], POSITIONS.length,
+					nodes[run], millis[run]);
+		}
+	}
+
+}
@@ -46,7 +46,7 @@ public class UI {
 			String s = sc.nextLine().toLowerCase();
 			char column = s.charAt(0);
 			int row = Integer.parseInt(s.substring(1));
-			return new ChessPosition(column, row);
+			return ChessPosition.of(column, row);
 		}
 		catch (RuntimeException e) {
 			throw new InputMismatchException("ChessPosition reading error: please inform a value between [a1] and [h8]");
@@ -59,7 +59,11 @@ public class UI {
 		printCapturedPieces(captured);
 		System.out.println();
 		System.out.println("Turn: " + chessMatch.getTurn());
-		if (!chessMatch.getCheckMate()) {
+		if (chessMatch.getStalemate()) {
+			System.out.println("STALEMATE!");
+			System.out.println("Draw");
+		}
+		else if (!chessMatch.getCheckMate()) {
 			System.out.println("Waiting for player: " + chessMatch.getCurrentPlayer());
 			if (chessMatch.getCheck()) {
 				System.out.println("CHECK!");
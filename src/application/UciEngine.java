@@ -0,0 +1,335 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.book.PolyglotBook;
+import chess.book.PolyglotKeys;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.enums.Color;
+
+/*  Usage: UciEngine
+ 	Speaks the UCI protocol on standard input and output, so the engine can be driven by chess GUIs and tournament managers.
+ 	Searches run on a worker thread while this thread keeps reading commands, so stop and isready are answered at once.
+ 	The match is kept between commands: a position that extends the previous one by a few moves only plays those moves.
+ 	With the BookFile option set, go answers from that Polyglot book without searching while the position is in it */
+public class UciEngine {
+
+	private static final String NAME = "Chess System";
+	private static final int DEFAULT_HASH_MB = 64;
+	private static final int MAX_HASH_MB = 65536;
+	private static final int MAX_THREADS = 256;
+	// Time kept back from every move for the GUI and the operating system
+	private static final long MOVE_OVERHEAD_MILLIS = 50;
+	// Moves the remaining clock time is spread over when the GUI does not say
+	private static final int DEFAULT_MOVES_TO_GO = 30;
+
+	private final ChessMatch chessMatch = new ChessMatch();
+	private final MoveList legalMoves = new MoveList();
+	private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "search");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private TranspositionTable table = new TranspositionTable(DEFAULT_HASH_MB, false);
+	private ParallelSearch search;
+	private Future<?> running;
+	private PolyglotKeys bookKeys = PolyglotKeys.DEFAULT;
+	private String bookFile;
+	private PolyglotBook book;
+	private final int[] bookWeights = new int[MoveList.CAPACITY];
+	private final Random random = new Random();
+
+	// The position on the board is baseFen followed by playedMoves
+	private String baseFen = Fen.INITIAL;
+	private final List<String> playedMoves = new ArrayList<>();
+
+	public static void main(String[] args) throws IOException {
+		new UciEngine().run();
+	}
+
+	private UciEngine() {
+		Fen.load(chessMatch, Fen.INITIAL);
+		setThreads(1);
+	}
+
+	private void run() throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+		for (String line = in.readLine(); line != null; line = in.readLine()) {
+			String[] tokens = line.trim().split("\\s+");
+			try {
+				switch (tokens[0]) {
+				case "uci":
+					System.out.println("id name " + NAME);
+					System.out.println("id author Chess System contributors");
+					System.out.println("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+					System.out.println("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+					System.out.println("option name BookFile type string default <empty>");
+					System.out.println("option name BookKeys type string default <empty>");
+					System.out.println("uciok");
+					break;
+				case "isready":
+					System.out.println("readyok");
+					break;
+				case "setoption":
+					setOption(tokens);
+					break;
+				case "ucinewgame":
+					stopSearch();
+					table.clear();
+					setPosition(Fen.INITIAL, tokens, tokens.length);
+					break;
+				case "position":
+					position(tokens);
+					break;
+				case "go":
+					go(tokens);
+					break;
+				case "stop":
+					search.stop();
+					break;
+				case "quit":
+					search.stop();
+					waitForSearch();
+					return;
+				default:
+					// Unknown commands are ignored, as the protocol asks
+				}
+			}
+			catch (ChessException | IllegalArgumentException | IOException e) {
+				System.out.println("info string " + e.getMessage());
+			}
+		}
+		search.stop();
+		waitForSearch();
+	}
+
+	private void setOption(String[] tokens) throws IOException {
+		String name = value(tokens, "name");
+		String value = value(tokens, "value");
+		if (name == null || value == null) {
+			return;
+		}
+		stopSearch();
+		if (name.equalsIgnoreCase("Hash")) {
+			int megabytes = Integer.parseInt(value);
+			if (megabytes < 1 || megabytes > MAX_HASH_MB) {
+				throw new IllegalArgumentException("Hash must be between 1 and " + MAX_HASH_MB + " MB");
+			}
+			int threads = search.getThreads();
+			// The old table is let go before the new one is allocated, so both never have to fit in memory
+			search.shutdown();
+			search = null;
+			table = null;
+			table = new TranspositionTable(megabytes, megabytes > 8192);
+			setThreads(threads);
+		}
+		else if (name.equalsIgnoreCase("Threads")) {
+			int threads = Integer.parseInt(value);
+			if (threads < 1 || threads > MAX_THREADS) {
+				throw new IllegalArgumentException("Threads must be between 1 and " + MAX_THREADS);
+			}
+			setThreads(threads);
+		}
+		else if (name.equalsIgnoreCase("BookFile")) {
+			bookFile = value.isEmpty() || value.equals("<empty>") ? null : value;
+			openBook();
+		}
+		else if (name.equalsIgnoreCase("BookKeys")) {
+			// Empty for the published Polyglot table, custom for our own, or a key table file
+			bookKeys = PolyglotKeys.named(value.equals("<empty>") ? "" : value);
+			openBook();
+		}
+	}
+
+	private void openBook() throws IOException {
+		if (book != null) {
+			book.close();
+			book = null;
+		}
+		if (bookFile != null) {
+			book = new PolyglotBook(Paths.get(bookFile), bookKeys);
+			System.out.println("info string book " + bookFile + " with " + book.getEntryCount() + " entries");
+		}
+	}
+
+	private void setThreads(int threads) {
+		if (search != null) {
+			search.shutdown();
+		}
+		search = new ParallelSearch(table, threads);
+		search.setListener(result -> System.out.println("info " + result.toString(table.hashfull())));
+	}
+
+	// position [startpos | fen <FEN>] [moves <move>...]
+	private void position(String[] tokens) {
+		int movesIndex = indexOf(tokens, "moves");
+		int end = (movesIndex < 0) ? tokens.length : movesIndex;
+		String fen;
+		if (tokens.length > 1 && tokens[1].equals("fen")) {
+			fen = String.join(" ", Arrays.copyOfRange(tokens, 2, end));
+		}
+		else {
+			fen = Fen.INITIAL;
+		}
+		setPosition(fen, tokens, (movesIndex < 0) ? tokens.length : movesIndex + 1);
+	}
+
+	/*  Sets up fen followed by tokens[firstMove..]. When fen is the position already on the board, the moves the two lines
+	 	have in common are kept and only the difference is taken back or played */
+	private void setPosition(String fen, String[] tokens, int firstMove) {
+		stopSearch();
+		int common = 0;
+		if (fen.equals(baseFen)) {
+			while (common < playedMoves.size() && firstMove + common < tokens.length
+					&& playedMoves.get(common).equals(tokens[firstMove + common])) {
+				common++;
+			}
+			while (playedMoves.size() > common) {
+				chessMatch.takeBack();
+				playedMoves.remove(playedMoves.size() - 1);
+			}
+		}
+		else {
+			playedMoves.clear();
+			try {
+				Fen.load(chessMatch, fen);
+				baseFen = fen;
+			}
+			catch (ChessException e) {
+				Fen.load(chessMatch, Fen.INITIAL);
+				baseFen = Fen.INITIAL;
+				throw e;
+			}
+		}
+		for (int i = firstMove + common; i < tokens.length; i++) {
+			int move = legalMove(tokens[i]);
+			if (move == Move.NONE) {
+				throw new ChessException("Illegal move " + tokens[i] + ", the position stops before it");
+			}
+			chessMatch.playMove(move);
+			playedMoves.add(tokens[i]);
+		}
+	}
+
+	private int legalMove(String text) {
+		chessMatch.generateLegalMoves(legalMoves);
+		for (int i = 0; i < legalMoves.size(); i++) {
+			int move = legalMoves.get(i);
+			if (Move.toString(move).equals(text)) {
+				return move;
+			}
+		}
+		return Move.NONE;
+	}
+
+	// go [depth N] [nodes N] [movetime ms] [wtime ms] [btime ms] [winc ms] [binc ms] [movestogo N] [infinite]
+	private void go(String[] tokens) {
+		stopSearch();
+		// A book move is answered at once, without starting a search. An infinite search is for analysis, so it skips the book
+		if (book != null && indexOf(tokens, "infinite") < 0) {
+			int move = book.pick(chessMatch, legalMoves, bookWeights, random);
+			if (move != Move.NONE) {
+				System.out.println("info string book move");
+				System.out.println("bestmove " + Move.toString(move));
+				return;
+			}
+		}
+		boolean white = chessMatch.getCurrentPlayer() == Color.WHITE;
+		int depth = (int) number(tokens, "depth");
+		long nodes = number(tokens, "nodes");
+		long moveTime = number(tokens, "movetime");
+		long clock = number(tokens, white ? "wtime" : "btime");
+		long increment = number(tokens, white ? "winc" : "binc");
+		long movesToGo = number(tokens, "movestogo");
+
+		long timeLimit = 0;
+		if (moveTime > 0) {
+			timeLimit = moveTime;
+		}
+		else if (clock > 0) {
+			timeLimit = clock / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+			timeLimit = Math.max(1, Math.min(timeLimit, clock - MOVE_OVERHEAD_MILLIS));
+		}
+		long searchTime = timeLimit;
+
+		// The stop flag is cleared here rather than on the worker, so a stop sent right after go is not lost
+		search.clearStop();
+		running = worker.submit(() -> {
+			SearchResult result = search.search(chessMatch, depth, nodes, searchTime);
+			int best = result.getBestMove();
+			System.out.println("bestmove " + (best == Move.NONE ? "0000" : Move.toString(best)));
+		});
+	}
+
+	// Stops a running search, which still reports its best move, and waits for it to end
+	private void stopSearch() {
+		if (running != null) {
+			search.stop();
+			waitForSearch();
+		}
+	}
+
+	private void waitForSearch() {
+		if (running == null) {
+			return;
+		}
+		try {
+			running.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			System.out.println("info string search failed: " + e.getCause());
+		}
+		running = null;
+	}
+
+	private static int indexOf(String[] tokens, String token) {
+		for (int i = 0; i < tokens.length; i++) {
+			if (tokens[i].equals(token)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	// The number following the keyword, or 0 when the keyword is absent
+	private static long number(String[] tokens, String keyword) {
+		int i = indexOf(tokens, keyword);
+		return (i >= 0 && i + 1 < tokens.length) ? Long.parseLong(tokens[i + 1]) : 0;
+	}
+
+	// setoption name <name> value <value>: the words between the keyword and the next keyword
+	private static String value(String[] tokens, String keyword) {
+		int i = indexOf(tokens, keyword);
+		if (i < 0) {
+			return null;
+		}
+		int end = indexOf(tokens, keyword.equals("name") ? "value" : "name");
+		if (end < i) {
+			end = tokens.length;
+		}
+		return String.join(" ", Arrays.copyOfRange(tokens, i + 1, end));
+	}
+
+}
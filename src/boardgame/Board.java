@@ -4,7 +4,8 @@ public class Board {
 
 	private int rows;
 	private int columns;
-	private Piece[][] pieces;
+	//Indexed by square: row * columns + column
+	private Piece[] pieces;
 	
 	public Board() {
 	}
@@ -15,7 +16,7 @@ public class Board {
 		}
 		this.rows = rows;
 		this.columns = columns;
-		pieces = new Piece[rows][columns];
+		pieces = new Piece[rows * columns];
 	}
 	
 	public int getRows() {
@@ -26,40 +27,83 @@ public class Board {
 		return columns;
 	}
 	
+	//Square index of the coordinates, counted row by row from row 0, column 0
+	public int square(int row, int column) {
+		return row * columns + column;
+	}
+	
+	public int square(Position position) {
+		return square(position.getRow(), position.getColumn());
+	}
+	
+	//Shared Position of the square
+	public Position position(int square) {
+		return Position.of(square / columns, square % columns);
+	}
+	
 	public Piece piece(int row, int column) {
 		if (!positionExists(row, column)) {
 			throw new BoardException("Position inexistent on this board. Please inform a valid position");
 		}
-		return pieces[row][column];
+		return pieces[square(row, column)];
 	}
 	
 	public Piece piece(Position position) {
-		if (!positionExists(position)) {
+		return piece(position.getRow(), position.getColumn());
+	}
+	
+	public Piece piece(int square) {
+		if (!positionExists(square)) {
 			throw new BoardException("Position inexistent on this board. Please inform a valid position");
 		}
-		return pieces[position.getRow()][position.getColumn()];
+		return pieces[square];
 	}
-
+	
 	public void placePiece(Piece piece, Position position) {
-		if (thereIsAPiece(position)) {
-			throw new BoardException("Position " + position + " is being used. Please inform a different position");
+		if (!positionExists(position)) {
+			throw new BoardException("Position inexistent on this board. Please inform a valid position");
 		}
-		pieces[position.getRow()][position.getColumn()] = piece;
-		piece.position = position;
+		placePiece(piece, square(position));
+	}
+	
+	//Subclasses that keep track of the pieces override the square versions of placePiece and removePiece, which the Position versions call
+	public void placePiece(Piece piece, int square) {
+		if (thereIsAPiece(square)) {
+			throw new BoardException("Position " + position(square) + " is being used. Please inform a different position");
+		}
+		pieces[square] = piece;
+		piece.position = position(square);
+		piece.square = square;
 	}
 	
 	public Piece removePiece(Position position) {
 		if (!positionExists(position)) {
 			throw new BoardException("Position inexistent on this board. Please inform a valid position");
 		}
-		if (piece(position) == null) {
-			return null;
+		return removePiece(square(position));
+	}
+	
+	public Piece removePiece(int square) {
+		if (!positionExists(square)) {
+			throw new BoardException("Position inexistent on this board. Please inform a valid position");
 		}
-		else {
-			Piece aux = piece(position);
+		Piece aux = pieces[square];
+		if (aux != null) {
 			aux.position = null;
-			pieces[position.getRow()][position.getColumn()] = null;
-			return aux;
+			aux.square = -1;
+			pieces[square] = null;
+		}
+		return aux;
+	}
+	
+	//Takes every piece off the board at once
+	public void clear() {
+		for (int i = 0; i < pieces.length; i++) {
+			if (pieces[i] != null) {
+				pieces[i].position = null;
+				pieces[i].square = -1;
+				pieces[i] = null;
+			}
 		}
 	}
 	
@@ -71,6 +115,10 @@ public class Board {
 		return positionExists(position.getRow(), position.getColumn());
 	}
 	
+	public boolean positionExists(int square) {
+		return square >= 0 && square < pieces.length;
+	}
+	
 	//Returns boolean based on if there is a piece placed on the argument position or not. Calls piece method above.
 	public boolean thereIsAPiece(Position position) {
 		if (!positionExists(position) ) {
@@ -79,4 +127,8 @@ public class Board {
 		return piece(position) != null;
 	}
 	
+	public boolean thereIsAPiece(int square) {
+		return piece(square) != null;
+	}
+	
 }
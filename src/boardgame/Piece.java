@@ -5,6 +5,8 @@ package boardgame;
 public abstract class Piece {
 
 	protected Position position;;
+	//Square index on the board (see Board.square), or -1 while the piece is off the board
+	int square = -1;
 	private Board board;
 	
 	public Piece(Board board) {
@@ -16,6 +18,10 @@ public abstract class Piece {
 		return board;
 	}
 	
+	public int getSquare() {
+		return square;
+	}
+	
 	//Based on arguments from each chess piece's own concrete method, returns a matrix of booleans indicating positions with legal or illegal moves
 	public abstract boolean[][] possibleMoves();
 	
@@ -24,6 +30,10 @@ public abstract class Piece {
 		return possibleMoves()[position.getRow()][position.getColumn()];
 	}
 	
+	public boolean possibleMove(int square) {
+		return possibleMove(board.position(square));
+	}
+	
 	//Based on abstract method possibleMoves, returns whether or not there is at least one legal move for a chess piece
 	public boolean isThereAnyPossibleMove() {
 		boolean[][] mat = possibleMoves();
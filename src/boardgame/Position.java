@@ -1,20 +1,35 @@
 package boardgame;
 
 
-//Represents positions on the board
+//Represents positions on the board. Immutable, so that one instance per square can be shared (see of)
 public class Position {
 
-	private int row;
-	private int column;
+	// Positions up to this many rows and columns are interned
+	private static final int CACHED = 8;
+	private static final Position[] CACHE = new Position[CACHED * CACHED];
 	
-	public Position() {
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new Position(i / CACHED, i % CACHED);
+		}
 	}
 	
+	private final int row;
+	private final int column;
+	
 	public Position(int row, int column) {
 		this.row = row;
 		this.column = column;
 	}
 	
+	//Shared instance for the coordinates; only positions beyond an 8x8 board are created on every call
+	public static Position of(int row, int column) {
+		if (row >= 0 && row < CACHED && column >= 0 && column < CACHED) {
+			return CACHE[row * CACHED + column];
+		}
+		return new Position(row, column);
+	}
+	
 	public int getRow() {
 		return row;
 	}
@@ -23,9 +38,18 @@ public class Position {
 		return column;
 	}
 	
-	public void setValues(int row, int column) {
-		this.row = row;
-		this.column = column;
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Position)) {
+			return false;
+		}
+		Position other = (Position) obj;
+		return row == other.row && column == other.column;
+	}
+	
+	@Override
+	public int hashCode() {
+		return row * 31 + column;
 	}
 	
 	@Override
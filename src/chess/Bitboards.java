@@ -0,0 +1,187 @@
+package chess;
+
+import boardgame.Position;
+import chess.enums.Color;
+
+//Helpers for 64-bit square sets. Bit index of a square is row * 8 + column, so bit 0 is a8 and bit 63 is h1
+public final class Bitboards {
+
+	public static final long FILE_A = 0x0101010101010101L;
+	public static final long FILE_H = 0x8080808080808080L;
+	public static final long NOT_FILE_A = ~FILE_A;
+	public static final long NOT_FILE_H = ~FILE_H;
+
+	// Squares strictly between two squares on a common line, and the whole board-wide line through both. Empty when not aligned
+	private static final long[] BETWEEN = new long[64 * 64];
+	private static final long[] LINE = new long[64 * 64];
+	// Leaper and pawn capture targets per square, read by move generation and by the reverse "attacked by" tests alike
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+	static {
+		for (int square = 0; square < 64; square++) {
+			KING_ATTACKS[square] = computeKingAttacks(square);
+			KNIGHT_ATTACKS[square] = computeKnightAttacks(square);
+			PAWN_ATTACKS[Color.WHITE.ordinal()][square] = pawnSetAttacks(Color.WHITE, bit(square));
+			PAWN_ATTACKS[Color.BLACK.ordinal()][square] = pawnSetAttacks(Color.BLACK, bit(square));
+		}
+		for (int from = 0; from < 64; from++) {
+			for (int dRow = -1; dRow <= 1; dRow++) {
+				for (int dColumn = -1; dColumn <= 1; dColumn++) {
+					if (dRow == 0 && dColumn == 0) {
+						continue;
+					}
+					long ray = 0L;
+					long line = bit(from);
+					for (int r = row(from) + dRow, c = column(from) + dColumn; r >= 0 && r < 8 && c >= 0 && c < 8; r += dRow, c += dColumn) {
+						line |= bit(r, c);
+					}
+					for (int r = row(from) - dRow, c = column(from) - dColumn; r >= 0 && r < 8 && c >= 0 && c < 8; r -= dRow, c -= dColumn) {
+						line |= bit(r, c);
+					}
+					for (int r = row(from) + dRow, c = column(from) + dColumn; r >= 0 && r < 8 && c >= 0 && c < 8; r += dRow, c += dColumn) {
+						int to = square(r, c);
+						BETWEEN[from * 64 + to] = ray;
+						LINE[from * 64 + to] = line;
+						ray |= bit(to);
+					}
+				}
+			}
+		}
+	}
+
+	private Bitboards() {
+	}
+
+	public static long between(int from, int to) {
+		return BETWEEN[from * 64 + to];
+	}
+
+	public static long line(int from, int to) {
+		return LINE[from * 64 + to];
+	}
+
+	public static int square(int row, int column) {
+		return row * 8 + column;
+	}
+
+	public static int square(Position position) {
+		return position.getRow() * 8 + position.getColumn();
+	}
+
+	// The interned Position of the square
+	public static Position position(int square) {
+		return Position.of(row(square), column(square));
+	}
+
+	public static int row(int square) {
+		return square >>> 3;
+	}
+
+	public static int column(int square) {
+		return square & 7;
+	}
+
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	public static long bit(int row, int column) {
+		return 1L << (row * 8 + column);
+	}
+
+	public static long kingAttacks(int square) {
+		return KING_ATTACKS[square];
+	}
+
+	public static long knightAttacks(int square) {
+		return KNIGHT_ATTACKS[square];
+	}
+
+	//Squares attacked by a pawn of the given color standing on square. White pawns move up the matrix, black pawns down.
+	//Read the other way round, the pawns of color that attack square are pawnAttacks(opposite color, square)
+	public static long pawnAttacks(Color color, int square) {
+		return PAWN_ATTACKS[color.ordinal()][square];
+	}
+
+	//Shifting left by 8 moves every square one row down the matrix (towards rank 1), shifting right moves it up (towards rank 8)
+	private static long computeKingAttacks(int square) {
+		long king = bit(square);
+		long sides = ((king << 1) & NOT_FILE_A) | ((king >>> 1) & NOT_FILE_H);
+		long row = king | sides;
+		return sides | (row << 8) | (row >>> 8);
+	}
+
+	private static long computeKnightAttacks(int square) {
+		long knight = bit(square);
+		long oneColumn = ((knight << 1) & NOT_FILE_A) | ((knight >>> 1) & NOT_FILE_H);
+		long twoColumns = ((knight << 2) & ~(FILE_A | (FILE_A << 1))) | ((knight >>> 2) & ~(FILE_H | (FILE_H >>> 1)));
+		return (oneColumn << 16) | (oneColumn >>> 16) | (twoColumns << 8) | (twoColumns >>> 8);
+	}
+
+	//Squares attacked by a whole set of pawns of the given color
+	public static long pawnSetAttacks(Color color, long pawns) {
+		if (color == Color.WHITE) {
+			return ((pawns >>> 9) & NOT_FILE_H) | ((pawns >>> 7) & NOT_FILE_A);
+		}
+		return ((pawns << 7) & NOT_FILE_H) | ((pawns << 9) & NOT_FILE_A);
+	}
+
+	//Sliding attacks computed with ray fills. MagicBitboards builds and verifies its lookup tables from these
+	public static long rookAttacks(int square, long occupied) {
+		long rook = bit(square);
+		long empty = ~occupied;
+		return slideLeft(rook, empty, 8, -1L)
+				| slideRight(rook, empty, 8, -1L)
+				| slideLeft(rook, empty, 1, NOT_FILE_A)
+				| slideRight(rook, empty, 1, NOT_FILE_H);
+	}
+
+	public static long bishopAttacks(int square, long occupied) {
+		long bishop = bit(square);
+		long empty = ~occupied;
+		return slideLeft(bishop, empty, 9, NOT_FILE_A)
+				| slideLeft(bishop, empty, 7, NOT_FILE_H)
+				| slideRight(bishop, empty, 7, NOT_FILE_A)
+				| slideRight(bishop, empty, 9, NOT_FILE_H);
+	}
+
+	public static long queenAttacks(int square, long occupied) {
+		return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+	}
+
+	/*  Occluded (Kogge-Stone) fill: propagates the generator through empty squares in the shift direction
+	 	and returns the attacked squares, including the first blocker. wrap removes squares that crossed the board edge */
+	private static long slideLeft(long gen, long empty, int shift, long wrap) {
+		empty &= wrap;
+		gen |= empty & (gen << shift);
+		empty &= empty << shift;
+		gen |= empty & (gen << (shift << 1));
+		empty &= empty << (shift << 1);
+		gen |= empty & (gen << (shift << 2));
+		return (gen << shift) & wrap;
+	}
+
+	private static long slideRight(long gen, long empty, int shift, long wrap) {
+		empty &= wrap;
+		gen |= empty & (gen >>> shift);
+		empty &= empty >>> shift;
+		gen |= empty & (gen >>> (shift << 1));
+		empty &= empty >>> (shift << 1);
+		gen |= empty & (gen >>> (shift << 2));
+		return (gen >>> shift) & wrap;
+	}
+
+	//Converts a square set into the boolean matrix format returned by possibleMoves
+	public static boolean[][] toMatrix(long squares) {
+		boolean[][] mat = new boolean[8][8];
+		while (squares != 0) {
+			int square = Long.numberOfTrailingZeros(squares);
+			mat[square >>> 3][square & 7] = true;
+			squares &= squares - 1;
+		}
+		return mat;
+	}
+
+}
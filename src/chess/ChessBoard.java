@@ -0,0 +1,200 @@
+package chess;
+
+import java.util.Arrays;
+
+import boardgame.Board;
+import boardgame.Piece;
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  8x8 board that keeps one bitboard per color and per piece type in sync with the piece matrix, along with the king squares,
+ 	the Zobrist key of the pieces and their PieceSquareTables totals.
+ 	The squares attacked by each side are computed on first use after a change and cached until the next placePiece/removePiece */
+public class ChessBoard extends Board {
+
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private long occupancy;
+	private long[] colorMasks = new long[Color.values().length];
+	private long[] typeMasks = new long[PieceType.values().length];
+	private int[] kingSquares = { -1, -1 };
+	private long zobristKey;
+	private int middlegameScore;
+	private int endgameScore;
+	private int phase;
+	private long[] attackMaps = new long[Color.values().length];
+	private boolean[] attackMapsValid = new boolean[Color.values().length];
+
+	public ChessBoard() {
+		super(8, 8);
+	}
+
+	public long getOccupancy() {
+		return occupancy;
+	}
+
+	public long getColorMask(Color color) {
+		return colorMasks[color.ordinal()];
+	}
+
+	public long getTypeMask(PieceType type) {
+		return typeMasks[type.ordinal()];
+	}
+
+	public long getMask(Color color, PieceType type) {
+		return colorMasks[color.ordinal()] & typeMasks[type.ordinal()];
+	}
+
+	// XOR of the Zobrist keys of every piece on its square
+	public long getZobristKey() {
+		return zobristKey;
+	}
+
+	// Sum of the PieceSquareTables middlegame values of every piece, material included; positive when White is better
+	public int getMiddlegameScore() {
+		return middlegameScore;
+	}
+
+	public int getEndgameScore() {
+		return endgameScore;
+	}
+
+	// Sum of the PieceSquareTables phase weights; it can pass MAX_PHASE after promotions
+	public int getPhase() {
+		return phase;
+	}
+
+	// Type of the piece on the square, or null when it is empty
+	public PieceType getPieceType(int square) {
+		long bit = Bitboards.bit(square);
+		if ((occupancy & bit) == 0) {
+			return null;
+		}
+		for (PieceType type : TYPES) {
+			if ((typeMasks[type.ordinal()] & bit) != 0) {
+				return type;
+			}
+		}
+		throw new IllegalStateException("Square " + square + " is occupied by no piece type");
+	}
+
+	// Square of the king of the given color, or -1 when it is not on the board
+	public int getKingSquare(Color color) {
+		return kingSquares[color.ordinal()];
+	}
+
+	// Every square attacked by the pieces of the given color, whether or not an own piece stands there
+	public long getAttackedSquares(Color by) {
+		int index = by.ordinal();
+		if (!attackMapsValid[index]) {
+			attackMaps[index] = getAttackedSquares(by, occupancy);
+			attackMapsValid[index] = true;
+		}
+		return attackMaps[index];
+	}
+
+	// Attacked squares as they would be with a different occupancy, e.g. with a king lifted off its square
+	public long getAttackedSquares(Color by, long occupancy) {
+		long attacks = Bitboards.pawnSetAttacks(by, getMask(by, PieceType.PAWN));
+		int king = kingSquares[by.ordinal()];
+		if (king >= 0) {
+			attacks |= Bitboards.kingAttacks(king);
+		}
+		long knights = getMask(by, PieceType.KNIGHT);
+		while (knights != 0) {
+			attacks |= Bitboards.knightAttacks(Long.numberOfTrailingZeros(knights));
+			knights &= knights - 1;
+		}
+		long queens = getMask(by, PieceType.QUEEN);
+		long rooks = getMask(by, PieceType.ROOK) | queens;
+		while (rooks != 0) {
+			attacks |= MagicBitboards.rookAttacks(Long.numberOfTrailingZeros(rooks), occupancy);
+			rooks &= rooks - 1;
+		}
+		long bishops = getMask(by, PieceType.BISHOP) | queens;
+		while (bishops != 0) {
+			attacks |= MagicBitboards.bishopAttacks(Long.numberOfTrailingZeros(bishops), occupancy);
+			bishops &= bishops - 1;
+		}
+		return attacks;
+	}
+
+	// Pieces of both colors that attack the square, sliders seen through the informed occupancy
+	public long attackersTo(int square, long occupancy) {
+		long queens = typeMasks[PieceType.QUEEN.ordinal()];
+		return (Bitboards.pawnAttacks(Color.WHITE, square) & getMask(Color.BLACK, PieceType.PAWN))
+				| (Bitboards.pawnAttacks(Color.BLACK, square) & getMask(Color.WHITE, PieceType.PAWN))
+				| (Bitboards.knightAttacks(square) & typeMasks[PieceType.KNIGHT.ordinal()])
+				| (Bitboards.kingAttacks(square) & typeMasks[PieceType.KING.ordinal()])
+				| (MagicBitboards.rookAttacks(square, occupancy) & (typeMasks[PieceType.ROOK.ordinal()] | queens))
+				| (MagicBitboards.bishopAttacks(square, occupancy) & (typeMasks[PieceType.BISHOP.ordinal()] | queens));
+	}
+
+	/*  Tests whether any piece of the given color attacks the square. Reads the cached attack map when there is one,
+	 	otherwise probes outwards from the square with each piece's attack pattern, which is cheaper than building the map */
+	public boolean isAttacked(int square, Color by) {
+		if (attackMapsValid[by.ordinal()]) {
+			return (attackMaps[by.ordinal()] & Bitboards.bit(square)) != 0;
+		}
+		Color other = (by == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		long queens = getMask(by, PieceType.QUEEN);
+		return (Bitboards.pawnAttacks(other, square) & getMask(by, PieceType.PAWN)) != 0
+				|| (Bitboards.knightAttacks(square) & getMask(by, PieceType.KNIGHT)) != 0
+				|| (Bitboards.kingAttacks(square) & getMask(by, PieceType.KING)) != 0
+				|| (MagicBitboards.rookAttacks(square, occupancy) & (getMask(by, PieceType.ROOK) | queens)) != 0
+				|| (MagicBitboards.bishopAttacks(square, occupancy) & (getMask(by, PieceType.BISHOP) | queens)) != 0;
+	}
+
+	// The Position versions of placePiece and removePiece come through these
+	@Override
+	public void placePiece(Piece piece, int square) {
+		super.placePiece(piece, square);
+		toggle((ChessPiece) piece, square);
+	}
+
+	@Override
+	public Piece removePiece(int square) {
+		Piece piece = super.removePiece(square);
+		if (piece != null) {
+			toggle((ChessPiece) piece, square);
+		}
+		return piece;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		occupancy = 0L;
+		Arrays.fill(colorMasks, 0L);
+		Arrays.fill(typeMasks, 0L);
+		kingSquares[0] = -1;
+		kingSquares[1] = -1;
+		zobristKey = 0L;
+		middlegameScore = 0;
+		endgameScore = 0;
+		phase = 0;
+		attackMapsValid[0] = false;
+		attackMapsValid[1] = false;
+	}
+
+	private void toggle(ChessPiece piece, int square) {
+		PieceType type = piece.type();
+		int color = piece.getColor().ordinal();
+		long bit = Bitboards.bit(square);
+		occupancy ^= bit;
+		colorMasks[color] ^= bit;
+		typeMasks[type.ordinal()] ^= bit;
+		zobristKey ^= Zobrist.piece(piece.getColor(), type, square);
+		// The scores are sums rather than XORs, so a piece leaving the board takes its values back out
+		int sign = (occupancy & bit) != 0 ? 1 : -1;
+		middlegameScore += sign * PieceSquareTables.middlegame(piece.getColor(), type, square);
+		endgameScore += sign * PieceSquareTables.endgame(piece.getColor(), type, square);
+		phase += sign * PieceSquareTables.phase(type);
+		if (type == PieceType.KING) {
+			kingSquares[color] = (occupancy & bit) != 0 ? square : -1;
+		}
+		attackMapsValid[0] = false;
+		attackMapsValid[1] = false;
+	}
+
+}
@@ -1,13 +1,12 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import boardgame.Board;
 import boardgame.Piece;
-import boardgame.Position;
 import chess.enums.Color;
+import chess.enums.PieceType;
 import chess.pieces.Bishop;
 import chess.pieces.King;
 import chess.pieces.Knight;
@@ -19,38 +18,149 @@ public class ChessMatch {
 
 	private int turn;
 	private Color currentPlayer;
-	private Board board;
+	private ChessBoard board;
 	private boolean check; // initiates as false by default, no need to include it in constructor
 	private boolean checkMate;
+	private boolean stalemate;
+	// Set by setPosition, which leaves checkmate and stalemate to be worked out when first needed; see resolveStatus
+	private boolean statusPending;
 	private ChessPiece enPassantVulnerable;
 	private ChessPiece promoted;
+	private int halfmoveClock;
+	private int lastMove;
+	// MoveGenerator bits, kept up to date by play and takeBack; see getCastlingRights
+	private int castlingRights;
 	
 	private List<Piece> piecesOnTheBoard = new ArrayList<>();
 	private List<Piece> capturedPieces = new ArrayList<>();
+	
+	// Reusable move buffers, so that move generation does not allocate
+	private MoveList possibleMoves = new MoveList();
+	private MoveList legalMoves = new MoveList();
+	
+	/*
+	 * Game history, one entry per ply from the position the game was set up in:
+	 * the packed move, the state before it (see packState) and the hash before it.
+	 * The first historySize entries lead to the current position; the entries from
+	 * there up to historyEnd are moves taken back that redo can play again
+	 */
+	private int[] historyMoves = new int[64];
+	private int[] historyStates = new int[64];
+	private long[] historyHashes = new long[64];
+	private int historySize;
+	private int historyEnd;
+	
+	private static final int PIECE_TYPES = PieceType.values().length;
+
+	// Castling rights kept by a move from or to each square: moving the king or a rook from its home square, or taking
+	// the rook there, drops the rights that need it
+	private static final int[] CASTLING_MASKS = new int[64];
+
+	static {
+		Arrays.fill(CASTLING_MASKS, MoveGenerator.WHITE_SHORT | MoveGenerator.WHITE_LONG | MoveGenerator.BLACK_SHORT | MoveGenerator.BLACK_LONG);
+		CASTLING_MASKS[Bitboards.square(7, 4)] &= ~(MoveGenerator.WHITE_SHORT | MoveGenerator.WHITE_LONG);
+		CASTLING_MASKS[Bitboards.square(7, 7)] &= ~MoveGenerator.WHITE_SHORT;
+		CASTLING_MASKS[Bitboards.square(7, 0)] &= ~MoveGenerator.WHITE_LONG;
+		CASTLING_MASKS[Bitboards.square(0, 4)] &= ~(MoveGenerator.BLACK_SHORT | MoveGenerator.BLACK_LONG);
+		CASTLING_MASKS[Bitboards.square(0, 7)] &= ~MoveGenerator.BLACK_SHORT;
+		CASTLING_MASKS[Bitboards.square(0, 0)] &= ~MoveGenerator.BLACK_LONG;
+	}
+
+	// Pieces taken off the board by clearPosition, per color and type, handed out again when a new position is set up
+	private ChessPiece[][] sparePieces = new ChessPiece[2 * PIECE_TYPES][];
+	private int[] spareCounts = new int[sparePieces.length];
 
 	public ChessMatch() {
-		board = new Board(8, 8);
-		turn = 1;
-		currentPlayer = Color.WHITE;
+		this(Color.WHITE);
 		initialSetup();
 	}
 
+	// Starts from an empty board; pieces are then added with placeNewPiece
+	ChessMatch(Color currentPlayer) {
+		board = new ChessBoard();
+		turn = 1;
+		this.currentPlayer = currentPlayer;
+	}
+
+	/*
+	 * Independent copy of the current position, e.g. one per search thread. The
+	 * pieces are rebuilt on a new board, because every piece refers to the board it
+	 * stands on, keeping their move counts and the en passant state. The move
+	 * history is not copied, so takeBack cannot go past the copied position; the
+	 * copy of a finished game therefore has the side to move as its current
+	 * player, as a finished game loaded from FEN does, and the same hash
+	 */
+	public ChessMatch copy() {
+		ChessMatch copy = new ChessMatch(getSideToMove());
+		copy.turn = turnHandedBack() ? turn + 1 : turn;
+		copy.check = check;
+		copy.checkMate = getCheckMate();
+		copy.stalemate = getStalemate();
+		copy.halfmoveClock = halfmoveClock;
+		copy.lastMove = lastMove;
+		copy.castlingRights = castlingRights;
+		for (int i = 0; i < board.getRows(); i++) {
+			for (int j = 0; j < board.getColumns(); j++) {
+				ChessPiece piece = (ChessPiece) board.piece(i, j);
+				if (piece != null) {
+					ChessPiece newPiece = copy.newPiece(piece.getType(), piece.getColor());
+					newPiece.setMoveCount(piece.getMoveCount());
+					copy.board.placePiece(newPiece, board.square(i, j));
+					copy.piecesOnTheBoard.add(newPiece);
+					if (piece == enPassantVulnerable) {
+						copy.enPassantVulnerable = newPiece;
+					}
+				}
+			}
+		}
+		return copy;
+	}
+
+	/*
+	 * Immutable copy of the current position in six longs, cheap enough to take
+	 * after every move. The match itself must only be used by the thread that
+	 * moves on it; other threads (spectators, analysis) read the latest snapshot
+	 * published by that thread instead, and turn it back into a match of their own
+	 * with Snapshot.toMatch when they want to search it
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
 	public int getTurn() {
 		return turn;
 	}
 
+	// After checkmate or stalemate this is the player who made the last move, reported as the winner; see getSideToMove
 	public Color getCurrentPlayer() {
 		return currentPlayer;
 	}
 
+	// Player to move in the position on the board, also once the game is over, as written in FEN and folded into the hash
+	public Color getSideToMove() {
+		return turnHandedBack() ? opponent(currentPlayer) : currentPlayer;
+	}
+
+	// True when updateStatus has given the turn back to the winner, so that currentPlayer and turn are one move behind.
+	// Only a move can end the game that way, and play resolves a pending status first, so the flags are known here
+	private boolean turnHandedBack() {
+		return historySize > 0 && (checkMate || stalemate);
+	}
+
 	public boolean getCheck() {
 		return check;
 	}
 
 	public boolean getCheckMate() {
+		resolveStatus();
 		return checkMate;
 	}
 
+	public boolean getStalemate() {
+		resolveStatus();
+		return stalemate;
+	}
+
 	public ChessPiece getEnPassantVulnerable() {
 		return enPassantVulnerable;
 	}
@@ -58,6 +168,47 @@ public class ChessMatch {
 	public ChessPiece getPromoted() {
 		return promoted;
 	}
+
+	// Packed form (see Move) of the last move made with performChessMove, including the piece picked for a promotion,
+	// or of the move leading to the position reached with undo, redo or jumpTo
+	public int getLastMove() {
+		return lastMove;
+	}
+
+	// Moves since the last capture or pawn move, for the fifty-move rule
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+
+	// Starts at 1 and goes up after each move of black; like getSideToMove, it counts the turn handed back at the end of the game
+	public int getFullmoveNumber() {
+		return (turnHandedBack() ? turn + 2 : turn + 1) / 2;
+	}
+	
+	/*
+	 * Zobrist key of the position. The piece part is updated by the board on every
+	 * placePiece/removePiece, so makeMove, takeBack and replacePromotedPiece keep it
+	 * current with a couple of XORs per move, and the castling rights are kept by
+	 * play and takeBack. Side to move and the en passant file are folded in here; the
+	 * file only counts when the player to move has a pawn that can take en passant,
+	 * so equal positions get equal keys
+	 */
+	public long getHash() {
+		Color toMove = getSideToMove();
+		long hash = board.getZobristKey() ^ Zobrist.castling(castlingRights);
+		if (toMove == Color.BLACK) {
+			hash ^= Zobrist.blackToMove();
+		}
+		int enPassantSquare = getEnPassantSquare();
+		if (enPassantSquare >= 0 && (Bitboards.pawnAttacks(opponent(toMove), enPassantSquare) & board.getMask(toMove, PieceType.PAWN)) != 0) {
+			hash ^= Zobrist.enPassantFile(Bitboards.column(enPassantSquare));
+		}
+		return hash;
+	}
+
+	public ChessBoard getChessBoard() {
+		return board;
+	}
 	
 	private void nextTurn() {
 		turn++;
@@ -68,55 +219,78 @@ public class ChessMatch {
 		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
 	}
 
-	private ChessPiece king(Color color) {
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
-		for (Piece p : list) {
-			if (p instanceof King) {
-				return (ChessPiece) p;
-			}
+	// The board tracks the king squares as pieces are placed and removed
+	private int kingSquare(Color color) {
+		int square = board.getKingSquare(color);
+		if (square < 0) {
+			throw new IllegalStateException("There is no " + color + " king on the board");
 		}
-		throw new IllegalStateException("There is no " + color + " king on the board");
+		return square;
 	}
 
-	private boolean testCheck(Color color) {
-		Position kingPosition = king(color).getChessPosition().toPosition();
-		List<Piece> opponentPieces = piecesOnTheBoard.stream()
-				.filter(x -> ((ChessPiece) x).getColor() == opponent(color)).collect(Collectors.toList());
+	// Looks for attackers from the king square outwards instead of generating every opponent move
+	public boolean testCheck(Color color) {
+		return board.isAttacked(kingSquare(color), opponent(color));
+	}
 
-		for (Piece p : opponentPieces) {
-			boolean[][] mat = p.possibleMoves();
-			if (mat[kingPosition.getRow()][kingPosition.getColumn()]) {
-				return true;
-			}
+	private boolean hasLegalMove(Color color) {
+		generateLegalMoves(color, legalMoves);
+		return legalMoves.size() > 0;
+	}
+
+	// Fills the list with the legal moves of the player to move, none once the game is over
+	public void generateLegalMoves(MoveList list) {
+		generateLegalMoves(getSideToMove(), list);
+	}
+
+	private void generateLegalMoves(Color color, MoveList list) {
+		MoveGenerator.generate(board, color, getEnPassantSquare(), getCastlingRights(), list);
+	}
+
+	// Fills the list with the legal captures and promotions of the player to move, none once the game is over
+	public void generateCaptures(MoveList list) {
+		MoveGenerator.generateCaptures(board, getSideToMove(), getEnPassantSquare(), list);
+	}
+
+	// Square a pawn lands on when taking enPassantVulnerable, or -1
+	public int getEnPassantSquare() {
+		if (enPassantVulnerable == null) {
+			return -1;
 		}
-		return false;
-	}
-
-	private boolean testCheckMate(Color color) {
-		if (!testCheck(color)) {
-			return false;
-		}
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
-		for (Piece p : list) {
-			boolean[][] mat = p.possibleMoves();
-			for (int i = 0; i < board.getRows(); i++) {
-				for (int j = 0; j < board.getColumns(); j++) {
-					if (mat[i][j]) {
-						Position source = ((ChessPiece) p).getChessPosition().toPosition();
-						Position target = new Position(i, j);
-						Piece capturedPiece = makeMove(source, target);
-						boolean testCheck = testCheck(color);
-						undoMove(source, target, capturedPiece);
-						if (!testCheck) {
-							return false;
-						}
-					}
-				}
-			}
+		return enPassantVulnerable.getSquare() + (enPassantVulnerable.getColor() == Color.WHITE ? 8 : -8);
+	}
+
+	// Castling rights as MoveGenerator bits: those of the kings and rooks that have not moved from their home squares
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	// The rights worked out from the pieces, for positions set up piece by piece
+	private int castlingRightsOnBoard() {
+		return castlingRight(7, 7, Color.WHITE, MoveGenerator.WHITE_SHORT) | castlingRight(7, 0, Color.WHITE, MoveGenerator.WHITE_LONG)
+				| castlingRight(0, 7, Color.BLACK, MoveGenerator.BLACK_SHORT) | castlingRight(0, 0, Color.BLACK, MoveGenerator.BLACK_LONG);
+	}
+
+	private int castlingRight(int row, int rookColumn, Color color, int right) {
+		ChessPiece king = (ChessPiece) board.piece(row, 4);
+		ChessPiece rook = (ChessPiece) board.piece(row, rookColumn);
+		return king instanceof King && king.getColor() == color && king.getMoveCount() == 0
+				&& rook instanceof Rook && rook.getColor() == color && rook.getMoveCount() == 0 ? right : 0;
+	}
+
+	// Fills the list with the pseudo-legal moves of the player to move. Moves that leave the own king in check are included
+	public void generateMoves(MoveList list) {
+		generateMoves(getSideToMove(), list);
+	}
+
+	private void generateMoves(Color color, MoveList list) {
+		list.clear();
+		long pieces = board.getColorMask(color);
+		while (pieces != 0) {
+			int square = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			((ChessPiece) board.piece(square)).generateMoves(list);
 		}
-		return true;
 	}
 
 	public ChessPiece[][] getPieces() {
@@ -130,45 +304,40 @@ public class ChessMatch {
 	}
 
 	public boolean[][] possibleMoves(ChessPosition sourcePosition) {
-		Position position = sourcePosition.toPosition();
-		validateSourcePosition(position);
-		return board.piece(position).possibleMoves();
+		return possibleMoves(sourcePosition.toSquare());
 	}
 
-	public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
-		Position source = sourcePosition.toPosition();
-		Position target = targetPosition.toPosition();
+	// Square index versions of the ChessPosition methods take Bitboards squares: a8 is 0, h1 is 63
+	public boolean[][] possibleMoves(int source) {
 		validateSourcePosition(source);
-		validateTargetPosition(source, target);
-		Piece capturedPiece = makeMove(source, target);
-
-		if (testCheck(currentPlayer)) {
-			undoMove(source, target, capturedPiece);
-			throw new ChessException("You cannot put yourself in check. Please inform a different move");
+		possibleMoves.clear();
+		((ChessPiece) board.piece(source)).generateMoves(possibleMoves);
+		boolean[][] mat = new boolean[board.getRows()][board.getColumns()];
+		for (int i = 0; i < possibleMoves.size(); i++) {
+			int target = Move.target(possibleMoves.get(i));
+			mat[Bitboards.row(target)][Bitboards.column(target)] = true;
 		}
+		return mat;
+	}
 
-		ChessPiece movedPiece = (ChessPiece)board.piece(target);
-
-		//Promotion
-		promoted = null;
-		if (movedPiece instanceof Pawn && ((movedPiece.getColor() == Color.BLACK && target.getRow() == 7) || (movedPiece.getColor() == Color.WHITE && target.getRow() == 0))) {
-			promoted = (ChessPiece)board.piece(target);
-			promoted = replacePromotedPiece("Q");
-		}
-		
-		check = (testCheck(opponent(currentPlayer))) ? true : false;
+	public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
+		return performChessMove(sourcePosition.toSquare(), targetPosition.toSquare());
+	}
 
-		if (testCheckMate(opponent(currentPlayer))) {
-			checkMate = true;
-		} else {
-			nextTurn();
+	public ChessPiece performChessMove(int source, int target) {
+		validateSourcePosition(source);
+		validateTargetPosition(source, target);
+		int move = legalMove(source, target);
+		if (move == Move.NONE) {
+			throw new ChessException("You cannot put yourself in check. Please inform a different move");
 		}
+		Piece capturedPiece = play(move);
+		lastMove = move;
 
-		if (movedPiece instanceof Pawn
-				&& (source.getRow() + 2 == target.getRow() || source.getRow() - 2 == target.getRow())) {
-			enPassantVulnerable = movedPiece;
-		}
+		//Promotion: the pawn has become a queen, which the player may still exchange with replacePromotedPiece
+		promoted = Move.isPromotion(move) ? (ChessPiece) board.piece(target) : null;
 
+		updateStatus();
 		return (ChessPiece) capturedPiece;
 	}
 
@@ -179,102 +348,296 @@ public class ChessMatch {
 		if (!type.equals("B") && !type.equals("N") && !type.equals("Q") && !type.equals("R")) {
 			return promoted;
 		}
-		Position pos = promoted.getChessPosition().toPosition();
-		Piece p = board.removePiece(pos);
+		resumeTurn();
+		int square = promoted.getSquare();
+		ChessPiece p = (ChessPiece) board.removePiece(square);
 		piecesOnTheBoard.remove(p);
+		releasePiece(p);
 		
-		ChessPiece newPiece = newPiece(type, promoted.getColor());
+		ChessPiece newPiece = acquirePiece(p.getColor(), promotionType(type));
+		newPiece.setMoveCount(p.getMoveCount());
 		
-		board.placePiece(newPiece, pos);
+		board.placePiece(newPiece, square);
 		piecesOnTheBoard.add(newPiece);
+		if (Move.isPromotion(lastMove) && newPiece.getType() != Move.promotionType(lastMove)) {
+			lastMove = Move.withPromotion(lastMove, newPiece.getType());
+			// The game now goes on differently, so the moves that were taken back after this one no longer follow
+			historyMoves[historySize - 1] = lastMove;
+			historyEnd = historySize;
+		}
+		promoted = newPiece;
+		updateStatus();
 		
 		return newPiece;		
 	}
 	
-	private ChessPiece newPiece(String type, Color color) {
-		if (type.equals("B")) return new Bishop(board, color);
-		if (type.equals("N")) return new Knight(board, color);
-		if (type.equals("Q")) return new Queen(board, color);
-		return new Rook(board, color);	
+	private static PieceType promotionType(String type) {
+		if (type.equals("B")) return PieceType.BISHOP;
+		if (type.equals("N")) return PieceType.KNIGHT;
+		if (type.equals("R")) return PieceType.ROOK;
+		return PieceType.QUEEN;
 	}
 	
-	private Piece makeMove(Position source, Position target) {
-		ChessPiece p = (ChessPiece) board.removePiece(source);
+	private ChessPiece newPiece(PieceType type, Color color) {
+		if (type == PieceType.PAWN) return new Pawn(board, color, this);
+		if (type == PieceType.KING) return new King(board, color);
+		if (type == PieceType.BISHOP) return new Bishop(board, color);
+		if (type == PieceType.KNIGHT) return new Knight(board, color);
+		if (type == PieceType.QUEEN) return new Queen(board, color);
+		return new Rook(board, color);
+	}
+	
+	/*
+	 * Check, checkmate and stalemate of the player to move. When the game is over
+	 * the turn goes back to the player who made the last move, which is how the
+	 * winner has always been reported; resumeTurn hands it on again before the
+	 * history is moved through
+	 */
+	private void updateStatus() {
+		check = testCheck(currentPlayer);
+		boolean noMove = !hasLegalMove(currentPlayer);
+		checkMate = check && noMove;
+		stalemate = !check && noMove;
+		statusPending = false;
+		if (noMove && historySize > 0) {
+			turn--;
+			currentPlayer = opponent(currentPlayer);
+		}
+	}
+
+	// Whether the position set up by setPosition is checkmate or stalemate: the one full move generation a bulk load skips
+	private void resolveStatus() {
+		if (statusPending) {
+			statusPending = false;
+			boolean noMove = !hasLegalMove(currentPlayer);
+			checkMate = check && noMove;
+			stalemate = !check && noMove;
+		}
+	}
+
+	private void resumeTurn() {
+		if (turnHandedBack()) {
+			nextTurn();
+		}
+		checkMate = false;
+		stalemate = false;
+	}
+
+	// Moves of the history that lead to the current position; jumpTo(0) goes back to where the game was set up
+	public int getPly() {
+		return historySize;
+	}
+
+	// Moves in the history, counting those taken back that redo can play again
+	public int getHistoryLength() {
+		return historyEnd;
+	}
+
+	// The move played at the given ply, 0 being the first, with the state it was played from
+	public MoveRecord getMoveRecord(int ply) {
+		if (ply < 0 || ply >= historyEnd) {
+			throw new IndexOutOfBoundsException("There is no move " + ply + " in a history of " + historyEnd);
+		}
+		int state = historyStates[ply];
+		int captured = state & 7;
+		return new MoveRecord(historyMoves[ply], (captured == 0) ? null : PieceType.values()[captured - 1],
+				((state >>> 3) & 127) - 1, (state >>> 10) & 15, (state >>> 14) & 0xFFFF, historyHashes[ply]);
+	}
+
+	// Takes back the last move of the game, keeping it for redo, and works out check and the end of the game again
+	public void undo() {
+		if (historySize == 0) {
+			throw new IllegalStateException("There is no move to undo");
+		}
+		jumpTo(historySize - 1);
+	}
+
+	// Plays the move that undo took back last
+	public void redo() {
+		if (historySize == historyEnd) {
+			throw new IllegalStateException("There is no move to redo");
+		}
+		jumpTo(historySize + 1);
+	}
+
+	// Moves through the history to the position after the given number of plies, one takeBack or replayed move per ply
+	public void jumpTo(int ply) {
+		if (ply < 0 || ply > historyEnd) {
+			throw new IllegalArgumentException("Ply " + ply + " is outside the history of " + historyEnd + " moves");
+		}
+		resumeTurn();
+		while (historySize > ply) {
+			takeBack();
+		}
+		while (historySize < ply) {
+			play(historyMoves[historySize]);
+		}
+		lastMove = (historySize > 0) ? historyMoves[historySize - 1] : Move.NONE;
+		promoted = null;
+		updateStatus();
+	}
+
+	/*
+	 * Plays a move without validation, check tests or turn bookkeeping beyond the
+	 * side to move, so that it can be taken back with takeBack. A pawn reaching the
+	 * last row is promoted to the informed type [B/N/Q/R]. Used by benchmarks
+	 */
+	public void playMove(ChessPosition source, ChessPosition target, String promotion) {
+		int sourceSquare = source.toSquare();
+		int targetSquare = target.toSquare();
+		ChessPiece piece = (ChessPiece) board.piece(sourceSquare);
+		int move = Move.encode(sourceSquare, targetSquare, Move.QUIET);
+		if (piece instanceof Pawn && (Bitboards.row(targetSquare) == 0 || Bitboards.row(targetSquare) == 7)) {
+			move = Move.withPromotion(Move.encode(sourceSquare, targetSquare, Move.PROMOTION), promotionType(promotion));
+		}
+		play(move);
+	}
+
+	// Plays a packed move as produced by generateMoves; see playMove(ChessPosition, ChessPosition, String)
+	public void playMove(int move) {
+		play(move);
+	}
+
+	/*
+	 * Plays the move and pushes its history entry. Castling, en passant and
+	 * promotion are told from the pieces, so only the promotion type is read from
+	 * the move flags, a queen when they have none. Playing the move the history
+	 * already has next keeps the moves after it for redo; any other move drops them
+	 */
+	private Piece play(int move) {
+		resolveStatus();
+		if (historySize == historyMoves.length) {
+			historyMoves = Arrays.copyOf(historyMoves, historySize * 2);
+			historyStates = Arrays.copyOf(historyStates, historySize * 2);
+			historyHashes = Arrays.copyOf(historyHashes, historySize * 2);
+		}
+		historyHashes[historySize] = getHash();
+		int previousCastlingRights = castlingRights;
+		int enPassantSquare = getEnPassantSquare();
+		int previousHalfmoveClock = halfmoveClock;
+
+		int source = Move.source(move);
+		int target = Move.target(move);
+		ChessPiece movedPiece = (ChessPiece) board.piece(source);
+		boolean pawn = movedPiece instanceof Pawn;
+		Piece capturedPiece = makeMove(movedPiece, source, target);
+		boolean promotion = pawn && (Bitboards.row(target) == 0 || Bitboards.row(target) == 7);
+		if (promotion) {
+			board.removePiece(target);
+			piecesOnTheBoard.remove(movedPiece);
+			releasePiece(movedPiece);
+			ChessPiece newPiece = acquirePiece(movedPiece.getColor(), Move.isPromotion(move) ? Move.promotionType(move) : PieceType.QUEEN);
+			newPiece.setMoveCount(movedPiece.getMoveCount());
+			board.placePiece(newPiece, target);
+			piecesOnTheBoard.add(newPiece);
+		}
+		halfmoveClock = (pawn || capturedPiece != null) ? 0 : halfmoveClock + 1;
+		enPassantVulnerable = (pawn && (target == source + 16 || target == source - 16)) ? movedPiece : null;
+		castlingRights &= CASTLING_MASKS[source] & CASTLING_MASKS[target];
+
+		historyStates[historySize] = packState(capturedPiece, enPassantSquare, previousCastlingRights, previousHalfmoveClock, promotion);
+		if (historySize == historyEnd || historyMoves[historySize] != move) {
+			historyMoves[historySize] = move;
+			historyEnd = historySize + 1;
+		}
+		historySize++;
+		nextTurn();
+		return capturedPiece;
+	}
+
+	/*
+	 * History state: bits 0-2 PieceType ordinal + 1 of the captured piece, bits 3-9
+	 * en passant square + 1, bits 10-13 castling rights and bits 14-29 halfmove
+	 * clock, all from before the move; bit 30 is set when the move promoted a pawn
+	 */
+	private static int packState(Piece capturedPiece, int enPassantSquare, int castlingRights, int halfmoveClock, boolean promotion) {
+		int captured = (capturedPiece == null) ? 0 : ((ChessPiece) capturedPiece).type().ordinal() + 1;
+		return captured | (enPassantSquare + 1) << 3 | castlingRights << 10 | Math.min(halfmoveClock, 0xFFFF) << 14 | (promotion ? 1 << 30 : 0);
+	}
+
+	private Piece makeMove(ChessPiece p, int source, int target) {
+		board.removePiece(source);
 		p.increaseMoveCount();
 		Piece capturedPiece = board.removePiece(target);
 		board.placePiece(p, target);
+		// Castling: the king moves two squares and the rook jumps over it
+		if (p instanceof King && (target == source + 2 || target == source - 2)) {
+			int rookSource = (target > source) ? source + 3 : source - 4;
+			int rookTarget = (target > source) ? source + 1 : source - 1;
+			ChessPiece rook = (ChessPiece) board.removePiece(rookSource);
+			rook.increaseMoveCount();
+			board.placePiece(rook, rookTarget);
+		}
+		// En Passant: a pawn moving diagonally to an empty square takes the pawn beside its source
+		if (p instanceof Pawn && Bitboards.column(source) != Bitboards.column(target) && capturedPiece == null) {
+			capturedPiece = board.removePiece(Bitboards.square(Bitboards.row(source), Bitboards.column(target)));
+		}
 		if (capturedPiece != null) {
 			piecesOnTheBoard.remove(capturedPiece);
 			capturedPieces.add(capturedPiece);
 		}
-		// Castling
-		if (p instanceof King && target.getColumn() == source.getColumn() + 2) {
-			Position sCRookSource = new Position(source.getRow(), source.getColumn() + 3);
-			Position sCRookTarget = new Position(source.getRow(), source.getColumn() + 1);
-			ChessPiece shortCastRook = (ChessPiece) board.removePiece(sCRookSource);
-			shortCastRook.increaseMoveCount();
-			board.placePiece(shortCastRook, sCRookTarget);
-		}
-		if (p instanceof King && target.getColumn() == source.getColumn() - 2) {
-			Position lCRookSource = new Position(source.getRow(), source.getColumn() - 4);
-			Position lCRookTarget = new Position(source.getRow(), source.getColumn() - 1);
-			ChessPiece longCastRook = (ChessPiece) board.removePiece(lCRookSource);
-			longCastRook.increaseMoveCount();
-			board.placePiece(longCastRook, lCRookTarget);
-		}
-		// En Passant
-		if (p instanceof Pawn && source.getRow() != target.getColumn() && capturedPiece == null) {
-			Position enPassantCaptured;
-			if (p.getColor() == Color.BLACK) {
-				enPassantCaptured = new Position(target.getRow() - 1, target.getColumn());
-			} else {
-				enPassantCaptured = new Position(target.getRow() + 1, target.getColumn());
-			}
-			capturedPiece = board.removePiece(enPassantCaptured);
-			capturedPieces.add(capturedPiece);
-			piecesOnTheBoard.remove(capturedPiece);
-		}
 		return capturedPiece;
 	}
 
-	private void undoMove(Position source, Position target, Piece capturedPiece) {
+	/*
+	 * Takes back the last move played, restoring the board, side to move, en
+	 * passant state and halfmove clock from its history entry, which stays there
+	 * for redo. Check, checkmate and stalemate are left as they were; undo and
+	 * jumpTo work them out
+	 */
+	public void takeBack() {
+		if (historySize == 0) {
+			throw new IllegalStateException("There is no move to take back");
+		}
+		int move = historyMoves[--historySize];
+		int state = historyStates[historySize];
+		turn--;
+		currentPlayer = opponent(currentPlayer);
+		int source = Move.source(move);
+		int target = Move.target(move);
+
 		ChessPiece p = (ChessPiece) board.removePiece(target);
+		if ((state & 1 << 30) != 0) {
+			piecesOnTheBoard.remove(p);
+			releasePiece(p);
+			ChessPiece pawn = acquirePiece(p.getColor(), PieceType.PAWN);
+			pawn.setMoveCount(p.getMoveCount());
+			piecesOnTheBoard.add(pawn);
+			p = pawn;
+		}
 		p.decreaseMoveCount();
 		board.placePiece(p, source);
-		if (capturedPiece != null) {
-			board.placePiece(capturedPiece, target);
-			capturedPieces.remove(capturedPiece);
+
+		// Pieces are captured and restored last in, first out, so the last captured piece is the one taken on this move
+		int enPassantSquare = ((state >>> 3) & 127) - 1;
+		if ((state & 7) != 0) {
+			Piece capturedPiece = capturedPieces.remove(capturedPieces.size() - 1);
+			boolean enPassant = p instanceof Pawn && target == enPassantSquare;
+			int square = enPassant ? Bitboards.square(Bitboards.row(source), Bitboards.column(target)) : target;
+			board.placePiece(capturedPiece, square);
 			piecesOnTheBoard.add(capturedPiece);
 		}
 		// Castling
-		if (p instanceof King && target.getColumn() == source.getColumn() + 2) {
-			Position sCRookSource = new Position(source.getRow(), source.getColumn() + 3);
-			Position sCRookTarget = new Position(source.getRow(), source.getColumn() + 1);
-			ChessPiece shortCastRook = (ChessPiece) board.removePiece(sCRookTarget);
-			shortCastRook.decreaseMoveCount();
-			board.placePiece(shortCastRook, sCRookSource);
-		}
-		if (p instanceof King && target.getColumn() == source.getColumn() - 2) {
-			Position lCRookSource = new Position(source.getRow(), source.getColumn() - 4);
-			Position lCRookTarget = new Position(source.getRow(), source.getColumn() - 1);
-			ChessPiece longCastRook = (ChessPiece) board.removePiece(lCRookTarget);
-			longCastRook.decreaseMoveCount();
-			board.placePiece(longCastRook, lCRookSource);
-		}
-		// En Passant
-		if (p instanceof Pawn && source.getRow() != target.getColumn() && capturedPiece == enPassantVulnerable) {
-			ChessPiece pawn = (ChessPiece)board.removePiece(target);
-			Position enPassantCaptured;
-			if (p.getColor() == Color.BLACK) {
-				enPassantCaptured = new Position(4, target.getColumn());
-			} else {
-				enPassantCaptured = new Position(3, target.getColumn());
-			}
-			board.placePiece(pawn, enPassantCaptured);
+		if (p instanceof King && (target == source + 2 || target == source - 2)) {
+			int rookSource = (target > source) ? source + 3 : source - 4;
+			int rookTarget = (target > source) ? source + 1 : source - 1;
+			ChessPiece rook = (ChessPiece) board.removePiece(rookTarget);
+			rook.decreaseMoveCount();
+			board.placePiece(rook, rookSource);
+		}
+
+		halfmoveClock = (state >>> 14) & 0xFFFF;
+		castlingRights = (state >>> 10) & 15;
+		if (enPassantSquare >= 0) {
+			int pawnSquare = enPassantSquare + (currentPlayer == Color.WHITE ? 8 : -8);
+			enPassantVulnerable = (ChessPiece) board.piece(pawnSquare);
+		}
+		else {
+			enPassantVulnerable = null;
 		}
 	}
 
-	private void validateSourcePosition(Position position) {
+	private void validateSourcePosition(int position) {
 		if (!board.thereIsAPiece(position)) {
 			throw new ChessException(
 					"There is no piece on the informed source position. Plese inform a valid position");
@@ -287,25 +650,142 @@ public class ChessMatch {
 		}
 	}
 
-	private void validateTargetPosition(Position source, Position target) {
+	// The legal move from source to target, promoting to a queen, or Move.NONE
+	private int legalMove(int source, int target) {
+		generateLegalMoves(currentPlayer, legalMoves);
+		for (int i = 0; i < legalMoves.size(); i++) {
+			int move = legalMoves.get(i);
+			if (Move.source(move) == source && Move.target(move) == target) {
+				return Move.isPromotion(move) ? Move.withPromotion(move, PieceType.QUEEN) : move;
+			}
+		}
+		return Move.NONE;
+	}
+
+	private void validateTargetPosition(int source, int target) {
 		if (!board.piece(source).possibleMove(target)) {
 			throw new ChessException("Target position cannot be reached by this piece. Please inform a valid position");
 		}
 	}
 
 	public void placeNewPiece(char column, int row, ChessPiece piece) {
-		board.placePiece(piece, new ChessPosition(column, row).toPosition());
+		board.placePiece(piece, ChessPosition.of(column, row).toSquare());
+		piecesOnTheBoard.add(piece);
+		castlingRights = castlingRightsOnBoard();
+	}
+
+	/*
+	 * Empties the board and forgets the game so far, to set up another position in
+	 * place with putPiece and setPosition (see Fen). The piece objects are kept and
+	 * handed out again by putPiece, so loading positions one after the other does
+	 * not allocate once the spare piece arrays have grown
+	 */
+	void clearPosition() {
+		board.clear();
+		for (int i = 0; i < piecesOnTheBoard.size(); i++) {
+			releasePiece((ChessPiece) piecesOnTheBoard.get(i));
+		}
+		piecesOnTheBoard.clear();
+		for (int i = 0; i < capturedPieces.size(); i++) {
+			releasePiece((ChessPiece) capturedPieces.get(i));
+		}
+		capturedPieces.clear();
+		historySize = 0;
+		historyEnd = 0;
+		enPassantVulnerable = null;
+		promoted = null;
+		check = false;
+		checkMate = false;
+		stalemate = false;
+		statusPending = false;
+		halfmoveClock = 0;
+		lastMove = Move.NONE;
+		castlingRights = 0;
+		turn = 1;
+		currentPlayer = Color.WHITE;
+	}
+
+	private void releasePiece(ChessPiece piece) {
+		int index = piece.getColor().ordinal() * PIECE_TYPES + piece.type().ordinal();
+		ChessPiece[] spare = sparePieces[index];
+		if (spare == null) {
+			spare = sparePieces[index] = new ChessPiece[8];
+		}
+		else if (spareCounts[index] == spare.length) {
+			spare = sparePieces[index] = Arrays.copyOf(spare, spare.length * 2);
+		}
+		spare[spareCounts[index]++] = piece;
+	}
+
+	// A released piece of the color and type when there is one, otherwise a new one
+	private ChessPiece acquirePiece(Color color, PieceType type) {
+		int index = color.ordinal() * PIECE_TYPES + type.ordinal();
+		return (spareCounts[index] > 0) ? sparePieces[index][--spareCounts[index]] : newPiece(type, color);
+	}
+
+	// Places an unmoved piece on an empty square, reusing a piece released by clearPosition when there is one
+	void putPiece(Color color, PieceType type, int square) {
+		ChessPiece piece = acquirePiece(color, type);
+		piece.setMoveCount(0);
+		board.placePiece(piece, square);
 		piecesOnTheBoard.add(piece);
 	}
 
+	/*
+	 * Completes a position set up with putPiece. Castling rights are MoveGenerator
+	 * bits; a right that is not granted marks its rook as moved. The en passant
+	 * square is the one a pawn would land on, or -1. Check is worked out for the
+	 * player to move; checkmate and stalemate need every legal move, so they wait
+	 * until they are asked for or a move is played, and loading positions in bulk
+	 * does not pay for them
+	 */
+	void setPosition(Color toMove, int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+		currentPlayer = toMove;
+		turn = 2 * fullmoveNumber - 1 + (toMove == Color.BLACK ? 1 : 0);
+		this.halfmoveClock = halfmoveClock;
+		revokeCastling(castlingRights, 7, 7, MoveGenerator.WHITE_SHORT);
+		revokeCastling(castlingRights, 7, 0, MoveGenerator.WHITE_LONG);
+		revokeCastling(castlingRights, 0, 7, MoveGenerator.BLACK_SHORT);
+		revokeCastling(castlingRights, 0, 0, MoveGenerator.BLACK_LONG);
+		this.castlingRights = castlingRightsOnBoard();
+		if (this.castlingRights != castlingRights) {
+			throw new ChessException("Castling right without the king and rook on their home squares");
+		}
+		if (enPassantSquare >= 0) {
+			int pawnSquare = enPassantSquare + (toMove == Color.WHITE ? 8 : -8);
+			ChessPiece pawn = (pawnSquare >= 0 && pawnSquare < 64) ? (ChessPiece) board.piece(pawnSquare) : null;
+			if (!(pawn instanceof Pawn) || pawn.getColor() == toMove) {
+				throw new ChessException("En passant square without a pawn that has just made a double step");
+			}
+			enPassantVulnerable = pawn;
+		}
+		if (board.getKingSquare(Color.WHITE) < 0 || board.getKingSquare(Color.BLACK) < 0) {
+			throw new ChessException("Both players need a king on the board");
+		}
+		if (testCheck(opponent(toMove))) {
+			throw new ChessException("The " + opponent(toMove) + " king is in check with " + toMove + " to move");
+		}
+		check = testCheck(currentPlayer);
+		checkMate = false;
+		stalemate = false;
+		statusPending = true;
+	}
+
+	private void revokeCastling(int castlingRights, int row, int rookColumn, int right) {
+		ChessPiece rook = (ChessPiece) board.piece(row, rookColumn);
+		if ((castlingRights & right) == 0 && rook instanceof Rook) {
+			rook.setMoveCount(1);
+		}
+	}
+
 	public void initialSetup() {
 		placeNewPiece('c', 8, new Bishop(board, Color.BLACK));
 		placeNewPiece('f', 8, new Bishop(board, Color.BLACK));
 		placeNewPiece('c', 1, new Bishop(board, Color.WHITE));
 		placeNewPiece('f', 1, new Bishop(board, Color.WHITE));
 
-		placeNewPiece('e', 8, new King(board, Color.BLACK, this));
-		placeNewPiece('e', 1, new King(board, Color.WHITE, this));
+		placeNewPiece('e', 8, new King(board, Color.BLACK));
+		placeNewPiece('e', 1, new King(board, Color.WHITE));
 
 		placeNewPiece('b', 8, new Knight(board, Color.BLACK));
 		placeNewPiece('g', 8, new Knight(board, Color.BLACK));
@@ -4,22 +4,32 @@ import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
 import chess.enums.Color;
+import chess.enums.PieceType;
 
 public abstract class ChessPiece extends Piece {
 
 	private Color color;
 	private int moveCount;
+	private final PieceType type;
 	
 	public ChessPiece(Board board, Color color) {
 		super(board);
 		this.color = color;
 		moveCount = 0;
+		type = getType();
 	}
 	
 	public Color getColor() {
 		return color;
 	}
 	
+	public abstract PieceType getType();
+	
+	// getType as a field read, for the board bookkeeping that runs on every placePiece/removePiece
+	final PieceType type() {
+		return type;
+	}
+	
 	public int getMoveCount() {
 		return moveCount;
 	}
@@ -32,8 +42,54 @@ public abstract class ChessPiece extends Piece {
 		moveCount--;
 	}
 	
+	protected void setMoveCount(int moveCount) {
+		this.moveCount = moveCount;
+	}
+	
+	// Pseudo-legal target squares of this piece as a bitboard; check is not tested here
+	public abstract long possibleMovesMask();
+	
+	@Override
+	public boolean[][] possibleMoves() {
+		return Bitboards.toMatrix(possibleMovesMask());
+	}
+	
+	@Override
+	public boolean possibleMove(Position position) {
+		return possibleMove(Bitboards.square(position));
+	}
+	
+	@Override
+	public boolean possibleMove(int square) {
+		return (possibleMovesMask() & Bitboards.bit(square)) != 0;
+	}
+	
+	@Override
+	public boolean isThereAnyPossibleMove() {
+		return possibleMovesMask() != 0;
+	}
+	
+	// Appends the pseudo-legal moves of this piece to the list
+	public void generateMoves(MoveList list) {
+		addMoves(list, getSquare(), possibleMovesMask());
+	}
+	
+	// Appends one move per target square, flagging the ones that take an opponent piece as captures
+	protected void addMoves(MoveList list, int source, long targets) {
+		long opponents = getChessBoard().getOccupancy() & ~getChessBoard().getColorMask(color);
+		while (targets != 0) {
+			int target = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			list.add(Move.encode(source, target, (opponents & Bitboards.bit(target)) != 0 ? Move.CAPTURE : Move.QUIET));
+		}
+	}
+	
 	public ChessPosition getChessPosition() {
-		return ChessPosition.fromPosition(position); 
+		return ChessPosition.fromSquare(getSquare());
+	}
+	
+	protected ChessBoard getChessBoard() {
+		return (ChessBoard) getBoard();
 	}
 	
 	protected boolean isThereOpponentPiece(Position position) {
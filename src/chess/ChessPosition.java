@@ -2,10 +2,19 @@ package chess;
 
 import boardgame.Position;
 
+//Immutable; of and fromSquare hand out one shared instance per square
 public class ChessPosition {
 
-	private char column;
-	private int row;
+	private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+	static {
+		for (int square = 0; square < 64; square++) {
+			SQUARES[square] = new ChessPosition((char) ('a' + Bitboards.column(square)), 8 - Bitboards.row(square));
+		}
+	}
+
+	private final char column;
+	private final int row;
 	
 	public ChessPosition(char column, int row) {
 		if (column < 'a' || column > 'h' || row < 1 || row > 8) {
@@ -15,6 +24,18 @@ public class ChessPosition {
 		this.row = row;
 	}
 	
+	public static ChessPosition of(char column, int row) {
+		if (column < 'a' || column > 'h' || row < 1 || row > 8) {
+			throw new ChessException("ChessPosition instantiating error: please inform a value between [a1] and [h8]");
+		}
+		return SQUARES[Bitboards.square(8 - row, column - 'a')];
+	}
+	
+	// Square index 0-63 as used by Bitboards, a8 being 0 and h1 63
+	public static ChessPosition fromSquare(int square) {
+		return SQUARES[square];
+	}
+	
 	public char getColumn() {
 		return column;
 	}
@@ -23,12 +44,30 @@ public class ChessPosition {
 		return row;
 	}
 
+	public int toSquare() {
+		return Bitboards.square(8 - row, column - 'a');
+	}
+
 	protected Position toPosition() {
-		return new Position(8 - row, column - 'a');
+		return Bitboards.position(toSquare());
 	}
 	
 	protected static ChessPosition fromPosition(Position position) {
-		return new ChessPosition((char)('a' + position.getColumn()), 8 - position.getRow());
+		return SQUARES[Bitboards.square(position)];
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ChessPosition)) {
+			return false;
+		}
+		ChessPosition other = (ChessPosition) obj;
+		return column == other.column && row == other.row;
+	}
+	
+	@Override
+	public int hashCode() {
+		return toSquare();
 	}
 	
 	@Override
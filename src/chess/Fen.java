@@ -0,0 +1,279 @@
+package chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Forsyth-Edwards Notation. Loading fills an existing match in place, reading the text char by char, and writing appends to
+ 	a caller-supplied buffer, so that neither creates strings or other objects per position.
+ 	The halfmove clock and fullmove number may be left out, as in EPD records; they then default to 0 and 1 */
+public final class Fen {
+
+	public static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private static final String PIECE_LETTERS = "PNBRQK";
+	private static final PieceType[] TYPES = PieceType.values();
+
+	// The history keeps the halfmove clock in 16 bits, and the match counts plies from the fullmove number in an int
+	private static final int MAX_HALFMOVE_CLOCK = 0xFFFF;
+	private static final int MAX_FULLMOVE_NUMBER = Integer.MAX_VALUE / 2;
+
+	// Piece type ordinal by ASCII letter, either case, or -1
+	private static final int[] LETTER_TYPES = new int[128];
+
+	static {
+		Arrays.fill(LETTER_TYPES, -1);
+		for (int i = 0; i < PIECE_LETTERS.length(); i++) {
+			LETTER_TYPES[PIECE_LETTERS.charAt(i)] = i;
+			LETTER_TYPES[Character.toLowerCase(PIECE_LETTERS.charAt(i))] = i;
+		}
+	}
+
+	private Fen() {
+	}
+
+	public static ChessMatch newMatch(CharSequence fen) {
+		ChessMatch chessMatch = new ChessMatch(Color.WHITE);
+		load(chessMatch, fen);
+		return chessMatch;
+	}
+
+	// Replaces the position of the match, whose game history is dropped. Throws ChessException on a malformed record,
+	// leaving the match with a partly loaded position
+	public static void load(ChessMatch chessMatch, CharSequence fen) {
+		chessMatch.clearPosition();
+		int length = fen.length();
+		int i = 0;
+
+		// Piece placement, from a8 to h1
+		int square = 0;
+		int row = 0;
+		int whiteKings = 0;
+		int blackKings = 0;
+		for (; i < length && fen.charAt(i) != ' '; i++) {
+			char c = fen.charAt(i);
+			if (c == '/') {
+				if (square != (row + 1) * 8 || row == 7) {
+					throw invalid(fen, "rank " + (8 - row) + " does not have 8 squares");
+				}
+				row++;
+			}
+			else if (c >= '1' && c <= '8') {
+				square += c - '0';
+			}
+			else {
+				int type = (c < 128) ? LETTER_TYPES[c] : -1;
+				if (type < 0) {
+					throw invalid(fen, "unknown piece letter " + c);
+				}
+				if (square >= (row + 1) * 8) {
+					throw invalid(fen, "rank " + (8 - row) + " has more than 8 squares");
+				}
+				Color color = (c < 'a') ? Color.WHITE : Color.BLACK;
+				if (type == PieceType.PAWN.ordinal() && (row == 0 || row == 7)) {
+					throw invalid(fen, "pawn on rank " + (8 - row));
+				}
+				if (type == PieceType.KING.ordinal()) {
+					if (color == Color.WHITE ? ++whiteKings > 1 : ++blackKings > 1) {
+						throw invalid(fen, "more than one " + color + " king");
+					}
+				}
+				chessMatch.putPiece(color, TYPES[type], square++);
+			}
+		}
+		if (row != 7 || square != 64) {
+			throw invalid(fen, "the placement does not cover 8 ranks of 8 squares");
+		}
+
+		// Side to move
+		i = skipSpace(fen, i);
+		Color toMove;
+		char side = (i < length) ? fen.charAt(i++) : '?';
+		if (side == 'w') {
+			toMove = Color.WHITE;
+		}
+		else if (side == 'b') {
+			toMove = Color.BLACK;
+		}
+		else {
+			throw invalid(fen, "side to move must be w or b");
+		}
+
+		// Castling rights
+		i = skipSpace(fen, i);
+		int castlingRights = 0;
+		if (i < length && fen.charAt(i) == '-') {
+			i++;
+		}
+		else {
+			for (; i < length && fen.charAt(i) != ' '; i++) {
+				switch (fen.charAt(i)) {
+				case 'K': castlingRights |= MoveGenerator.WHITE_SHORT; break;
+				case 'Q': castlingRights |= MoveGenerator.WHITE_LONG; break;
+				case 'k': castlingRights |= MoveGenerator.BLACK_SHORT; break;
+				case 'q': castlingRights |= MoveGenerator.BLACK_LONG; break;
+				default: throw invalid(fen, "unknown castling letter " + fen.charAt(i));
+				}
+			}
+		}
+
+		// En passant target square
+		i = skipSpace(fen, i);
+		int enPassantSquare = -1;
+		if (i < length && fen.charAt(i) == '-') {
+			i++;
+		}
+		else if (i + 1 < length) {
+			char file = fen.charAt(i);
+			char rank = fen.charAt(i + 1);
+			if (file < 'a' || file > 'h' || rank != (toMove == Color.WHITE ? '6' : '3')) {
+				throw invalid(fen, "en passant square must be on rank " + (toMove == Color.WHITE ? 6 : 3));
+			}
+			enPassantSquare = Bitboards.square('8' - rank, file - 'a');
+			i += 2;
+		}
+		else {
+			throw invalid(fen, "missing en passant square");
+		}
+
+		// Optional move counters
+		int halfmoveClock = 0;
+		int fullmoveNumber = 1;
+		i = skipSpace(fen, i);
+		if (i < length) {
+			halfmoveClock = 0;
+			for (; i < length && fen.charAt(i) != ' '; i++) {
+				halfmoveClock = appendDigit(fen, i, halfmoveClock, MAX_HALFMOVE_CLOCK, "halfmove clock");
+			}
+			i = skipSpace(fen, i);
+			if (i < length) {
+				fullmoveNumber = 0;
+				for (; i < length && fen.charAt(i) != ' '; i++) {
+					fullmoveNumber = appendDigit(fen, i, fullmoveNumber, MAX_FULLMOVE_NUMBER, "fullmove number");
+				}
+				if (fullmoveNumber < 1) {
+					throw invalid(fen, "fullmove number starts at 1");
+				}
+			}
+		}
+		chessMatch.setPosition(toMove, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+	}
+
+	public static String toString(ChessMatch chessMatch) {
+		StringBuilder sb = new StringBuilder(90);
+		write(chessMatch, sb);
+		return sb.toString();
+	}
+
+	public static void write(ChessMatch chessMatch, StringBuilder out) {
+		append(chessMatch, out);
+	}
+
+	// Throws BufferOverflowException when the buffer has no room left; a FEN record takes at most 90 chars
+	public static void write(ChessMatch chessMatch, CharBuffer out) {
+		append(chessMatch, out);
+	}
+
+	// The en passant square is written after every double step, whether or not a pawn can take on it
+	private static void append(ChessMatch chessMatch, Appendable out) {
+		try {
+			ChessBoard board = chessMatch.getChessBoard();
+			long occupancy = board.getOccupancy();
+			long white = board.getColorMask(Color.WHITE);
+			for (int row = 0; row < 8; row++) {
+				int empty = 0;
+				for (int column = 0; column < 8; column++) {
+					long bit = Bitboards.bit(row, column);
+					if ((occupancy & bit) == 0) {
+						empty++;
+						continue;
+					}
+					if (empty > 0) {
+						out.append((char) ('0' + empty));
+						empty = 0;
+					}
+					char letter = PIECE_LETTERS.charAt(typeAt(board, bit));
+					out.append((white & bit) != 0 ? letter : (char) (letter + ('a' - 'A')));
+				}
+				if (empty > 0) {
+					out.append((char) ('0' + empty));
+				}
+				if (row < 7) {
+					out.append('/');
+				}
+			}
+			out.append(' ').append(chessMatch.getSideToMove() == Color.WHITE ? 'w' : 'b').append(' ');
+			int castlingRights = chessMatch.getCastlingRights();
+			if (castlingRights == 0) {
+				out.append('-');
+			}
+			else {
+				if ((castlingRights & MoveGenerator.WHITE_SHORT) != 0) out.append('K');
+				if ((castlingRights & MoveGenerator.WHITE_LONG) != 0) out.append('Q');
+				if ((castlingRights & MoveGenerator.BLACK_SHORT) != 0) out.append('k');
+				if ((castlingRights & MoveGenerator.BLACK_LONG) != 0) out.append('q');
+			}
+			out.append(' ');
+			int enPassantSquare = chessMatch.getEnPassantSquare();
+			if (enPassantSquare < 0) {
+				out.append('-');
+			}
+			else {
+				out.append((char) ('a' + Bitboards.column(enPassantSquare))).append((char) ('8' - Bitboards.row(enPassantSquare)));
+			}
+			out.append(' ');
+			appendNumber(out, chessMatch.getHalfmoveClock());
+			out.append(' ');
+			appendNumber(out, chessMatch.getFullmoveNumber());
+		}
+		catch (IOException e) {
+			// StringBuilder and CharBuffer do not throw it
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static int typeAt(ChessBoard board, long bit) {
+		for (PieceType type : TYPES) {
+			if ((board.getTypeMask(type) & bit) != 0) {
+				return type.ordinal();
+			}
+		}
+		throw new IllegalStateException("Occupied square without a piece type");
+	}
+
+	// Digits without going through Integer.toString
+	private static void appendNumber(Appendable out, int number) throws IOException {
+		if (number >= 10) {
+			appendNumber(out, number / 10);
+		}
+		out.append((char) ('0' + number % 10));
+	}
+
+	private static int skipSpace(CharSequence fen, int i) {
+		while (i < fen.length() && fen.charAt(i) == ' ') {
+			i++;
+		}
+		return i;
+	}
+
+	// The counter read so far followed by the digit at i, rejected above max instead of wrapping around
+	private static int appendDigit(CharSequence fen, int i, int value, int max, String counter) {
+		char c = fen.charAt(i);
+		if (c < '0' || c > '9') {
+			throw invalid(fen, "move counters must be numbers");
+		}
+		if (value > (max - (c - '0')) / 10) {
+			throw invalid(fen, counter + " above " + max);
+		}
+		return value * 10 + (c - '0');
+	}
+
+	private static ChessException invalid(CharSequence fen, String reason) {
+		return new ChessException("Invalid FEN \"" + fen + "\": " + reason);
+	}
+
+}
@@ -0,0 +1,199 @@
+package chess;
+
+import java.util.Random;
+
+/*  Sliding attack lookup tables. For every square the relevant blockers are selected with a mask, multiplied by a
+ 	magic number and shifted down to an index into a table filled once at class load from the ray fills in Bitboards.
+ 	selfCheck tests both against a plain square-by-square ray walk */
+public final class MagicBitboards {
+
+	private static final long SEED = 0x5DEECE66DL;
+
+	//Magic multipliers found by findMagic with SEED, stored so that class loading does not have to repeat the search
+	private static final long[] ROOK_KNOWN_MAGICS = {
+			0x0A80001080244000L, 0x8440049000200240L, 0xA080200080100008L, 0x4300086205001000L,
+			0x66002004700A0008L, 0x3200081001040200L, 0x3080008002000100L, 0x0E00004081082204L,
+			0x1400800080304000L, 0x1020401000200040L, 0x4000801000802000L, 0x0002000C20401200L,
+			0x0020800400800800L, 0x0080800400800200L, 0x4004001008020481L, 0x0140800040800100L,
+			0x00C0828000204000L, 0x0040010020408901L, 0x0841010040200010L, 0x240012000A420021L,
+			0x1200808004000800L, 0x0002010100040008L, 0x1402030100020004L, 0x02D0820000840041L,
+			0x2000400080208004L, 0x21A0008080400028L, 0x0546004200188020L, 0x0430002100110009L,
+			0x0A08000404004020L, 0x8002010180800400L, 0x4608014400029008L, 0x0209010200008044L,
+			0x4040400081800220L, 0x1002400081802000L, 0x8B00200080801000L, 0x0408000880801002L,
+			0x4108020040400400L, 0x2002000802001004L, 0x4420080204001001L, 0x1068059242000104L,
+			0x0400804002218000L, 0x02002010044A4000L, 0x8020020400101000L, 0x00021200200A0040L,
+			0x0042000804120020L, 0x0006004510420008L, 0x0A28810208440050L, 0x0108290040860004L,
+			0x0000800440002480L, 0x0020008040006180L, 0x8082500260008480L, 0x4008021000800880L,
+			0x0000100408010100L, 0x0200800200040080L, 0x4080021008410400L, 0x0100801100006080L,
+			0x2080008020401101L, 0x2000110022008842L, 0x2841002000440811L, 0x2300100104A10009L,
+			0x0002000410200902L, 0x000100020804000BL, 0x0212000084014802L, 0x000020430085240AL
+	};
+
+	private static final long[] BISHOP_KNOWN_MAGICS = {
+			0x0421204200802080L, 0x80A0082200604000L, 0x0404040C10400024L, 0x00B4410420200840L,
+			0x0254042200000040L, 0x1220880440406020L, 0x1224420221200000L, 0x0300202108384020L,
+			0x0000410421244100L, 0x4404080838004440L, 0x4300424401002000L, 0x0808440404822002L,
+			0x020C440420800000L, 0x01B8120804040028L, 0x0002020110021003L, 0x0000162409041000L,
+			0x5840000704040409L, 0x0004507050420840L, 0x00B0100443020010L, 0x0020210202004140L,
+			0x0018100101400000L, 0x0001030200822101L, 0x18041C02088C0480L, 0x0000800900880180L,
+			0x0020208952020201L, 0x0101206008020402L, 0x0004100002082840L, 0x4440040002010910L,
+			0x0002840202802004L, 0x000802002491C400L, 0x8202004000880800L, 0x0002002200808800L,
+			0x0001200801101000L, 0x048814100424F100L, 0x0004A0B000080080L, 0x2032200800010104L,
+			0x0010008200002200L, 0x08600B020A010084L, 0x2110120048409400L, 0x0228020081042088L,
+			0x0610A82010020800L, 0x6002421005001089L, 0x1441010801080200L, 0x6200620124000600L,
+			0x0006840408218400L, 0x0002200409002020L, 0x0120088230840042L, 0x133000D081000080L,
+			0x80C6010148410000L, 0x8002010456026C02L, 0x82000020A4100000L, 0x1002010084041220L,
+			0x0200608460820080L, 0x201044081818434CL, 0x0090101001006100L, 0x4049106400802000L,
+			0x0002210130100200L, 0x0000008410821000L, 0x0000020A06010480L, 0x0420040080840400L,
+			0x8401000010020203L, 0x9410080890101082L, 0x0000202011214500L, 0x0010122848042040L
+	};
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final long[] ROOK_MAGICS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final int[] ROOK_OFFSETS = new int[64];
+	private static final long[] ROOK_TABLE;
+
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final long[] BISHOP_MAGICS = new long[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final int[] BISHOP_OFFSETS = new int[64];
+	private static final long[] BISHOP_TABLE;
+
+	static {
+		Random random = new Random(SEED);
+		ROOK_TABLE = build(true, ROOK_KNOWN_MAGICS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, random);
+		BISHOP_TABLE = build(false, BISHOP_KNOWN_MAGICS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, random);
+	}
+
+	private MagicBitboards() {
+	}
+
+	public static long rookAttacks(int square, long occupied) {
+		return ROOK_TABLE[ROOK_OFFSETS[square] + (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+	}
+
+	public static long bishopAttacks(int square, long occupied) {
+		return BISHOP_TABLE[BISHOP_OFFSETS[square] + (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+	}
+
+	public static long queenAttacks(int square, long occupied) {
+		return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+	}
+
+	/*  Compares the tables, and the ray fills in Bitboards they are built from, against a ray walk on random occupancies of
+	 	every square, throwing on the first mismatch. The same seed draws the same occupancies, so a failure can be repeated */
+	public static void selfCheck(long seed, int samplesPerSquare) {
+		Random random = new Random(seed);
+		for (int square = 0; square < 64; square++) {
+			for (int i = 0; i < samplesPerSquare; i++) {
+				//Alternates sparse and dense occupancies so that both long and short rays are exercised
+				long occupied = (i & 1) == 0 ? random.nextLong() & random.nextLong() & random.nextLong() : random.nextLong() | random.nextLong();
+				long rook = walkRays(square, occupied, true);
+				if (rookAttacks(square, occupied) != rook || Bitboards.rookAttacks(square, occupied) != rook) {
+					throw new IllegalStateException("Rook attack mismatch on square " + square + " with occupancy " + Long.toHexString(occupied) + ", seed " + seed);
+				}
+				long bishop = walkRays(square, occupied, false);
+				if (bishopAttacks(square, occupied) != bishop || Bitboards.bishopAttacks(square, occupied) != bishop) {
+					throw new IllegalStateException("Bishop attack mismatch on square " + square + " with occupancy " + Long.toHexString(occupied) + ", seed " + seed);
+				}
+			}
+		}
+	}
+
+	//Reference attacks: each ray is followed one square at a time, up to and including the first occupied square
+	private static long walkRays(int square, long occupied, boolean rook) {
+		long attacks = 0L;
+		for (int[] d : directions(rook)) {
+			int r = Bitboards.row(square) + d[0];
+			int c = Bitboards.column(square) + d[1];
+			while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+				attacks |= Bitboards.bit(r, c);
+				if ((occupied & Bitboards.bit(r, c)) != 0) {
+					break;
+				}
+				r += d[0];
+				c += d[1];
+			}
+		}
+		return attacks;
+	}
+
+	private static int[][] directions(boolean rook) {
+		return rook ? new int[][] { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } } : new int[][] { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } };
+	}
+
+	private static long[] build(boolean rook, long[] knownMagics, long[] masks, long[] magics, int[] shifts, int[] offsets, Random random) {
+		int size = 0;
+		for (int square = 0; square < 64; square++) {
+			masks[square] = relevantBlockers(square, rook);
+			shifts[square] = 64 - Long.bitCount(masks[square]);
+			offsets[square] = size;
+			size += 1 << Long.bitCount(masks[square]);
+		}
+		long[] table = new long[size];
+		for (int square = 0; square < 64; square++) {
+			magics[square] = findMagic(square, rook, knownMagics[square], masks[square], shifts[square], table, offsets[square], random);
+		}
+		return table;
+	}
+
+	//Blockers on the last square of a ray never change the attack set, so they are left out of the mask
+	private static long relevantBlockers(int square, boolean rook) {
+		int row = Bitboards.row(square);
+		int column = Bitboards.column(square);
+		long mask = 0L;
+		for (int[] d : directions(rook)) {
+			int r = row + d[0];
+			int c = column + d[1];
+			while (r + d[0] >= 0 && r + d[0] < 8 && c + d[1] >= 0 && c + d[1] < 8) {
+				mask |= Bitboards.bit(r, c);
+				r += d[0];
+				c += d[1];
+			}
+		}
+		return mask;
+	}
+
+	private static long findMagic(int square, boolean rook, long candidate, long mask, int shift, long[] table, int offset, Random random) {
+		int count = 1 << Long.bitCount(mask);
+		long[] occupancies = new long[count];
+		long[] attacks = new long[count];
+		long subset = 0L;
+		//Carry-rippler enumeration of every subset of the mask
+		for (int i = 0; i < count; i++) {
+			occupancies[i] = subset;
+			attacks[i] = rook ? Bitboards.rookAttacks(square, subset) : Bitboards.bishopAttacks(square, subset);
+			subset = (subset - mask) & mask;
+		}
+		//Slots are marked with the attempt number, so a failed attempt needs no clearing
+		int[] used = new int[count];
+		int attempt = 0;
+		//The stored candidate is tried first; the random search only runs if it does not fit this mask
+		long magic = candidate;
+		while (true) {
+			if (attempt > 0 || magic == 0L) {
+				magic = random.nextLong() & random.nextLong() & random.nextLong();
+				if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+					continue;
+				}
+			}
+			attempt++;
+			boolean ok = true;
+			for (int i = 0; i < count && ok; i++) {
+				int index = (int) ((occupancies[i] * magic) >>> shift);
+				if (used[index] != attempt) {
+					used[index] = attempt;
+					table[offset + index] = attacks[i];
+				}
+				else if (table[offset + index] != attacks[i]) {
+					ok = false;
+				}
+			}
+			if (ok) {
+				return magic;
+			}
+		}
+	}
+
+}
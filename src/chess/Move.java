@@ -0,0 +1,85 @@
+package chess;
+
+import chess.enums.PieceType;
+
+/*  Moves packed into an int: source square in bits 0-5, target square in bits 6-11 and flags in bits 12-15.
+ 	Squares use the Bitboards numbering (row * 8 + column). Flag bit 2 marks captures and flag bit 3 promotions,
+ 	in which case the two low flag bits select the new piece */
+public final class Move {
+
+	public static final int QUIET = 0;
+	public static final int DOUBLE_PAWN_PUSH = 1;
+	public static final int SHORT_CASTLING = 2;
+	public static final int LONG_CASTLING = 3;
+	public static final int CAPTURE = 4;
+	public static final int EN_PASSANT = 5;
+	public static final int PROMOTION = 8;
+	public static final int CAPTURE_PROMOTION = 12;
+
+	public static final int NONE = 0;
+
+	private static final PieceType[] PROMOTION_TYPES = { PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN };
+	private static final String[] PROMOTION_LETTERS = { "N", "B", "R", "Q" };
+
+	private Move() {
+	}
+
+	public static int encode(int source, int target, int flags) {
+		return source | (target << 6) | (flags << 12);
+	}
+
+	public static int source(int move) {
+		return move & 63;
+	}
+
+	public static int target(int move) {
+		return (move >>> 6) & 63;
+	}
+
+	public static int flags(int move) {
+		return (move >>> 12) & 15;
+	}
+
+	public static boolean isCapture(int move) {
+		return (move & (CAPTURE << 12)) != 0;
+	}
+
+	public static boolean isPromotion(int move) {
+		return (move & (PROMOTION << 12)) != 0;
+	}
+
+	public static boolean isCastling(int move) {
+		int flags = flags(move);
+		return flags == SHORT_CASTLING || flags == LONG_CASTLING;
+	}
+
+	// Only meaningful when isPromotion(move) is true
+	public static PieceType promotionType(int move) {
+		return PROMOTION_TYPES[(move >>> 12) & 3];
+	}
+
+	// The same promotion with another new piece, e.g. after the player picks one through ChessMatch.replacePromotedPiece
+	public static int withPromotion(int move, PieceType type) {
+		for (int i = 0; i < PROMOTION_TYPES.length; i++) {
+			if (PROMOTION_TYPES[i] == type) {
+				return (move & ~(3 << 12)) | (i << 12);
+			}
+		}
+		throw new IllegalArgumentException("Pawns cannot be promoted to " + type);
+	}
+
+	// Promotion letter in the [B/N/Q/R] format used by ChessMatch.replacePromotedPiece
+	public static String promotionLetter(int move) {
+		return PROMOTION_LETTERS[(move >>> 12) & 3];
+	}
+
+	// Long algebraic notation, e.g. e2e4 or e7e8q
+	public static String toString(int move) {
+		int source = source(move);
+		int target = target(move);
+		String s = "" + (char) ('a' + Bitboards.column(source)) + (8 - Bitboards.row(source))
+				+ (char) ('a' + Bitboards.column(target)) + (8 - Bitboards.row(target));
+		return isPromotion(move) ? s + promotionLetter(move).toLowerCase() : s;
+	}
+
+}
@@ -0,0 +1,190 @@
+package chess;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Legal move generation. Checkers, pinned pieces and the squares the king may not step on are worked out once per
+ 	position, so every emitted move is legal without being played on the board */
+public final class MoveGenerator {
+
+	// Castling rights as bits, see ChessMatch.getCastlingRights
+	public static final int WHITE_SHORT = 1;
+	public static final int WHITE_LONG = 2;
+	public static final int BLACK_SHORT = 4;
+	public static final int BLACK_LONG = 8;
+
+	private static final long PROMOTION_ROWS = 0xFF000000000000FFL;
+
+	private MoveGenerator() {
+	}
+
+	// Fills the list with the legal moves of the informed side. enPassantSquare is the square behind a pawn that has just double-stepped, or -1
+	public static void generate(ChessBoard board, Color us, int enPassantSquare, int castlingRights, MoveList list) {
+		generate(board, us, enPassantSquare, castlingRights, list, false);
+	}
+
+	// Only the legal captures (en passant included) and promotions, as a quiescence search needs them
+	public static void generateCaptures(ChessBoard board, Color us, int enPassantSquare, MoveList list) {
+		generate(board, us, enPassantSquare, 0, list, true);
+	}
+
+	private static void generate(ChessBoard board, Color us, int enPassantSquare, int castlingRights, MoveList list, boolean capturesOnly) {
+		list.clear();
+		Color them = (us == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		int king = board.getKingSquare(us);
+		long own = board.getColorMask(us);
+		long enemy = board.getColorMask(them);
+		long occupied = board.getOccupancy();
+		long checkers = board.attackersTo(king, occupied) & enemy;
+		long targetMask = capturesOnly ? enemy : -1L;
+
+		//King: the king is lifted off the board so that it cannot hide behind itself on a checking line
+		long danger = board.getAttackedSquares(them, occupied ^ Bitboards.bit(king));
+		addMoves(list, king, Bitboards.kingAttacks(king) & ~own & ~danger & targetMask, enemy);
+		if (Long.bitCount(checkers) > 1) {
+			return;
+		}
+
+		//Single check: the other pieces must capture the checker or block the line between it and the king
+		long checkMask = -1L;
+		if (checkers != 0) {
+			checkMask = checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers));
+		}
+		long pieceMask = checkMask & targetMask;
+		long pinned = pinnedPieces(board, them, king, occupied, own);
+
+		//Knights: a pinned knight can never move along its pin line
+		long knights = board.getMask(us, PieceType.KNIGHT) & ~pinned;
+		while (knights != 0) {
+			int square = Long.numberOfTrailingZeros(knights);
+			knights &= knights - 1;
+			addMoves(list, square, Bitboards.knightAttacks(square) & ~own & pieceMask, enemy);
+		}
+
+		//Sliders: a pinned slider may still move along the line through its king and pinner
+		long queens = board.getMask(us, PieceType.QUEEN);
+		long diagonals = board.getMask(us, PieceType.BISHOP) | queens;
+		while (diagonals != 0) {
+			int square = Long.numberOfTrailingZeros(diagonals);
+			diagonals &= diagonals - 1;
+			long targets = MagicBitboards.bishopAttacks(square, occupied) & ~own & pieceMask;
+			addMoves(list, square, pinFilter(targets, pinned, king, square), enemy);
+		}
+		long lines = board.getMask(us, PieceType.ROOK) | queens;
+		while (lines != 0) {
+			int square = Long.numberOfTrailingZeros(lines);
+			lines &= lines - 1;
+			long targets = MagicBitboards.rookAttacks(square, occupied) & ~own & pieceMask;
+			addMoves(list, square, pinFilter(targets, pinned, king, square), enemy);
+		}
+
+		addPawnMoves(board, us, them, king, enPassantSquare, checkMask, pinned, capturesOnly ? PROMOTION_ROWS : -1L, list);
+
+		if (checkers == 0 && !capturesOnly) {
+			addCastling(us, castlingRights, occupied, danger, list);
+		}
+	}
+
+	// Own pieces that are the only blocker between the king and an enemy slider on the same line
+	private static long pinnedPieces(ChessBoard board, Color them, int king, long occupied, long own) {
+		long queens = board.getMask(them, PieceType.QUEEN);
+		long snipers = (MagicBitboards.rookAttacks(king, 0L) & (board.getMask(them, PieceType.ROOK) | queens))
+				| (MagicBitboards.bishopAttacks(king, 0L) & (board.getMask(them, PieceType.BISHOP) | queens));
+		long pinned = 0L;
+		while (snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+			long blockers = Bitboards.between(king, sniper) & occupied;
+			if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+				pinned |= blockers;
+			}
+		}
+		return pinned;
+	}
+
+	private static long pinFilter(long targets, long pinned, int king, int square) {
+		return (pinned & Bitboards.bit(square)) != 0 ? targets & Bitboards.line(king, square) : targets;
+	}
+
+	// pushMask limits where pawns may step without capturing, e.g. to the promotion rows only
+	private static void addPawnMoves(ChessBoard board, Color us, Color them, int king, int enPassantSquare, long checkMask, long pinned, long pushMask, MoveList list) {
+		long occupied = board.getOccupancy();
+		long enemy = board.getColorMask(them);
+		boolean white = us == Color.WHITE;
+		int startRow = white ? 6 : 1;
+		long pawns = board.getMask(us, PieceType.PAWN);
+		while (pawns != 0) {
+			int square = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+			long pawn = Bitboards.bit(square);
+			long single = (white ? pawn >>> 8 : pawn << 8) & ~occupied;
+			long pushes = single;
+			if (Bitboards.row(square) == startRow) {
+				pushes |= (white ? single >>> 8 : single << 8) & ~occupied;
+			}
+			long captures = Bitboards.pawnAttacks(us, square) & enemy;
+			long targets = pinFilter(((pushes & pushMask) | captures) & checkMask, pinned, king, square);
+			while (targets != 0) {
+				int target = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				boolean capture = (enemy & Bitboards.bit(target)) != 0;
+				int row = Bitboards.row(target);
+				if (row == 0 || row == 7) {
+					int flags = capture ? Move.CAPTURE_PROMOTION : Move.PROMOTION;
+					for (int promotion = 3; promotion >= 0; promotion--) {
+						list.add(Move.encode(square, target, flags | promotion));
+					}
+				}
+				else if (capture) {
+					list.add(Move.encode(square, target, Move.CAPTURE));
+				}
+				else {
+					list.add(Move.encode(square, target, (target == square + 16 || target == square - 16) ? Move.DOUBLE_PAWN_PUSH : Move.QUIET));
+				}
+			}
+			if (enPassantSquare >= 0 && (Bitboards.pawnAttacks(us, square) & Bitboards.bit(enPassantSquare)) != 0
+					&& enPassantIsLegal(board, them, king, square, enPassantSquare, white ? enPassantSquare + 8 : enPassantSquare - 8, checkMask)) {
+				list.add(Move.encode(square, enPassantSquare, Move.EN_PASSANT));
+			}
+		}
+	}
+
+	/*  En passant removes two pieces from one row at once, which the pin test cannot see. The capture is tried on the
+	 	occupancy and the king is probed for slider attacks afterwards */
+	private static boolean enPassantIsLegal(ChessBoard board, Color them, int king, int source, int target, int captured, long checkMask) {
+		if ((checkMask & (Bitboards.bit(target) | Bitboards.bit(captured))) == 0) {
+			return false;
+		}
+		long occupied = (board.getOccupancy() ^ Bitboards.bit(source) ^ Bitboards.bit(captured)) | Bitboards.bit(target);
+		long queens = board.getMask(them, PieceType.QUEEN);
+		return (MagicBitboards.rookAttacks(king, occupied) & (board.getMask(them, PieceType.ROOK) | queens)) == 0
+				&& (MagicBitboards.bishopAttacks(king, occupied) & (board.getMask(them, PieceType.BISHOP) | queens)) == 0;
+	}
+
+	// Rights already imply king and rook on their home squares; the squares between must be empty and the king's path safe
+	private static void addCastling(Color us, int castlingRights, long occupied, long danger, MoveList list) {
+		int row = (us == Color.WHITE) ? 7 : 0;
+		int king = Bitboards.square(row, 4);
+		int shortRight = (us == Color.WHITE) ? WHITE_SHORT : BLACK_SHORT;
+		int longRight = (us == Color.WHITE) ? WHITE_LONG : BLACK_LONG;
+		if ((castlingRights & shortRight) != 0
+				&& (occupied & (Bitboards.bit(row, 5) | Bitboards.bit(row, 6))) == 0
+				&& (danger & (Bitboards.bit(row, 5) | Bitboards.bit(row, 6))) == 0) {
+			list.add(Move.encode(king, king + 2, Move.SHORT_CASTLING));
+		}
+		if ((castlingRights & longRight) != 0
+				&& (occupied & (Bitboards.bit(row, 1) | Bitboards.bit(row, 2) | Bitboards.bit(row, 3))) == 0
+				&& (danger & (Bitboards.bit(row, 2) | Bitboards.bit(row, 3))) == 0) {
+			list.add(Move.encode(king, king - 2, Move.LONG_CASTLING));
+		}
+	}
+
+	private static void addMoves(MoveList list, int source, long targets, long enemy) {
+		while (targets != 0) {
+			int target = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			list.add(Move.encode(source, target, (enemy & Bitboards.bit(target)) != 0 ? Move.CAPTURE : Move.QUIET));
+		}
+	}
+
+}
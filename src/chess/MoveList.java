@@ -0,0 +1,80 @@
+package chess;
+
+//Caller-owned move buffer. Moves are packed ints (see Move); the buffer is reused between generations and never shrinks
+public class MoveList {
+
+	// No chess position has more than 218 legal moves
+	public static final int CAPACITY = 256;
+
+	private int[] moves = new int[CAPACITY];
+	// Ordering scores of the moves, filled in by the search; the move generator leaves them alone
+	private int[] scores = new int[CAPACITY];
+	private int size;
+
+	public int size() {
+		return size;
+	}
+
+	public int get(int index) {
+		return moves[index];
+	}
+
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+
+	public int getScore(int index) {
+		return scores[index];
+	}
+
+	public void setScore(int index, int score) {
+		scores[index] = score;
+	}
+
+	/*  Swaps the highest-scored move from index onwards to index and returns it; of equal scores the one nearest index wins.
+	 	The swap sends the move that stood at index further down, so equal moves do not keep their generation order, though
+	 	the order is the same on every run. One selection step per move tried, so a node cut off early never sorts the rest */
+	public int pickBest(int index) {
+		int best = index;
+		for (int i = index + 1; i < size; i++) {
+			if (scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		if (best != index) {
+			int move = moves[best];
+			moves[best] = moves[index];
+			moves[index] = move;
+			int score = scores[best];
+			scores[best] = scores[index];
+			scores[index] = score;
+		}
+		return moves[index];
+	}
+
+	public void add(int move) {
+		moves[size++] = move;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	// Keeps the first size moves, e.g. after the list has been filtered in place
+	public void truncate(int size) {
+		if (size < 0 || size > this.size) {
+			throw new IndexOutOfBoundsException("Cannot truncate " + this.size + " moves to " + size);
+		}
+		this.size = size;
+	}
+
+	public boolean contains(int move) {
+		for (int i = 0; i < size; i++) {
+			if (moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
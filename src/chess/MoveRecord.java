@@ -0,0 +1,15 @@
+package chess;
+
+import chess.enums.PieceType;
+
+/*  One move of the game history of a ChessMatch (see getMoveRecord) with the state it was played from: the captured piece
+ 	type or null, the en passant square or -1, the castling rights as MoveGenerator bits, the halfmove clock and the Zobrist
+ 	key. The match keeps these in primitive arrays and builds a record only when one is asked for */
+public record MoveRecord(int move, PieceType capturedType, int enPassantSquare, int castlingRights, int halfmoveClock, long hash) {
+
+	@Override
+	public String toString() {
+		return Move.toString(move);
+	}
+
+}
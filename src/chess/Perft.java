@@ -0,0 +1,163 @@
+package chess;
+
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+//Counts the leaf nodes of the legal move tree, to be checked against the published counts of the reference positions
+public class Perft {
+
+	// Reference positions: name, FEN and node counts for depth 1, 2, 3...
+	public static final Object[][] REFERENCE_POSITIONS = {
+		{ "initial", Fen.INITIAL, new long[] { 20, 400, 8902, 197281, 4865609, 119060324 } },
+		{ "kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", new long[] { 48, 2039, 97862, 4085603, 193690690 } },
+		{ "position3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", new long[] { 14, 191, 2812, 43238, 674624, 11030083 } },
+		{ "position4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", new long[] { 6, 264, 9467, 422333, 15833292 } },
+		{ "position5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", new long[] { 44, 1486, 62379, 2103487, 89941194 } },
+		{ "position6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", new long[] { 46, 2079, 89890, 3894594, 164075551 } }
+	};
+
+	public static long perft(ChessMatch chessMatch, int depth) {
+		checkDepth(depth, 0);
+		if (depth == 0) {
+			return 1;
+		}
+		return walk(chessMatch, depth, newMoveLists(depth), null);
+	}
+
+	// Prints the node count below each root move, then returns the total
+	public static long divide(ChessMatch chessMatch, int depth, PrintStream out) {
+		checkDepth(depth, 1);
+		long nodes = walk(chessMatch, depth, newMoveLists(depth), out);
+		out.println("Nodes: " + nodes);
+		return nodes;
+	}
+
+	// Same count as perft, with the tree split at the root (and at ply 2 for deep runs) into tasks of the given pool
+	public static long parallelPerft(ChessMatch chessMatch, int depth, ForkJoinPool pool) {
+		checkDepth(depth, 0);
+		if (depth == 0) {
+			return 1;
+		}
+		return pool.invoke(new PerftTask(chessMatch.copy(), depth, splitPlies(depth)));
+	}
+
+	/*  Parallel divide: the counts below each root move are collected in move generation order and printed after all tasks
+	 	have finished, so the output is identical to the single threaded divide */
+	public static long parallelDivide(ChessMatch chessMatch, int depth, ForkJoinPool pool, PrintStream out) {
+		checkDepth(depth, 1);
+		MoveList list = new MoveList();
+		chessMatch.generateLegalMoves(list);
+		PerftTask[] tasks = new PerftTask[list.size()];
+		for (int i = 0; i < tasks.length; i++) {
+			ChessMatch copy = chessMatch.copy();
+			copy.playMove(list.get(i));
+			tasks[i] = new PerftTask(copy, depth - 1, splitPlies(depth) - 1);
+		}
+		pool.invoke(new RecursiveTask<Long>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected Long compute() {
+				invokeAll(tasks);
+				return 0L;
+			}
+		});
+		long nodes = 0;
+		for (int i = 0; i < tasks.length; i++) {
+			long count = tasks[i].join();
+			out.println(Move.toString(list.get(i)) + ": " + count);
+			nodes += count;
+		}
+		out.println("Nodes: " + nodes);
+		return nodes;
+	}
+
+	// Divide lists the moves of the root, so it needs at least one ply
+	private static void checkDepth(int depth, int minimum) {
+		if (depth < minimum) {
+			throw new IllegalArgumentException("Perft depth must be at least " + minimum + ", not " + depth);
+		}
+	}
+
+	// Splitting only the root leaves too few tasks for many cores when there are few legal moves; deep runs split one more ply
+	private static int splitPlies(int depth) {
+		return (depth >= 5) ? 2 : 1;
+	}
+
+	/*  Works on its own copy of the match, since pieces reference their board and cannot be shared between threads.
+	 	Above the split plies every move gets a subtask; below them the sequential walk takes over */
+	private static class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ChessMatch chessMatch;
+		private final int depth;
+		private final int splitPlies;
+
+		PerftTask(ChessMatch chessMatch, int depth, int splitPlies) {
+			this.chessMatch = chessMatch;
+			this.depth = depth;
+			this.splitPlies = splitPlies;
+		}
+
+		@Override
+		protected Long compute() {
+			if (depth == 0) {
+				return 1L;
+			}
+			if (splitPlies <= 0 || depth == 1) {
+				return walk(chessMatch, depth, newMoveLists(depth), null);
+			}
+			MoveList list = new MoveList();
+			chessMatch.generateLegalMoves(list);
+			PerftTask[] tasks = new PerftTask[list.size()];
+			for (int i = 0; i < tasks.length; i++) {
+				ChessMatch copy = chessMatch.copy();
+				copy.playMove(list.get(i));
+				tasks[i] = new PerftTask(copy, depth - 1, splitPlies - 1);
+			}
+			invokeAll(tasks);
+			long nodes = 0;
+			for (PerftTask task : tasks) {
+				nodes += task.join();
+			}
+			return nodes;
+		}
+
+	}
+
+	// One buffer per ply, so the walk itself does not allocate
+	private static MoveList[] newMoveLists(int depth) {
+		MoveList[] lists = new MoveList[depth];
+		for (int i = 0; i < depth; i++) {
+			lists[i] = new MoveList();
+		}
+		return lists;
+	}
+
+	// Only legal moves are generated, so the last ply is counted from the list size without playing it
+	private static long walk(ChessMatch chessMatch, int depth, MoveList[] lists, PrintStream out) {
+		MoveList list = lists[depth - 1];
+		chessMatch.generateLegalMoves(list);
+		if (depth == 1 && out == null) {
+			return list.size();
+		}
+		long nodes = 0;
+		for (int i = 0; i < list.size(); i++) {
+			int move = list.get(i);
+			long count = 1;
+			if (depth > 1) {
+				chessMatch.playMove(move);
+				count = walk(chessMatch, depth - 1, lists, null);
+				chessMatch.takeBack();
+			}
+			if (out != null) {
+				out.println(Move.toString(move) + ": " + count);
+			}
+			nodes += count;
+		}
+		return nodes;
+	}
+
+}
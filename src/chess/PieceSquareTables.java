@@ -0,0 +1,140 @@
+package chess;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Material plus piece-square values for the middlegame and the endgame, in centipawns, for a piece of a color on a square.
+ 	ChessBoard adds them up as pieces come and go, like the Zobrist key, so the totals are always current; the evaluation
+ 	then blends the two scores by the game phase, which falls from MAX_PHASE to 0 as pieces other than pawns leave the board.
+ 	The tables are written from White's side with rank 8 on the first line, matching the Bitboards square numbering;
+ 	Black reads them upside down */
+public final class PieceSquareTables {
+
+	public static final int MAX_PHASE = 24;
+
+	// Indexed by PieceType ordinal
+	public static final int[] MIDDLEGAME_VALUES = { 82, 337, 365, 477, 1025, 0 };
+	public static final int[] ENDGAME_VALUES = { 94, 281, 297, 512, 936, 0 };
+	private static final int[] PHASES = { 0, 1, 1, 2, 4, 0 };
+
+	private static final int[] PAWN = {
+			  0,   0,   0,   0,   0,   0,   0,   0,
+			 50,  50,  50,  50,  50,  50,  50,  50,
+			 10,  10,  20,  30,  30,  20,  10,  10,
+			  5,   5,  10,  25,  25,  10,   5,   5,
+			  0,   0,   0,  20,  20,   0,   0,   0,
+			  5,  -5, -10,   0,   0, -10,  -5,   5,
+			  5,  10,  10, -20, -20,  10,  10,   5,
+			  0,   0,   0,   0,   0,   0,   0,   0 };
+
+	// Passed or not, a pawn is worth more the closer it gets to promotion once the pieces are off
+	private static final int[] PAWN_ENDGAME = {
+			  0,   0,   0,   0,   0,   0,   0,   0,
+			 80,  80,  80,  80,  80,  80,  80,  80,
+			 50,  50,  50,  50,  50,  50,  50,  50,
+			 30,  30,  30,  30,  30,  30,  30,  30,
+			 15,  15,  15,  15,  15,  15,  15,  15,
+			  5,   5,   5,   5,   5,   5,   5,   5,
+			  0,   0,   0,   0,   0,   0,   0,   0,
+			  0,   0,   0,   0,   0,   0,   0,   0 };
+
+	private static final int[] KNIGHT = {
+			-50, -40, -30, -30, -30, -30, -40, -50,
+			-40, -20,   0,   0,   0,   0, -20, -40,
+			-30,   0,  10,  15,  15,  10,   0, -30,
+			-30,   5,  15,  20,  20,  15,   5, -30,
+			-30,   0,  15,  20,  20,  15,   0, -30,
+			-30,   5,  10,  15,  15,  10,   5, -30,
+			-40, -20,   0,   5,   5,   0, -20, -40,
+			-50, -40, -30, -30, -30, -30, -40, -50 };
+
+	private static final int[] BISHOP = {
+			-20, -10, -10, -10, -10, -10, -10, -20,
+			-10,   0,   0,   0,   0,   0,   0, -10,
+			-10,   0,   5,  10,  10,   5,   0, -10,
+			-10,   5,   5,  10,  10,   5,   5, -10,
+			-10,   0,  10,  10,  10,  10,   0, -10,
+			-10,  10,  10,  10,  10,  10,  10, -10,
+			-10,   5,   0,   0,   0,   0,   5, -10,
+			-20, -10, -10, -10, -10, -10, -10, -20 };
+
+	private static final int[] ROOK = {
+			  0,   0,   0,   0,   0,   0,   0,   0,
+			  5,  10,  10,  10,  10,  10,  10,   5,
+			 -5,   0,   0,   0,   0,   0,   0,  -5,
+			 -5,   0,   0,   0,   0,   0,   0,  -5,
+			 -5,   0,   0,   0,   0,   0,   0,  -5,
+			 -5,   0,   0,   0,   0,   0,   0,  -5,
+			 -5,   0,   0,   0,   0,   0,   0,  -5,
+			  0,   0,   0,   5,   5,   0,   0,   0 };
+
+	private static final int[] QUEEN = {
+			-20, -10, -10,  -5,  -5, -10, -10, -20,
+			-10,   0,   0,   0,   0,   0,   0, -10,
+			-10,   0,   5,   5,   5,   5,   0, -10,
+			 -5,   0,   5,   5,   5,   5,   0,  -5,
+			  0,   0,   5,   5,   5,   5,   0,  -5,
+			-10,   5,   5,   5,   5,   5,   0, -10,
+			-10,   0,   5,   0,   0,   0,   0, -10,
+			-20, -10, -10,  -5,  -5, -10, -10, -20 };
+
+	// Sheltered behind its pawns while there is material to attack it
+	private static final int[] KING = {
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-20, -30, -30, -40, -40, -30, -30, -20,
+			-10, -20, -20, -20, -20, -20, -20, -10,
+			 20,  20,   0,   0,   0,   0,  20,  20,
+			 20,  30,  10,   0,   0,  10,  30,  20 };
+
+	// In the centre once it is safe there, where it supports pawns and keeps out of mating nets
+	private static final int[] KING_ENDGAME = {
+			-50, -40, -30, -20, -20, -30, -40, -50,
+			-30, -20, -10,   0,   0, -10, -20, -30,
+			-30, -10,  20,  30,  30,  20, -10, -30,
+			-30, -10,  30,  40,  40,  30, -10, -30,
+			-30, -10,  30,  40,  40,  30, -10, -30,
+			-30, -10,  20,  30,  30,  20, -10, -30,
+			-30, -30,   0,   0,   0,   0, -30, -30,
+			-50, -30, -30, -30, -30, -30, -30, -50 };
+
+	// Material included, negated for Black, indexed like Zobrist: (color * 6 + type) * 64 + square
+	private static final int[] MIDDLEGAME = new int[2 * 6 * 64];
+	private static final int[] ENDGAME = new int[2 * 6 * 64];
+
+	static {
+		int[][] middlegame = { PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING };
+		int[][] endgame = { PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME };
+		for (Color color : Color.values()) {
+			int sign = (color == Color.WHITE) ? 1 : -1;
+			int flip = (color == Color.WHITE) ? 0 : 56;
+			for (int type = 0; type < 6; type++) {
+				for (int square = 0; square < 64; square++) {
+					int index = (color.ordinal() * 6 + type) * 64 + square;
+					MIDDLEGAME[index] = sign * (MIDDLEGAME_VALUES[type] + middlegame[type][square ^ flip]);
+					ENDGAME[index] = sign * (ENDGAME_VALUES[type] + endgame[type][square ^ flip]);
+				}
+			}
+		}
+	}
+
+	private PieceSquareTables() {
+	}
+
+	// Positive for White, negative for Black
+	public static int middlegame(Color color, PieceType type, int square) {
+		return MIDDLEGAME[(color.ordinal() * 6 + type.ordinal()) * 64 + square];
+	}
+
+	public static int endgame(Color color, PieceType type, int square) {
+		return ENDGAME[(color.ordinal() * 6 + type.ordinal()) * 64 + square];
+	}
+
+	// Weight of the piece in the game phase: 1 for minor pieces, 2 for rooks, 4 for queens, 0 for pawns and kings
+	public static int phase(PieceType type) {
+		return PHASES[type.ordinal()];
+	}
+
+}
@@ -0,0 +1,121 @@
+package chess;
+
+import chess.enums.PieceType;
+
+/*  Standard Algebraic Notation, e.g. e4, Nbd7, exd6, R1e2, e8=Q+ and O-O-O. A SAN token is resolved against the legal
+ 	moves of the player to move, so that only the disambiguation the notation actually gives is needed.
+ 	Check and annotation suffixes (+ # ! ?) are ignored; castling may be written with letter O or digit zero */
+public final class San {
+
+	// Results of resolve that are not moves. No legal move has source equal to target, so none of them is a valid move
+	public static final int MALFORMED = -1;
+	public static final int ILLEGAL = -2;
+	public static final int AMBIGUOUS = -3;
+
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private San() {
+	}
+
+	// The packed move the token stands for, or MALFORMED, ILLEGAL or AMBIGUOUS. The list is a scratch buffer
+	public static int resolve(ChessMatch chessMatch, CharSequence san, MoveList scratch) {
+		int start = 0;
+		int end = san.length();
+		while (end > start && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+			end--;
+		}
+		if (end - start < 2) {
+			return MALFORMED;
+		}
+		chessMatch.generateLegalMoves(scratch);
+
+		char first = san.charAt(start);
+		if (first == 'O' || first == '0') {
+			int flags;
+			if (end - start == 3 && isCastlingDash(san, start + 1, first)) {
+				flags = Move.SHORT_CASTLING;
+			}
+			else if (end - start == 5 && isCastlingDash(san, start + 1, first) && isCastlingDash(san, start + 3, first)) {
+				flags = Move.LONG_CASTLING;
+			}
+			else {
+				return MALFORMED;
+			}
+			for (int i = 0; i < scratch.size(); i++) {
+				if (Move.flags(scratch.get(i)) == flags) {
+					return scratch.get(i);
+				}
+			}
+			return ILLEGAL;
+		}
+
+		PieceType type = PieceType.PAWN;
+		int letter = "PNBRQK".indexOf(first);
+		if (letter >= 0) {
+			type = TYPES[letter];
+			start++;
+		}
+
+		// Promotion suffix, with or without the equals sign
+		PieceType promotion = null;
+		int promotionLetter = "NBRQ".indexOf(san.charAt(end - 1));
+		if (type == PieceType.PAWN && promotionLetter >= 0) {
+			promotion = TYPES[promotionLetter + 1];
+			end--;
+			if (end > start && san.charAt(end - 1) == '=') {
+				end--;
+			}
+		}
+
+		if (end - start < 2) {
+			return MALFORMED;
+		}
+		char targetFile = san.charAt(end - 2);
+		char targetRank = san.charAt(end - 1);
+		if (targetFile < 'a' || targetFile > 'h' || targetRank < '1' || targetRank > '8') {
+			return MALFORMED;
+		}
+		int target = Bitboards.square('8' - targetRank, targetFile - 'a');
+
+		// Whatever stands between the piece letter and the target: source file and/or rank, and the capture sign
+		int sourceColumn = -1;
+		int sourceRow = -1;
+		for (int i = start; i < end - 2; i++) {
+			char c = san.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				sourceColumn = c - 'a';
+			}
+			else if (c >= '1' && c <= '8') {
+				sourceRow = '8' - c;
+			}
+			else if (c != 'x' && c != ':') {
+				return MALFORMED;
+			}
+		}
+
+		long pieces = chessMatch.getChessBoard().getTypeMask(type);
+		int found = ILLEGAL;
+		for (int i = 0; i < scratch.size(); i++) {
+			int move = scratch.get(i);
+			int source = Move.source(move);
+			if (Move.target(move) != target || (pieces & Bitboards.bit(source)) == 0 || Move.isCastling(move)
+					|| (sourceColumn >= 0 && Bitboards.column(source) != sourceColumn)
+					|| (sourceRow >= 0 && Bitboards.row(source) != sourceRow)) {
+				continue;
+			}
+			if (Move.isPromotion(move) ? Move.promotionType(move) != promotion : promotion != null) {
+				continue;
+			}
+			if (found >= 0) {
+				return AMBIGUOUS;
+			}
+			found = move;
+		}
+		return found;
+	}
+
+	private static boolean isCastlingDash(CharSequence san, int index, char letter) {
+		return san.charAt(index) == '-' && san.charAt(index + 1) == letter;
+	}
+
+}
@@ -0,0 +1,147 @@
+package chess;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Immutable copy of a position, taken with ChessMatch.snapshot: the pieces as one color mask and three bit planes holding
+ 	PieceType ordinal + 1 per square, the side to move, castling rights, en passant square and move counters packed into
+ 	one long, and the Zobrist key. Every field is final, so a snapshot handed to another thread through a volatile field or
+ 	a concurrent queue is seen complete there without locks, while the match it was taken from goes on moving.
+ 	toMatch turns it back into a match that can be searched or played on */
+public final class Snapshot {
+
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private static final int CASTLING_SHIFT = 1;
+	private static final int EN_PASSANT_SHIFT = 5;
+	private static final int HALFMOVE_SHIFT = 12;
+	private static final int FULLMOVE_SHIFT = 28;
+
+	private final long white;
+	private final long plane0;
+	private final long plane1;
+	private final long plane2;
+	// Bit 0 black to move, bits 1-4 castling rights, bits 5-11 en passant square + 1, bits 12-27 halfmove clock,
+	// bits 28-59 fullmove number
+	private final long state;
+	private final long hash;
+
+	Snapshot(ChessMatch chessMatch) {
+		ChessBoard board = chessMatch.getChessBoard();
+		long plane0 = 0L;
+		long plane1 = 0L;
+		long plane2 = 0L;
+		for (PieceType type : TYPES) {
+			int code = type.ordinal() + 1;
+			long pieces = board.getTypeMask(type);
+			if ((code & 1) != 0) {
+				plane0 |= pieces;
+			}
+			if ((code & 2) != 0) {
+				plane1 |= pieces;
+			}
+			if ((code & 4) != 0) {
+				plane2 |= pieces;
+			}
+		}
+		this.white = board.getColorMask(Color.WHITE);
+		this.plane0 = plane0;
+		this.plane1 = plane1;
+		this.plane2 = plane2;
+		this.state = (chessMatch.getSideToMove() == Color.BLACK ? 1L : 0L)
+				| ((long) chessMatch.getCastlingRights() << CASTLING_SHIFT)
+				| ((long) (chessMatch.getEnPassantSquare() + 1) << EN_PASSANT_SHIFT)
+				| ((long) Math.min(chessMatch.getHalfmoveClock(), 0xFFFF) << HALFMOVE_SHIFT)
+				| ((long) chessMatch.getFullmoveNumber() << FULLMOVE_SHIFT);
+		this.hash = chessMatch.getHash();
+	}
+
+	public long getOccupancy() {
+		return plane0 | plane1 | plane2;
+	}
+
+	public long getColorMask(Color color) {
+		return (color == Color.WHITE) ? white : getOccupancy() & ~white;
+	}
+
+	// Type of the piece on the square, or null when it is empty
+	public PieceType getPieceType(int square) {
+		int code = (int) ((plane0 >>> square) & 1) | (int) ((plane1 >>> square) & 1) << 1 | (int) ((plane2 >>> square) & 1) << 2;
+		return (code == 0) ? null : TYPES[code - 1];
+	}
+
+	// Color of the piece on the square, or null when it is empty
+	public Color getColor(int square) {
+		long bit = Bitboards.bit(square);
+		if ((getOccupancy() & bit) == 0) {
+			return null;
+		}
+		return (white & bit) != 0 ? Color.WHITE : Color.BLACK;
+	}
+
+	public Color getCurrentPlayer() {
+		return (state & 1) != 0 ? Color.BLACK : Color.WHITE;
+	}
+
+	// MoveGenerator bits, as ChessMatch.getCastlingRights
+	public int getCastlingRights() {
+		return (int) (state >>> CASTLING_SHIFT) & 15;
+	}
+
+	// Square a pawn lands on when taking en passant, or -1
+	public int getEnPassantSquare() {
+		return ((int) (state >>> EN_PASSANT_SHIFT) & 127) - 1;
+	}
+
+	public int getHalfmoveClock() {
+		return (int) (state >>> HALFMOVE_SHIFT) & 0xFFFF;
+	}
+
+	public int getFullmoveNumber() {
+		return (int) (state >>> FULLMOVE_SHIFT);
+	}
+
+	// Zobrist key of the position, the same as ChessMatch.getHash gave when the snapshot was taken
+	public long getHash() {
+		return hash;
+	}
+
+	// New match set up with the position; it has no game history, so takeBack cannot go behind it
+	public ChessMatch toMatch() {
+		ChessMatch chessMatch = new ChessMatch(Color.WHITE);
+		load(chessMatch);
+		return chessMatch;
+	}
+
+	// Replaces the position of the match with this one, reusing its pieces like Fen.load; the game history is dropped
+	public void load(ChessMatch chessMatch) {
+		chessMatch.clearPosition();
+		for (long pieces = getOccupancy(); pieces != 0; pieces &= pieces - 1) {
+			int square = Long.numberOfTrailingZeros(pieces);
+			chessMatch.putPiece(getColor(square), getPieceType(square), square);
+		}
+		chessMatch.setPosition(getCurrentPlayer(), getCastlingRights(), getEnPassantSquare(), getHalfmoveClock(), getFullmoveNumber());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Snapshot)) {
+			return false;
+		}
+		Snapshot other = (Snapshot) obj;
+		return white == other.white && plane0 == other.plane0 && plane1 == other.plane1 && plane2 == other.plane2
+				&& state == other.state && hash == other.hash;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash);
+	}
+
+	// FEN of the position; builds a match, so it is meant for display and logs rather than for every move
+	@Override
+	public String toString() {
+		return Fen.toString(toMatch());
+	}
+
+}
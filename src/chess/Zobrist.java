@@ -0,0 +1,55 @@
+package chess;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+//Random keys for Zobrist hashing. A position key is the XOR of the keys of its features, so moves update it with a few XORs
+public final class Zobrist {
+
+	private static final long[] PIECES = new long[2 * 6 * 64];
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EN_PASSANT_FILES = new long[8];
+	private static final long BLACK_TO_MOVE;
+
+	//SplitMix64 with a fixed seed, so keys and stored hashes stay valid between runs
+	static {
+		long state = 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < PIECES.length; i++) {
+			PIECES[i] = mix(state += 0x9E3779B97F4A7C15L);
+		}
+		for (int i = 1; i < CASTLING.length; i++) {
+			CASTLING[i] = mix(state += 0x9E3779B97F4A7C15L);
+		}
+		for (int i = 0; i < EN_PASSANT_FILES.length; i++) {
+			EN_PASSANT_FILES[i] = mix(state += 0x9E3779B97F4A7C15L);
+		}
+		BLACK_TO_MOVE = mix(state += 0x9E3779B97F4A7C15L);
+	}
+
+	private Zobrist() {
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	public static long piece(Color color, PieceType type, int square) {
+		return PIECES[(color.ordinal() * 6 + type.ordinal()) * 64 + square];
+	}
+
+	// Castling rights in the MoveGenerator bit format; no rights hash to 0
+	public static long castling(int castlingRights) {
+		return CASTLING[castlingRights];
+	}
+
+	public static long enPassantFile(int column) {
+		return EN_PASSANT_FILES[column];
+	}
+
+	public static long blackToMove() {
+		return BLACK_TO_MOVE;
+	}
+
+}
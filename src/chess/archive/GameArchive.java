@@ -0,0 +1,186 @@
+package chess.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.pgn.ByteSequence;
+
+/*  Random-access reader of a binary game archive, memory-mapped in segments of 1 GB.
+ 	Layout, big-endian: a 16-byte header (magic "CGA1", version, flags, offset of the index or 0 while the writer has not
+ 	closed), then one record per game: result byte, flags byte, ply count (u16), the start FEN as a length byte and ASCII
+ 	when flag FEN is set, and a u16 per move holding the packed move (see chess.Move). The index is the game count followed
+ 	by the offset of every record. When it is missing the records are scanned on open.
+ 	A game replays straight into a ChessMatch with playMove; the moves are trusted as written, without legality checks */
+public class GameArchive implements AutoCloseable {
+
+	static final int MAGIC = 0x43474131;
+	static final short VERSION = 1;
+	static final long INDEX_OFFSET_POSITION = 8;
+	static final int HEADER_SIZE = 16;
+	static final int FLAG_FEN = 1;
+	static final int MAX_FEN_LENGTH = 127;
+	static final int MAX_PLIES = 65535;
+
+	// Each segment overlaps the next by more than the largest record, so every record lies whole in the segment it starts in
+	private static final long SEGMENT_SIZE = 1L << 30;
+	private static final long SEGMENT_OVERLAP = 1L << 18;
+
+	private final FileChannel channel;
+	private final ByteBuffer[] segments;
+	private final long[] offsets;
+
+	public GameArchive(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			segments = new ByteBuffer[(int) Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = i * SEGMENT_SIZE;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size, start + SEGMENT_SIZE + SEGMENT_OVERLAP) - start);
+			}
+			if (size < HEADER_SIZE || segments[0].getInt(0) != MAGIC) {
+				throw new IOException(file + " is not a game archive");
+			}
+			if (segments[0].getShort(4) != VERSION) {
+				throw new IOException(file + ": unsupported game archive version " + segments[0].getShort(4));
+			}
+			long indexOffset = segments[0].getLong((int) INDEX_OFFSET_POSITION);
+			offsets = (indexOffset > 0) ? readIndex(indexOffset) : scan(size);
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private long[] readIndex(long indexOffset) {
+		int count = getInt(indexOffset);
+		long[] offsets = new long[count];
+		for (int i = 0; i < count; i++) {
+			offsets[i] = getLong(indexOffset + 4 + 8L * i);
+		}
+		return offsets;
+	}
+
+	// Rebuilds the index of an archive whose writer was not closed, up to the last complete record
+	private long[] scan(long size) {
+		long[] offsets = new long[1024];
+		int count = 0;
+		long position = HEADER_SIZE;
+		while (position + 4 <= size) {
+			long end = position + 4 + 2L * getPlyCountAt(position);
+			if ((getByte(position + 1) & FLAG_FEN) != 0) {
+				end += 1 + (position + 4 < size ? (getByte(position + 4) & 0xFF) : 0);
+			}
+			if (end > size) {
+				break;
+			}
+			if (count == offsets.length) {
+				offsets = Arrays.copyOf(offsets, count * 2);
+			}
+			offsets[count++] = position;
+			position = end;
+		}
+		return Arrays.copyOf(offsets, count);
+	}
+
+	public int getGameCount() {
+		return offsets.length;
+	}
+
+	public long getOffset(int game) {
+		return offsets[game];
+	}
+
+	// Result code of chess.pgn.PgnGame
+	public int getResult(int game) {
+		return getByte(offsets[game]);
+	}
+
+	public int getPlyCount(int game) {
+		return getPlyCountAt(offsets[game]);
+	}
+
+	// FEN the game starts from, or null for the standard starting position
+	public String getStartFen(int game) {
+		long offset = offsets[game];
+		return hasFen(offset) ? fen(offset).toString() : null;
+	}
+
+	public int getMove(int game, int ply) {
+		if (ply < 0 || ply >= getPlyCount(game)) {
+			throw new IndexOutOfBoundsException("Ply " + ply + " out of " + getPlyCount(game));
+		}
+		return getShort(movesOffset(offsets[game]) + 2L * ply) & 0xFFFF;
+	}
+
+	// Sets the match to the position at the end of the game
+	public void replay(int game, ChessMatch chessMatch) {
+		replay(game, getPlyCount(game), chessMatch);
+	}
+
+	// Sets the match to the position after the first plies moves of the game; earlier ones can be taken back
+	public void replay(int game, int plies, ChessMatch chessMatch) {
+		long offset = offsets[game];
+		if (plies < 0 || plies > getPlyCountAt(offset)) {
+			throw new IndexOutOfBoundsException("Ply " + plies + " out of " + getPlyCountAt(offset));
+		}
+		if (hasFen(offset)) {
+			Fen.load(chessMatch, fen(offset));
+		}
+		else {
+			Fen.load(chessMatch, Fen.INITIAL);
+		}
+		long moves = movesOffset(offset);
+		for (int i = 0; i < plies; i++) {
+			chessMatch.playMove(getShort(moves + 2L * i) & 0xFFFF);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private boolean hasFen(long offset) {
+		return (getByte(offset + 1) & FLAG_FEN) != 0;
+	}
+
+	private CharSequence fen(long offset) {
+		ByteBuffer segment = segments[(int) (offset / SEGMENT_SIZE)];
+		int local = (int) (offset % SEGMENT_SIZE) + 5;
+		return new ByteSequence().set(segment, local, local + getByte(offset + 4));
+	}
+
+	private long movesOffset(long offset) {
+		return offset + 4 + (hasFen(offset) ? 1 + getByte(offset + 4) : 0);
+	}
+
+	private int getPlyCountAt(long offset) {
+		return getShort(offset + 2) & 0xFFFF;
+	}
+
+	// Every segment reaches SEGMENT_OVERLAP past its nominal end, so a value starting in it never runs off the mapping
+	private int getByte(long position) {
+		return segments[(int) (position / SEGMENT_SIZE)].get((int) (position % SEGMENT_SIZE)) & 0xFF;
+	}
+
+	private short getShort(long position) {
+		return segments[(int) (position / SEGMENT_SIZE)].getShort((int) (position % SEGMENT_SIZE));
+	}
+
+	private int getInt(long position) {
+		return segments[(int) (position / SEGMENT_SIZE)].getInt((int) (position % SEGMENT_SIZE));
+	}
+
+	private long getLong(long position) {
+		return segments[(int) (position / SEGMENT_SIZE)].getLong((int) (position % SEGMENT_SIZE));
+	}
+
+}
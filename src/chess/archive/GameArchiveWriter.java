@@ -0,0 +1,139 @@
+package chess.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import chess.ChessMatch;
+import chess.Fen;
+
+/*  Writes a game archive (see GameArchive) one game at a time: beginGame, a call to addMove per move, then endGame.
+ 	Moves can be fed straight from a game in progress with addLastMove after each ChessMatch.performChessMove.
+ 	The offset index goes to the end of the file on close; an archive that was never closed is still readable */
+public class GameArchiveWriter implements AutoCloseable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+	private final StringBuilder fen = new StringBuilder(90);
+	private final byte[] fenBytes = new byte[GameArchive.MAX_FEN_LENGTH];
+	private long position;
+
+	private long[] offsets = new long[1024];
+	private int gameCount;
+
+	private boolean inGame;
+	private int fenLength;
+	private short[] moves = new short[256];
+	private int plyCount;
+
+	public GameArchiveWriter(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		buffer.putInt(GameArchive.MAGIC).putShort(GameArchive.VERSION).putShort((short) 0).putLong(0L);
+	}
+
+	public int getGameCount() {
+		return gameCount;
+	}
+
+	// Starts a game from the current position of the match
+	public void beginGame(ChessMatch start) {
+		fen.setLength(0);
+		Fen.write(start, fen);
+		beginGame(Fen.INITIAL.contentEquals(fen) ? null : fen);
+	}
+
+	// Starts a game from a FEN position, or from the standard starting position when startFen is null
+	public void beginGame(CharSequence startFen) {
+		if (inGame) {
+			throw new IllegalStateException("The previous game has not ended");
+		}
+		fenLength = 0;
+		if (startFen != null) {
+			if (startFen.length() > GameArchive.MAX_FEN_LENGTH) {
+				throw new IllegalArgumentException("FEN longer than " + GameArchive.MAX_FEN_LENGTH + " chars");
+			}
+			for (int i = 0; i < startFen.length(); i++) {
+				fenBytes[fenLength++] = (byte) startFen.charAt(i);
+			}
+		}
+		plyCount = 0;
+		inGame = true;
+	}
+
+	// A packed move (see chess.Move); every move fits in 16 bits
+	public void addMove(int move) {
+		if (!inGame) {
+			throw new IllegalStateException("There is no game in progress");
+		}
+		if (plyCount == GameArchive.MAX_PLIES) {
+			throw new IllegalStateException("A game cannot have more than " + GameArchive.MAX_PLIES + " moves");
+		}
+		if (plyCount == moves.length) {
+			moves = Arrays.copyOf(moves, plyCount * 2);
+		}
+		moves[plyCount++] = (short) move;
+	}
+
+	// Records the move just made with performChessMove; call it after any replacePromotedPiece
+	public void addLastMove(ChessMatch chessMatch) {
+		addMove(chessMatch.getLastMove());
+	}
+
+	// Result codes are those of chess.pgn.PgnGame
+	public void endGame(int result) throws IOException {
+		if (!inGame) {
+			throw new IllegalStateException("There is no game in progress");
+		}
+		if (gameCount == offsets.length) {
+			offsets = Arrays.copyOf(offsets, gameCount * 2);
+		}
+		offsets[gameCount++] = position + buffer.position();
+		ensure(4 + 1 + fenLength);
+		buffer.put((byte) result).put((byte) (fenLength > 0 ? GameArchive.FLAG_FEN : 0)).putShort((short) plyCount);
+		if (fenLength > 0) {
+			buffer.put((byte) fenLength).put(fenBytes, 0, fenLength);
+		}
+		for (int i = 0; i < plyCount; i++) {
+			ensure(2);
+			buffer.putShort(moves[i]);
+		}
+		inGame = false;
+	}
+
+	// Writes the index, points the header at it and closes the file. A game still in progress is dropped
+	@Override
+	public void close() throws IOException {
+		try {
+			long indexOffset = position + buffer.position();
+			ensure(4);
+			buffer.putInt(gameCount);
+			for (int i = 0; i < gameCount; i++) {
+				ensure(8);
+				buffer.putLong(offsets[i]);
+			}
+			flush();
+			channel.write(ByteBuffer.allocate(8).putLong(0, indexOffset), GameArchive.INDEX_OFFSET_POSITION);
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,145 @@
+package chess.book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import chess.Bitboards;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+/*  Read-only opening book in the Polyglot .bin format, memory-mapped so that the entries stay in the page cache rather than
+ 	on the heap. An entry is 16 bytes, big-endian: position key (u64), move (u16), weight (u16) and a learn field (u32),
+ 	sorted by key as an unsigned number. Lookups only use absolute reads of the mapping, so one instance can serve any
+ 	number of threads at once */
+public class PolyglotBook implements AutoCloseable {
+
+	static final int ENTRY_SIZE = 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer entries;
+	private final int entryCount;
+	private final PolyglotKeys keys;
+
+	public PolyglotBook(Path file) throws IOException {
+		this(file, PolyglotKeys.DEFAULT);
+	}
+
+	// keys must be the table the book was built with; the default is the published Polyglot table
+	public PolyglotBook(Path file, PolyglotKeys keys) throws IOException {
+		this.keys = keys;
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size % ENTRY_SIZE != 0) {
+				throw new IOException(file + " is not a Polyglot book: its size is not a multiple of " + ENTRY_SIZE);
+			}
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too large for a Polyglot book");
+			}
+			entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			entryCount = (int) (size / ENTRY_SIZE);
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int getEntryCount() {
+		return entryCount;
+	}
+
+	public PolyglotKeys getKeys() {
+		return keys;
+	}
+
+	/*  Fills moves with the legal moves of the match that the book holds and weights with their weights, in move generation
+	 	order, and returns how many there are. weights needs room for MoveList.CAPACITY values */
+	public int probe(ChessMatch chessMatch, MoveList moves, int[] weights) {
+		moves.clear();
+		int first = firstEntry(keys.key(chessMatch));
+		if (first < 0) {
+			return 0;
+		}
+		long key = entries.getLong(first * ENTRY_SIZE);
+		chessMatch.generateLegalMoves(moves);
+		int kept = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int encoded = encode(move);
+			for (int entry = first; entry < entryCount && entries.getLong(entry * ENTRY_SIZE) == key; entry++) {
+				if ((entries.getShort(entry * ENTRY_SIZE + 8) & 0xFFFF) == encoded) {
+					moves.set(kept, move);
+					weights[kept++] = entries.getShort(entry * ENTRY_SIZE + 10) & 0xFFFF;
+					break;
+				}
+			}
+		}
+		moves.truncate(kept);
+		return kept;
+	}
+
+	/*  A book move for the match picked at random with probability proportional to its weight, or Move.NONE when the
+	 	position is not in the book or all its moves have weight 0. moves and weights are scratch space, as for probe */
+	public int pick(ChessMatch chessMatch, MoveList moves, int[] weights, Random random) {
+		int count = probe(chessMatch, moves, weights);
+		long total = 0;
+		for (int i = 0; i < count; i++) {
+			total += weights[i];
+		}
+		if (total == 0) {
+			return Move.NONE;
+		}
+		long ticket = (long) (random.nextDouble() * total);
+		for (int i = 0; i < count; i++) {
+			ticket -= weights[i];
+			if (ticket < 0) {
+				return moves.get(i);
+			}
+		}
+		return moves.get(count - 1);
+	}
+
+	// Index of the first entry for the key, or -1
+	private int firstEntry(long key) {
+		int low = 0;
+		int high = entryCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(entries.getLong(middle * ENTRY_SIZE), key) < 0) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return (low < entryCount && entries.getLong(low * ENTRY_SIZE) == key) ? low : -1;
+	}
+
+	/*  Polyglot move: target file in bits 0-2, target rank in 3-5, source file in 6-8, source rank in 9-11, and the new piece
+	 	in 12-14 (1 knight to 4 queen). Ranks count from rank 1. Castling is written as the king taking its own rook */
+	static int encode(int move) {
+		int source = Move.source(move);
+		int target = Move.target(move);
+		if (Move.flags(move) == Move.SHORT_CASTLING) {
+			target = source + 3;
+		}
+		else if (Move.flags(move) == Move.LONG_CASTLING) {
+			target = source - 4;
+		}
+		int promotion = Move.isPromotion(move) ? (Move.flags(move) & 3) + 1 : 0;
+		return Bitboards.column(target) | (7 - Bitboards.row(target)) << 3 | Bitboards.column(source) << 6
+				| (7 - Bitboards.row(source)) << 9 | promotion << 12;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,98 @@
+package chess.book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import chess.ChessMatch;
+
+/*  Builds a Polyglot book from moves played in known positions, e.g. the openings of a game collection. Weights of the same
+ 	move in the same position add up; on write each position's moves are sorted by weight and scaled to fit 16 bits */
+public class PolyglotBookWriter {
+
+	private final PolyglotKeys keys;
+	// Position key -> Polyglot move -> accumulated weight
+	private final Map<Long, Map<Integer, Long>> positions = new HashMap<>();
+	private int entryCount;
+
+	public PolyglotBookWriter(PolyglotKeys keys) {
+		this.keys = keys;
+	}
+
+	public int getEntryCount() {
+		return entryCount;
+	}
+
+	public int getPositionCount() {
+		return positions.size();
+	}
+
+	// Adds weight to the packed move (see chess.Move) played in the current position of the match
+	public void add(ChessMatch chessMatch, int move, int weight) {
+		Map<Integer, Long> moves = positions.computeIfAbsent(keys.key(chessMatch), key -> new HashMap<>());
+		int encoded = PolyglotBook.encode(move);
+		Long previous = moves.get(encoded);
+		if (previous == null) {
+			entryCount++;
+		}
+		moves.put(encoded, (previous == null) ? weight : previous + weight);
+	}
+
+	// Moves whose weight is still 0 are left out
+	public void write(Path file) throws IOException {
+		long[] sortedKeys = new long[positions.size()];
+		int count = 0;
+		for (long key : positions.keySet()) {
+			sortedKeys[count++] = key;
+		}
+		// Polyglot orders keys as unsigned numbers; flipping the sign bit makes the signed sort agree
+		for (int i = 0; i < count; i++) {
+			sortedKeys[i] ^= Long.MIN_VALUE;
+		}
+		Arrays.sort(sortedKeys);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			for (int i = 0; i < count; i++) {
+				long key = sortedKeys[i] ^ Long.MIN_VALUE;
+				Map<Integer, Long> moves = positions.get(key);
+				long maxWeight = 0;
+				for (long weight : moves.values()) {
+					maxWeight = Math.max(maxWeight, weight);
+				}
+				long[] entries = new long[moves.size()];
+				int kept = 0;
+				for (Map.Entry<Integer, Long> move : moves.entrySet()) {
+					long weight = (maxWeight > 0xFFFF) ? move.getValue() * 0xFFFF / maxWeight : move.getValue();
+					if (weight > 0) {
+						// Weight above the move, so that an ascending sort read backwards gives the heaviest move first
+						entries[kept++] = weight << 16 | move.getKey();
+					}
+				}
+				Arrays.sort(entries, 0, kept);
+				for (int j = kept - 1; j >= 0; j--) {
+					if (buffer.remaining() < PolyglotBook.ENTRY_SIZE) {
+						flush(channel, buffer);
+					}
+					buffer.putLong(key).putShort((short) entries[j]).putShort((short) (entries[j] >>> 16)).putInt(0);
+				}
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,27 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.PieceSquareTables;
+import chess.enums.Color;
+
+/*  Static evaluation in centipawns from the point of view of the player to move: material and piece-square values, tapered
+ 	from the middlegame to the endgame scores by the game phase. The board keeps both scores up to date on every move, so an
+ 	evaluation is a couple of multiplications */
+public final class Evaluation {
+
+	// Indexed by PieceType ordinal; the king is never captured, so it carries no material value
+	public static final int[] PIECE_VALUES = PieceSquareTables.MIDDLEGAME_VALUES;
+
+	private Evaluation() {
+	}
+
+	public static int evaluate(ChessMatch chessMatch) {
+		ChessBoard board = chessMatch.getChessBoard();
+		int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+		int score = (board.getMiddlegameScore() * phase + board.getEndgameScore() * (PieceSquareTables.MAX_PHASE - phase))
+				/ PieceSquareTables.MAX_PHASE;
+		return chessMatch.getSideToMove() == Color.WHITE ? score : -score;
+	}
+
+}
@@ -0,0 +1,139 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Scores the moves of a node so that Search tries the likely best first: the transposition table move, then captures and
+ 	promotions that do not lose material by static exchange, by MVV-LVA (most valuable victim, least valuable attacker),
+ 	then the two killer moves of the ply (quiet moves that caused a cutoff at the same ply elsewhere in the tree), then the
+ 	remaining quiet moves by their history (how often and how deep they caused cutoffs anywhere), and the losing captures
+ 	last. The scores are written into the MoveList and picked with pickBest, so no node sorts or allocates.
+ 	Each heuristic can be switched off to measure what it is worth */
+public class MoveOrdering {
+
+	public static final int HASH_MOVE = 1;
+	public static final int CAPTURES = 2;
+	public static final int KILLERS = 4;
+	public static final int HISTORY = 8;
+	public static final int ALL = HASH_MOVE | CAPTURES | KILLERS | HISTORY;
+
+	// Bands of the score range; history scores stay below KILLER_SCORE, and are halved when one reaches HISTORY_LIMIT
+	private static final int HASH_SCORE = 1 << 30;
+	private static final int CAPTURE_SCORE = 1 << 28;
+	private static final int KILLER_SCORE = 1 << 26;
+	private static final int HISTORY_LIMIT = 1 << 24;
+	// Below every quiet move; MVV-LVA keeps the order within the band
+	private static final int LOSING_CAPTURE_SCORE = -(1 << 20);
+
+	private final StaticExchange exchange;
+
+	private final int[][] killers = new int[Search.MAX_PLY][2];
+	// Indexed by color * 4096 + source * 64 + target
+	private final int[] history = new int[2 * 64 * 64];
+	private int flags = ALL;
+
+	public MoveOrdering(StaticExchange exchange) {
+		this.exchange = exchange;
+	}
+
+	public int getFlags() {
+		return flags;
+	}
+
+	public void setFlags(int flags) {
+		this.flags = flags;
+	}
+
+	/*  Killers belong to the tree they were found in and are cleared; history is halved, so that what was learned in
+	 	the previous search still counts but fades */
+	public void newSearch() {
+		for (int[] ply : killers) {
+			ply[0] = Move.NONE;
+			ply[1] = Move.NONE;
+		}
+		age();
+	}
+
+	// Scores every move of the list for the node at ply of the match
+	public void score(ChessMatch chessMatch, MoveList moves, int hashMove, int ply) {
+		ChessBoard board = chessMatch.getChessBoard();
+		int colorOffset = chessMatch.getCurrentPlayer().ordinal() * 4096;
+		int[] plyKillers = killers[ply];
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int score;
+			if (move == hashMove && (flags & HASH_MOVE) != 0) {
+				score = HASH_SCORE;
+			}
+			else if ((flags & CAPTURES) != 0 && (Move.isCapture(move) || Move.isPromotion(move))) {
+				score = captureScore(board, move);
+			}
+			else if ((flags & KILLERS) != 0 && move == plyKillers[0]) {
+				score = KILLER_SCORE + 1;
+			}
+			else if ((flags & KILLERS) != 0 && move == plyKillers[1]) {
+				score = KILLER_SCORE;
+			}
+			else if ((flags & HISTORY) != 0) {
+				score = history[colorOffset + (move & 4095)];
+			}
+			else {
+				score = 0;
+			}
+			moves.setScore(i, score);
+		}
+	}
+
+	// Scores a list of captures and promotions for the quiescence search; the ones that lose material score below 0
+	public void scoreCaptures(ChessMatch chessMatch, MoveList moves) {
+		ChessBoard board = chessMatch.getChessBoard();
+		for (int i = 0; i < moves.size(); i++) {
+			moves.setScore(i, captureScore(board, moves.get(i)));
+		}
+	}
+
+	// Records a quiet move that refuted the node at ply, searched to depth
+	public void recordCutoff(Color color, int move, int ply, int depth) {
+		int[] plyKillers = killers[ply];
+		if (plyKillers[0] != move) {
+			plyKillers[1] = plyKillers[0];
+			plyKillers[0] = move;
+		}
+		int index = color.ordinal() * 4096 + (move & 4095);
+		history[index] += depth * depth;
+		if (history[index] >= HISTORY_LIMIT) {
+			age();
+		}
+	}
+
+	private int captureScore(ChessBoard board, int move) {
+		return (exchange.evaluate(board, move) >= 0 ? CAPTURE_SCORE : LOSING_CAPTURE_SCORE) + mvvLva(board, move);
+	}
+
+	/*  Victim value first, then the cheapest attacker; a promotion counts the new piece as won material, so that queen
+	 	promotions come before underpromotions and captures that also promote come first of all */
+	private static int mvvLva(ChessBoard board, int move) {
+		int victim = 0;
+		if (Move.flags(move) == Move.EN_PASSANT) {
+			victim = Evaluation.PIECE_VALUES[PieceType.PAWN.ordinal()];
+		}
+		else if (Move.isCapture(move)) {
+			victim = Evaluation.PIECE_VALUES[board.getPieceType(Move.target(move)).ordinal()];
+		}
+		if (Move.isPromotion(move)) {
+			victim += Evaluation.PIECE_VALUES[Move.promotionType(move).ordinal()];
+		}
+		return victim * 8 - board.getPieceType(Move.source(move)).ordinal();
+	}
+
+	private void age() {
+		for (int i = 0; i < history.length; i++) {
+			history[i] >>= 1;
+		}
+	}
+
+}
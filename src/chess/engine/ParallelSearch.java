@@ -0,0 +1,114 @@
+package chess.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import chess.ChessMatch;
+
+/*  Lazy SMP: every thread runs its own Search on its own copy of the position, and they cooperate only through the shared
+ 	transposition table. Helpers on odd thread numbers start one ply deeper, so the threads spread over different depths.
+ 	The calling thread runs the main search, whose limits and result are the ones that count; helpers stop when it returns */
+public class ParallelSearch {
+
+	private final TranspositionTable table;
+	private final Search[] searches;
+	private final ExecutorService helpers;
+	private final long[] threadNodes;
+	private long elapsedMillis;
+
+	public ParallelSearch(TranspositionTable table, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Parallel search needs at least 1 thread");
+		}
+		this.table = table;
+		searches = new Search[threads];
+		for (int i = 0; i < threads; i++) {
+			searches[i] = new Search(table);
+			searches[i].setFirstDepth(1 + (i % 2));
+			searches[i].setStartsNewSearch(false);
+		}
+		threadNodes = new long[threads];
+		helpers = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+			Thread thread = new Thread(runnable, "search-helper");
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+	}
+
+	public int getThreads() {
+		return searches.length;
+	}
+
+	// Receives the completed iterations of the main search
+	public void setListener(Consumer<SearchResult> listener) {
+		searches[0].setListener(listener);
+	}
+
+	public void stop() {
+		for (Search search : searches) {
+			search.stop();
+		}
+	}
+
+	public void clearStop() {
+		for (Search search : searches) {
+			search.clearStop();
+		}
+	}
+
+	// Same contract as Search.search; the node limit applies to the main thread. The returned node count covers all threads
+	public SearchResult search(ChessMatch chessMatch, int maxDepth, long nodeLimit, long timeLimitMillis) {
+		long start = System.currentTimeMillis();
+		// Once for all threads, before any of them stores an entry
+		table.newSearch();
+		Future<?>[] futures = new Future<?>[searches.length];
+		for (int i = 1; i < searches.length; i++) {
+			Search helper = searches[i];
+			ChessMatch copy = chessMatch.copy();
+			helper.clearStop();
+			futures[i] = helpers.submit(() -> helper.search(copy, maxDepth, 0, timeLimitMillis));
+		}
+		SearchResult main = searches[0].search(chessMatch, maxDepth, nodeLimit, timeLimitMillis);
+		for (int i = 1; i < searches.length; i++) {
+			searches[i].stop();
+		}
+		long totalNodes = 0;
+		for (int i = 0; i < searches.length; i++) {
+			if (futures[i] != null) {
+				try {
+					futures[i].get();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				catch (ExecutionException e) {
+					throw new IllegalStateException("Search helper failed", e.getCause());
+				}
+			}
+			threadNodes[i] = searches[i].getNodes();
+			totalNodes += threadNodes[i];
+		}
+		elapsedMillis = System.currentTimeMillis() - start;
+		return new SearchResult(main.getBestMove(), main.getScore(), main.getDepth(), totalNodes, elapsedMillis, main.getPrincipalVariation());
+	}
+
+	// Nodes per second of each thread in the last search, main thread first
+	public long[] getNodesPerSecondByThread() {
+		long[] nps = new long[threadNodes.length];
+		for (int i = 0; i < nps.length; i++) {
+			nps[i] = threadNodes[i] * 1000 / Math.max(1, elapsedMillis);
+		}
+		return nps;
+	}
+
+	// Releases the helper threads; the object cannot search afterwards
+	public void shutdown() {
+		if (helpers != null) {
+			helpers.shutdownNow();
+		}
+	}
+
+}
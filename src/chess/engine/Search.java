@@ -0,0 +1,310 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+
+/*  Iterative-deepening alpha-beta (negamax) search over a ChessMatch. Each iteration searches one ply deeper, starting with
+ 	the best move of the previous one taken from the transposition table. At the horizon a quiescence search plays out the
+ 	captures that do not lose material, so that no line is scored in the middle of an exchange. The node and time budgets are hard: once one is
+ 	spent the running iteration is abandoned and the result of the last completed iteration is returned.
+ 	The match is searched in place with playMove/takeBack and is left as it was found */
+public class Search {
+
+	public static final int INFINITY = 32000;
+	public static final int MATE = 31000;
+	public static final int MAX_PLY = 128;
+
+	// The budgets are checked every 1024 nodes
+	private static final int CHECK_INTERVAL = 1023;
+
+	private final TranspositionTable table;
+	private final MoveOrdering ordering = new MoveOrdering(new StaticExchange());
+	private final MoveList[] moveLists = new MoveList[MAX_PLY];
+	private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+	private final int[] pvLength = new int[MAX_PLY];
+	private final long[] pathHashes = new long[MAX_PLY];
+
+	private ChessMatch chessMatch;
+	private long nodes;
+	private long nodeLimit;
+	private long deadline;
+	private volatile boolean stopRequested;
+	private boolean stopped;
+	private Consumer<SearchResult> listener;
+	private int firstDepth = 1;
+	private boolean startsNewSearch = true;
+	private boolean quiescence = true;
+
+	public Search(TranspositionTable table) {
+		this.table = table;
+		for (int i = 0; i < MAX_PLY; i++) {
+			moveLists[i] = new MoveList();
+		}
+	}
+
+	// Receives the result of every completed iteration, e.g. to print UCI info lines
+	public void setListener(Consumer<SearchResult> listener) {
+		this.listener = listener;
+	}
+
+	/*  Asks a running search to return as soon as possible; safe to call from another thread. The request stays in force,
+	 	also for searches started later, until clearStop is called */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	// Call before handing a new search to a worker thread, so that a stop sent right after it is not lost
+	public void clearStop() {
+		stopRequested = false;
+	}
+
+	// Depth of the first iteration. Helper threads of ParallelSearch start deeper so that they do not all repeat the same work
+	void setFirstDepth(int firstDepth) {
+		this.firstDepth = Math.max(1, firstDepth);
+	}
+
+	/*  Whether search() starts a new search of the transposition table, which ages its entries. ParallelSearch starts it once
+	 	for all its threads instead, so that one search moves the table on by one generation however many threads run it */
+	void setStartsNewSearch(boolean startsNewSearch) {
+		this.startsNewSearch = startsNewSearch;
+	}
+
+	// Which MoveOrdering heuristics are used, ALL by default; fewer only to measure what each one saves
+	public void setMoveOrdering(int flags) {
+		ordering.setFlags(flags);
+	}
+
+	// Without the quiescence search the horizon is scored by the static evaluation alone; only to measure what it is worth
+	public void setQuiescence(boolean quiescence) {
+		this.quiescence = quiescence;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public static boolean isMateScore(int score) {
+		return Math.abs(score) >= MATE - MAX_PLY;
+	}
+
+	// Moves (not plies) until mate, negative when the side to move is being mated
+	public static int movesToMate(int score) {
+		return score > 0 ? (MATE - score + 1) / 2 : -(MATE + score) / 2;
+	}
+
+	/*  Searches the position of the match for its player to move. Limits of 0 mean unlimited; with every limit at 0 the
+	 	search runs until stop() is called or MAX_PLY is reached. When no iteration completes in time, the first legal move is returned */
+	public SearchResult search(ChessMatch chessMatch, int maxDepth, long nodeLimit, long timeLimitMillis) {
+		long start = System.currentTimeMillis();
+		this.chessMatch = chessMatch;
+		this.nodeLimit = nodeLimit;
+		this.deadline = timeLimitMillis > 0 ? start + timeLimitMillis : 0;
+		nodes = 0;
+		stopped = false;
+		if (startsNewSearch) {
+			table.newSearch();
+		}
+		ordering.newSearch();
+
+		MoveList rootMoves = moveLists[0];
+		chessMatch.generateLegalMoves(rootMoves);
+		// Mated or stalemated, also when performChessMove has already ended the game and handed the turn to the winner
+		if (rootMoves.size() == 0) {
+			int score = chessMatch.testCheck(chessMatch.getSideToMove()) ? -MATE : 0;
+			return new SearchResult(Move.NONE, score, 0, 0, 0, new int[0]);
+		}
+		SearchResult result = new SearchResult(rootMoves.get(0), 0, 0, 0, 0, new int[] { rootMoves.get(0) });
+
+		int depthLimit = (maxDepth > 0) ? Math.min(maxDepth, MAX_PLY - 1) : MAX_PLY - 1;
+		for (int depth = Math.min(firstDepth, depthLimit); depth <= depthLimit; depth++) {
+			int score = alphaBeta(depth, 0, -INFINITY, INFINITY);
+			if (stopped) {
+				break;
+			}
+			result = new SearchResult(pvTable[0][0], score, depth, nodes, System.currentTimeMillis() - start,
+					Arrays.copyOf(pvTable[0], pvLength[0]));
+			if (listener != null) {
+				listener.accept(result);
+			}
+			// A forced mate found within the searched depth cannot get shorter by looking deeper
+			if (isMateScore(score) && MATE - Math.abs(score) <= depth) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	private int alphaBeta(int depth, int ply, int alpha, int beta) {
+		pvLength[ply] = ply;
+		if ((++nodes & CHECK_INTERVAL) == 0) {
+			checkLimits();
+		}
+		if (stopped) {
+			return 0;
+		}
+		long hash = chessMatch.getHash();
+		pathHashes[ply] = hash;
+		if (ply > 0) {
+			// A position repeated on the current line is scored as a draw
+			for (int i = ply - 2; i >= 0; i -= 2) {
+				if (pathHashes[i] == hash) {
+					return 0;
+				}
+			}
+			if (ply >= MAX_PLY - 1) {
+				return Evaluation.evaluate(chessMatch);
+			}
+		}
+
+		boolean inCheck = chessMatch.testCheck(chessMatch.getSideToMove());
+		// Check extension: a line that is in check is searched one ply further, so mates are not pushed over the horizon
+		if (inCheck) {
+			depth++;
+		}
+		if (depth <= 0) {
+			return quiescence ? quiescence(ply, alpha, beta) : Evaluation.evaluate(chessMatch);
+		}
+
+		int hashMove = Move.NONE;
+		long entry = table.probe(hash);
+		if (entry != 0) {
+			hashMove = TranspositionTable.move(entry);
+			if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+				int score = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		MoveList moves = moveLists[ply];
+		chessMatch.generateLegalMoves(moves);
+		if (moves.size() == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		ordering.score(chessMatch, moves, hashMove, ply);
+
+		int originalAlpha = alpha;
+		int bestScore = -INFINITY;
+		int bestMove = Move.NONE;
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.pickBest(i);
+			chessMatch.playMove(move);
+			int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+			chessMatch.takeBack();
+			if (stopped) {
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					updatePrincipalVariation(ply, move);
+					if (alpha >= beta) {
+						if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+							ordering.recordCutoff(chessMatch.getSideToMove(), move, ply, depth);
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+				: bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+		table.store(hash, bestMove, toTable(bestScore, ply), depth, bound);
+		return bestScore;
+	}
+
+	/*  Searches captures and promotions only, until the position is quiet. The side to move may stand pat on the static
+	 	evaluation instead of capturing, and captures that lose material by static exchange are not tried at all.
+	 	In check there is no standing pat: every evasion is searched, so mates at the horizon are seen */
+	private int quiescence(int ply, int alpha, int beta) {
+		pvLength[ply] = ply;
+		if ((++nodes & CHECK_INTERVAL) == 0) {
+			checkLimits();
+		}
+		if (stopped) {
+			return 0;
+		}
+		if (ply >= MAX_PLY - 1) {
+			return Evaluation.evaluate(chessMatch);
+		}
+
+		boolean inCheck = chessMatch.testCheck(chessMatch.getSideToMove());
+		MoveList moves = moveLists[ply];
+		int bestScore;
+		if (inCheck) {
+			chessMatch.generateLegalMoves(moves);
+			if (moves.size() == 0) {
+				return -MATE + ply;
+			}
+			ordering.score(chessMatch, moves, Move.NONE, ply);
+			bestScore = -INFINITY;
+		}
+		else {
+			bestScore = Evaluation.evaluate(chessMatch);
+			if (bestScore >= beta) {
+				return bestScore;
+			}
+			alpha = Math.max(alpha, bestScore);
+			chessMatch.generateCaptures(moves);
+			ordering.scoreCaptures(chessMatch, moves);
+		}
+
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.pickBest(i);
+			// Picked best first, so the losing captures come last and all of them can be skipped
+			if (!inCheck && moves.getScore(i) < 0) {
+				break;
+			}
+			chessMatch.playMove(move);
+			int score = -quiescence(ply + 1, -beta, -alpha);
+			chessMatch.takeBack();
+			if (stopped) {
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				if (score > alpha) {
+					alpha = score;
+					updatePrincipalVariation(ply, move);
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return bestScore;
+	}
+
+	private void checkLimits() {
+		if (stopRequested || (nodeLimit > 0 && nodes >= nodeLimit) || (deadline > 0 && System.currentTimeMillis() >= deadline)) {
+			stopped = true;
+		}
+	}
+
+	private void updatePrincipalVariation(int ply, int move) {
+		pvTable[ply][ply] = move;
+		System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+		pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+	}
+
+	// Mate scores are stored relative to the node rather than the root, so that they stay valid at any ply
+	private static int toTable(int score, int ply) {
+		return isMateScore(score) ? (score > 0 ? score + ply : score - ply) : score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		return isMateScore(score) ? (score > 0 ? score - ply : score + ply) : score;
+	}
+
+}
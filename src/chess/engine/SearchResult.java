@@ -0,0 +1,81 @@
+package chess.engine;
+
+import chess.Move;
+
+//Outcome of one completed iteration of the search
+public class SearchResult {
+
+	private int bestMove;
+	private int score;
+	private int depth;
+	private long nodes;
+	private long elapsedMillis;
+	private int[] principalVariation;
+
+	public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMillis, int[] principalVariation) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.elapsedMillis = elapsedMillis;
+		this.principalVariation = principalVariation;
+	}
+
+	// Packed move (see chess.Move), or Move.NONE when the side to move has no legal move
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	// Centipawns from the point of view of the side to move; see Search.isMateScore
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public long getNodesPerSecond() {
+		return nodes * 1000 / Math.max(1, elapsedMillis);
+	}
+
+	public int[] getPrincipalVariation() {
+		return principalVariation;
+	}
+
+	@Override
+	public String toString() {
+		return toString(-1);
+	}
+
+	/*  The fields of a UCI info line, with hashfull (permille of the transposition table in use) left out when negative.
+	 	The principal variation comes last, because a GUI reads every token after pv as a move */
+	public String toString(int hashfull) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("depth ").append(depth).append(" score ");
+		if (Search.isMateScore(score)) {
+			sb.append("mate ").append(Search.movesToMate(score));
+		}
+		else {
+			sb.append("cp ").append(score);
+		}
+		sb.append(" nodes ").append(nodes).append(" nps ").append(getNodesPerSecond()).append(" time ").append(elapsedMillis);
+		if (hashfull >= 0) {
+			sb.append(" hashfull ").append(hashfull);
+		}
+		sb.append(" pv");
+		for (int move : principalVariation) {
+			sb.append(' ').append(Move.toString(move));
+		}
+		return sb.toString();
+	}
+
+}
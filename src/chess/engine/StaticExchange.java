@@ -0,0 +1,92 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.MagicBitboards;
+import chess.Move;
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Static exchange evaluation: the material a capture wins or loses once both sides have recaptured on its target square
+ 	for as long as it pays, each with its least valuable attacker. The exchange is worked out on the attacker sets alone;
+ 	nothing is played on the board. Sliders lined up behind a piece that captures join in as it leaves (x-rays).
+ 	Pins and checks elsewhere are ignored, apart from the king, which only captures onto an undefended square.
+ 	A pawn recapturing onto the last row is counted as a pawn */
+public final class StaticExchange {
+
+	// Indexed by PieceType ordinal; the king is priceless, so it is the last piece either side sends in
+	private static final int[] VALUES = new int[PieceType.values().length];
+	private static final PieceType[] TYPES = PieceType.values();
+
+	static {
+		for (PieceType type : TYPES) {
+			VALUES[type.ordinal()] = (type == PieceType.KING) ? 2 * Search.MATE : Evaluation.PIECE_VALUES[type.ordinal()];
+		}
+	}
+
+	// One entry per capture of the sequence; 32 pieces can make at most 32 captures on one square
+	private final int[] gains = new int[32];
+
+	/*  Material the move wins for the side playing it, in centipawns: at most the value of what it captures, negative when
+	 	the piece is lost for less. 0 for quiet moves onto safe squares. The board is the one before the move */
+	public int evaluate(ChessBoard board, int move) {
+		int source = Move.source(move);
+		int target = Move.target(move);
+		PieceType mover = board.getPieceType(source);
+		// The side to capture next, i.e. the opponent of the mover
+		Color side = (board.getColorMask(Color.WHITE) & Bitboards.bit(source)) != 0 ? Color.BLACK : Color.WHITE;
+		long occupied = board.getOccupancy() ^ Bitboards.bit(source);
+
+		int gain = 0;
+		if (Move.flags(move) == Move.EN_PASSANT) {
+			gain = VALUES[PieceType.PAWN.ordinal()];
+			occupied ^= Bitboards.bit((side == Color.BLACK) ? target + 8 : target - 8);
+		}
+		else if (Move.isCapture(move)) {
+			gain = VALUES[board.getPieceType(target).ordinal()];
+		}
+		int onSquare = VALUES[mover.ordinal()];
+		if (Move.isPromotion(move)) {
+			onSquare = VALUES[Move.promotionType(move).ordinal()];
+			gain += onSquare - VALUES[PieceType.PAWN.ordinal()];
+		}
+		gains[0] = gain;
+
+		long queens = board.getTypeMask(PieceType.QUEEN);
+		long rooks = board.getTypeMask(PieceType.ROOK) | queens;
+		long bishops = board.getTypeMask(PieceType.BISHOP) | queens;
+		long attackers = board.attackersTo(target, occupied) & occupied;
+		int depth = 0;
+		while (true) {
+			long own = attackers & board.getColorMask(side);
+			if (own == 0) {
+				break;
+			}
+			int type = 0;
+			while ((own & board.getTypeMask(TYPES[type])) == 0) {
+				type++;
+			}
+			// The king may not capture while the other side still defends the square
+			if (TYPES[type] == PieceType.KING && (attackers & ~own) != 0) {
+				break;
+			}
+			depth++;
+			// What this side stands on if it takes the piece now on the square and the exchange stops there
+			gains[depth] = onSquare - gains[depth - 1];
+			long from = own & board.getTypeMask(TYPES[type]);
+			occupied ^= from & -from;
+			attackers |= (MagicBitboards.rookAttacks(target, occupied) & rooks)
+					| (MagicBitboards.bishopAttacks(target, occupied) & bishops);
+			attackers &= occupied;
+			onSquare = VALUES[type];
+			side = (side == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		}
+		// Each side recaptures only when that beats stopping, from the last capture back to the first
+		while (depth > 0) {
+			gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+			depth--;
+		}
+		return gains[0];
+	}
+
+}
@@ -0,0 +1,177 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/*  Fixed-size hash table of search results shared by any number of threads without locks.
+ 	Each entry is two longs: the position key XOR the data, and the data. A reader accepts an entry only when both halves
+ 	XOR back to its key, so an entry torn by two threads writing at once reads as a miss instead of a wrong result.
+ 	Entries are grouped four to a bucket (64 bytes) and the table can live off the heap, out of reach of the garbage collector */
+public class TranspositionTable {
+
+	public static final int EXACT = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int UPPER_BOUND = 3;
+
+	private static final int BUCKET_ENTRIES = 4;
+	private static final int LONGS_PER_ENTRY = 2;
+	private static final int SEGMENT_LONGS = 1 << 27; // 1 GB of longs per direct buffer
+
+	private final long buckets;
+	private final long[] heap;
+	private final LongBuffer[] offHeap;
+	private volatile int generation;
+
+	// sizeMegabytes is rounded down to a power-of-two number of buckets
+	public TranspositionTable(long sizeMegabytes, boolean offHeap) {
+		if (sizeMegabytes < 1) {
+			throw new IllegalArgumentException("Transposition table size must be at least 1 MB");
+		}
+		long requested = sizeMegabytes * 1024 * 1024 / (BUCKET_ENTRIES * LONGS_PER_ENTRY * 8);
+		buckets = Long.highestOneBit(requested);
+		long longs = buckets * BUCKET_ENTRIES * LONGS_PER_ENTRY;
+		if (offHeap) {
+			int segments = (int) ((longs + SEGMENT_LONGS - 1) / SEGMENT_LONGS);
+			this.offHeap = new LongBuffer[segments];
+			for (int i = 0; i < segments; i++) {
+				long size = Math.min(SEGMENT_LONGS, longs - (long) i * SEGMENT_LONGS);
+				this.offHeap[i] = ByteBuffer.allocateDirect((int) size * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+			}
+			this.heap = null;
+		}
+		else {
+			if (longs > Integer.MAX_VALUE - 8) {
+				throw new IllegalArgumentException("Transposition tables above 8 GB must be allocated off the heap");
+			}
+			this.heap = new long[(int) longs];
+			this.offHeap = null;
+		}
+	}
+
+	public long getSizeInBytes() {
+		return buckets * BUCKET_ENTRIES * LONGS_PER_ENTRY * 8;
+	}
+
+	// Marks the start of a new search. Entries from older searches are replaced first
+	public void newSearch() {
+		generation = (generation + 1) & 0xFF;
+	}
+
+	// Counts the searches started since the table was cleared, modulo 256
+	int getGeneration() {
+		return generation;
+	}
+
+	public void clear() {
+		long longs = buckets * BUCKET_ENTRIES * LONGS_PER_ENTRY;
+		for (long i = 0; i < longs; i++) {
+			set(i, 0L);
+		}
+		generation = 0;
+	}
+
+	// Returns the packed data stored for the key, or 0 when there is none. Unpack with move, score, depth and bound
+	public long probe(long key) {
+		long base = bucketIndex(key);
+		for (int i = 0; i < BUCKET_ENTRIES; i++) {
+			long index = base + i * LONGS_PER_ENTRY;
+			long data = get(index + 1);
+			if ((get(index) ^ data) == key && data != 0) {
+				return data;
+			}
+		}
+		return 0L;
+	}
+
+	/*  Replacement: an entry for the same position is overwritten unless it is deeper and the new result is not exact;
+	 	otherwise the entry worth least is replaced, counting shallow depth and results from older searches as less valuable */
+	public void store(long key, int move, int score, int depth, int bound) {
+		long base = bucketIndex(key);
+		int current = generation;
+		long target = base;
+		int worst = Integer.MAX_VALUE;
+		for (int i = 0; i < BUCKET_ENTRIES; i++) {
+			long index = base + i * LONGS_PER_ENTRY;
+			long data = get(index + 1);
+			if ((get(index) ^ data) == key || data == 0) {
+				if (data != 0 && bound != EXACT && depth(data) > depth + 2 && generation(data) == current) {
+					return;
+				}
+				if (move == 0 && data != 0) {
+					move = move(data);
+				}
+				target = index;
+				break;
+			}
+			int value = depth(data) - 8 * ((current - generation(data)) & 0xFF);
+			if (value < worst) {
+				worst = value;
+				target = index;
+			}
+		}
+		long data = pack(move, score, depth, bound, current);
+		set(target, key ^ data);
+		set(target + 1, data);
+	}
+
+	// Permille of sampled entries written during the current search, as reported by the UCI hashfull field
+	public int hashfull() {
+		long samples = Math.min(1000, buckets * BUCKET_ENTRIES);
+		int used = 0;
+		for (long i = 0; i < samples; i++) {
+			long data = get(i * LONGS_PER_ENTRY + 1);
+			if (data != 0 && generation(data) == generation) {
+				used++;
+			}
+		}
+		return (int) (used * 1000 / samples);
+	}
+
+	// Data layout: move in bits 0-15, score in 16-31 (signed), depth in 32-39, bound in 40-41 and generation in 42-49
+	private static long pack(int move, int score, int depth, int bound, int generation) {
+		return (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) (Math.max(0, Math.min(depth, 255))) << 32)
+				| ((long) bound << 40) | ((long) generation << 42);
+	}
+
+	public static int move(long data) {
+		return (int) (data & 0xFFFF);
+	}
+
+	public static int score(long data) {
+		return (short) (data >>> 16);
+	}
+
+	public static int depth(long data) {
+		return (int) ((data >>> 32) & 0xFF);
+	}
+
+	public static int bound(long data) {
+		return (int) ((data >>> 40) & 3);
+	}
+
+	private static int generation(long data) {
+		return (int) ((data >>> 42) & 0xFF);
+	}
+
+	private long bucketIndex(long key) {
+		return (key & (buckets - 1)) * BUCKET_ENTRIES * LONGS_PER_ENTRY;
+	}
+
+	private long get(long index) {
+		if (heap != null) {
+			return heap[(int) index];
+		}
+		return offHeap[(int) (index / SEGMENT_LONGS)].get((int) (index % SEGMENT_LONGS));
+	}
+
+	private void set(long index, long value) {
+		if (heap != null) {
+			heap[(int) index] = value;
+		}
+		else {
+			offHeap[(int) (index / SEGMENT_LONGS)].put((int) (index % SEGMENT_LONGS), value);
+		}
+	}
+
+}
@@ -0,0 +1,12 @@
+package chess.enums;
+
+public enum PieceType {
+
+	PAWN,
+	KNIGHT,
+	BISHOP,
+	ROOK,
+	QUEEN,
+	KING;
+	
+}
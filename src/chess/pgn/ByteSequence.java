@@ -0,0 +1,46 @@
+package chess.pgn;
+
+import java.nio.ByteBuffer;
+
+//Reusable CharSequence view of a range of an ASCII byte buffer, so that text can be handed to San and Fen without a String
+public class ByteSequence implements CharSequence {
+
+	private ByteBuffer buffer;
+	private int start;
+	private int length;
+
+	public ByteSequence set(ByteBuffer buffer, int start, int end) {
+		this.buffer = buffer;
+		this.start = start;
+		this.length = end - start;
+		return this;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return (char) (buffer.get(start + index) & 0xFF);
+	}
+
+	@Override
+	public CharSequence subSequence(int from, int to) {
+		return toString().subSequence(from, to);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(charAt(i));
+		}
+		return sb.toString();
+	}
+
+}
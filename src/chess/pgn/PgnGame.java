@@ -0,0 +1,97 @@
+package chess.pgn;
+
+import java.util.Arrays;
+
+import chess.ChessMatch;
+
+/*  One game as replayed by PgnReader. The reader reuses the same instance, and the same match, for every game of a worker
+ 	thread, so the contents are only valid inside the consumer call; copy what has to outlive it */
+public class PgnGame {
+
+	public static final int UNKNOWN = 0;
+	public static final int WHITE_WINS = 1;
+	public static final int BLACK_WINS = 2;
+	public static final int DRAW = 3;
+
+	private final ChessMatch chessMatch;
+	private long offset;
+	private int[] moves = new int[256];
+	private int plyCount;
+	private int result;
+	private String error;
+	private CharSequence startFen;
+
+	PgnGame(ChessMatch chessMatch) {
+		this.chessMatch = chessMatch;
+	}
+
+	// Byte offset in the file where the game starts
+	public long getOffset() {
+		return offset;
+	}
+
+	// Moves replayed; when the game is rejected, those before the offending move
+	public int getPlyCount() {
+		return plyCount;
+	}
+
+	// Packed move (see chess.Move) played at the given ply, counted from 0
+	public int getMove(int ply) {
+		if (ply < 0 || ply >= plyCount) {
+			throw new IndexOutOfBoundsException("Ply " + ply + " out of " + plyCount);
+		}
+		return moves[ply];
+	}
+
+	// UNKNOWN, WHITE_WINS, BLACK_WINS or DRAW, from the game termination marker
+	public int getResult() {
+		return result;
+	}
+
+	public boolean isLegal() {
+		return error == null;
+	}
+
+	// Why the game was rejected, or null when every move was legal
+	public String getError() {
+		return error;
+	}
+
+	// FEN of the [FEN] tag the game starts from, or null for the standard starting position
+	public CharSequence getStartFen() {
+		return startFen;
+	}
+
+	// Position after the last move replayed
+	public ChessMatch getChessMatch() {
+		return chessMatch;
+	}
+
+	void reset(long offset) {
+		this.offset = offset;
+		plyCount = 0;
+		result = UNKNOWN;
+		error = null;
+		startFen = null;
+	}
+
+	void setStartFen(CharSequence startFen) {
+		this.startFen = startFen;
+	}
+
+	void addMove(int move) {
+		if (plyCount == moves.length) {
+			moves = Arrays.copyOf(moves, plyCount * 2);
+		}
+		moves[plyCount++] = move;
+	}
+
+	void setResult(int result) {
+		this.result = result;
+	}
+
+	void reject(String error) {
+		this.error = error;
+	}
+
+}
@@ -0,0 +1,452 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Fen;
+import chess.MoveList;
+import chess.San;
+
+/*  Replays every game of a PGN file through the ChessMatch rules. The file is split into chunks at game boundaries and each
+ 	chunk is memory-mapped and tokenized straight from the mapped bytes: SAN tokens reach San.resolve through a reusable
+ 	byte view, so no String is made per token. Comments, variations, NAGs and escape lines are skipped; a [FEN] tag sets
+ 	the starting position. With several threads the chunks are shared out between them, each replaying into its own match.
+ 	A chunk boundary is taken to be a line starting like a tag pair, [Name ", that follows a line which is not one; a brace
+ 	comment with a continuation line of that shape can therefore split a game, which is then reported as rejected */
+public class PgnReader {
+
+	// A mapped buffer cannot pass 2 GB; smaller chunks also let the threads share the file evenly
+	private static final long MAX_CHUNK = 256L << 20;
+	private static final long MIN_CHUNK = 1L << 20;
+	private static final int SCAN_WINDOW = 1 << 16;
+
+	private PgnReader() {
+	}
+
+	public static long replay(Path file, Consumer<PgnGame> consumer) throws IOException {
+		return replay(file, 1, consumer);
+	}
+
+	/*  Returns the number of games. The consumer is called once per game, rejected ones included, from the worker threads:
+	 	with more than one thread it must be thread-safe, and games of different chunks arrive in no particular order */
+	public static long replay(Path file, int threads, Consumer<PgnGame> consumer) throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("PGN replay needs at least 1 thread");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long[] bounds = chunkBounds(channel, threads);
+			AtomicInteger nextChunk = new AtomicInteger();
+			int workers = Math.min(threads, bounds.length - 1);
+			if (workers <= 1) {
+				return new Worker(channel, bounds, nextChunk, consumer).call();
+			}
+			ExecutorService pool = Executors.newFixedThreadPool(workers);
+			try {
+				List<Future<Long>> futures = new ArrayList<>();
+				for (int i = 0; i < workers; i++) {
+					futures.add(pool.submit(new Worker(channel, bounds, nextChunk, consumer)));
+				}
+				long games = 0;
+				for (Future<Long> future : futures) {
+					games += future.get();
+				}
+				return games;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("PGN replay interrupted", e);
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException("PGN replay failed", e.getCause());
+			}
+			finally {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	// Chunk start offsets, each at a game boundary, followed by the file size
+	private static long[] chunkBounds(FileChannel channel, int threads) throws IOException {
+		long size = channel.size();
+		long chunk = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (threads * 4L) + 1));
+		List<Long> bounds = new ArrayList<>();
+		bounds.add(0L);
+		for (long nominal = chunk; nominal < size; nominal += chunk) {
+			long start = findGameStart(channel, Math.max(nominal, bounds.get(bounds.size() - 1) + 1), size);
+			if (start >= size) {
+				break;
+			}
+			if (start - bounds.get(bounds.size() - 1) > Integer.MAX_VALUE) {
+				throw new IOException("PGN game longer than 2 GB at offset " + bounds.get(bounds.size() - 1));
+			}
+			bounds.add(start);
+			nominal = Math.max(nominal, start);
+		}
+		if (size - bounds.get(bounds.size() - 1) > Integer.MAX_VALUE) {
+			throw new IOException("PGN game longer than 2 GB at offset " + bounds.get(bounds.size() - 1));
+		}
+		bounds.add(size);
+		long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	// First tag line at or after from whose previous line is not a tag line, or size. The line from falls in is skipped
+	private static long findGameStart(FileChannel channel, long from, long size) throws IOException {
+		ByteBuffer window = ByteBuffer.allocate(SCAN_WINDOW);
+		boolean previousIsTag = true;
+		for (long position = skipLine(channel, window, from, size); position < size; position = skipLine(channel, window, position, size)) {
+			boolean isTag = isTagLine(channel, window, position, size);
+			if (isTag && !previousIsTag) {
+				return position;
+			}
+			previousIsTag = isTag;
+		}
+		return size;
+	}
+
+	// Offset just past the next line feed at or after position, or size
+	private static long skipLine(FileChannel channel, ByteBuffer window, long position, long size) throws IOException {
+		while (position < size) {
+			window.clear();
+			int read = channel.read(window, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (window.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	// Whether the line starts like a tag pair: [Name "
+	private static boolean isTagLine(FileChannel channel, ByteBuffer window, long position, long size) throws IOException {
+		window.clear();
+		window.limit((int) Math.min(64, size - position));
+		int read = channel.read(window, position);
+		if (read < 4 || window.get(0) != '[') {
+			return false;
+		}
+		int i = 1;
+		while (i < read && (Character.isLetterOrDigit(window.get(i)) || window.get(i) == '_')) {
+			i++;
+		}
+		return i > 1 && i + 1 < read && window.get(i) == ' ' && window.get(i + 1) == '"';
+	}
+
+	// Replays chunks until there are none left. Holds the per-thread match, game and scratch buffers
+	private static class Worker implements Callable<Long> {
+
+		private final FileChannel channel;
+		private final long[] bounds;
+		private final AtomicInteger nextChunk;
+		private final Consumer<PgnGame> consumer;
+
+		private final ChessMatch chessMatch = new ChessMatch();
+		private final PgnGame game = new PgnGame(chessMatch);
+		private final MoveList scratch = new MoveList();
+		private final ByteSequence view = new ByteSequence();
+		private final ByteSequence fenView = new ByteSequence();
+
+		private ByteBuffer buffer;
+		private long base;
+		private boolean inGame;
+		private boolean movesStarted;
+		private int fenStart;
+		private int fenEnd;
+		private long games;
+
+		Worker(FileChannel channel, long[] bounds, AtomicInteger nextChunk, Consumer<PgnGame> consumer) {
+			this.channel = channel;
+			this.bounds = bounds;
+			this.nextChunk = nextChunk;
+			this.consumer = consumer;
+		}
+
+		@Override
+		public Long call() throws IOException {
+			for (int chunk = nextChunk.getAndIncrement(); chunk < bounds.length - 1; chunk = nextChunk.getAndIncrement()) {
+				base = bounds[chunk];
+				MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, base, bounds[chunk + 1] - base);
+				parse(mapped);
+			}
+			return games;
+		}
+
+		private void parse(ByteBuffer buffer) {
+			this.buffer = buffer;
+			int limit = buffer.limit();
+			int pos = 0;
+			// UTF-8 byte order mark
+			if (base == 0 && limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+				pos = 3;
+			}
+			boolean atLineStart = true;
+			while (pos < limit) {
+				byte c = buffer.get(pos);
+				boolean lineStart = atLineStart;
+				atLineStart = (c == '\n');
+				switch (c) {
+				case '[':
+					if (movesStarted) {
+						finishGame();
+					}
+					if (!inGame) {
+						beginGame(base + pos);
+					}
+					pos = readTag(pos, limit);
+					break;
+				case '{':
+					pos = skipPast(pos + 1, limit, '}');
+					break;
+				case ';':
+					pos = skipPast(pos + 1, limit, '\n');
+					atLineStart = true;
+					break;
+				case '(':
+					pos = skipVariation(pos, limit);
+					break;
+				case '$':
+					pos++;
+					while (pos < limit && isDigit(buffer.get(pos))) {
+						pos++;
+					}
+					break;
+				case '*':
+					if (inGame) {
+						game.setResult(PgnGame.UNKNOWN);
+						finishGame();
+					}
+					pos++;
+					break;
+				case '%':
+					if (lineStart) {
+						pos = skipPast(pos + 1, limit, '\n');
+						atLineStart = true;
+						break;
+					}
+					pos++;
+					break;
+				case ' ': case '\t': case '\r': case '\n': case ')': case '}': case ']': case '.':
+					pos++;
+					break;
+				default:
+					int end = tokenEnd(pos, limit);
+					token(pos, end);
+					pos = end;
+				}
+			}
+			finishGame();
+		}
+
+		private void token(int start, int end) {
+			if (equals(start, end, "1-0")) {
+				result(PgnGame.WHITE_WINS);
+				return;
+			}
+			if (equals(start, end, "0-1")) {
+				result(PgnGame.BLACK_WINS);
+				return;
+			}
+			if (equals(start, end, "1/2-1/2")) {
+				result(PgnGame.DRAW);
+				return;
+			}
+			// Move number, possibly glued to the move as in 12.e4 or 12...Nf6
+			int i = start;
+			while (i < end && isDigit(buffer.get(i))) {
+				i++;
+			}
+			if (i > start && i < end && buffer.get(i) == '.') {
+				while (i < end && buffer.get(i) == '.') {
+					i++;
+				}
+				start = i;
+			}
+			else if (i == end) {
+				return;
+			}
+			if (start == end) {
+				return;
+			}
+			if (!inGame) {
+				beginGame(base + start);
+			}
+			if (!movesStarted) {
+				startPosition();
+			}
+			if (!game.isLegal()) {
+				return;
+			}
+			int move = San.resolve(chessMatch, view.set(buffer, start, end), scratch);
+			if (move < 0) {
+				String reason = (move == San.AMBIGUOUS) ? "ambiguous" : (move == San.ILLEGAL) ? "illegal" : "malformed";
+				game.reject(reason + " move " + view + " at ply " + (game.getPlyCount() + 1));
+				return;
+			}
+			chessMatch.playMove(move);
+			game.addMove(move);
+		}
+
+		private void result(int result) {
+			if (inGame) {
+				game.setResult(result);
+				finishGame();
+			}
+		}
+
+		private void beginGame(long offset) {
+			inGame = true;
+			movesStarted = false;
+			fenStart = -1;
+			game.reset(offset);
+		}
+
+		private void startPosition() {
+			movesStarted = true;
+			try {
+				if (fenStart >= 0) {
+					game.setStartFen(fenView.set(buffer, fenStart, fenEnd));
+					Fen.load(chessMatch, fenView);
+				}
+				else {
+					Fen.load(chessMatch, Fen.INITIAL);
+				}
+			}
+			catch (ChessException e) {
+				game.reject(e.getMessage());
+			}
+		}
+
+		private void finishGame() {
+			if (!inGame) {
+				return;
+			}
+			if (!movesStarted) {
+				startPosition();
+			}
+			inGame = false;
+			movesStarted = false;
+			games++;
+			consumer.accept(game);
+		}
+
+		// Reads a [Name "value"] pair; only the FEN value is kept, as a byte range
+		private int readTag(int pos, int limit) {
+			int i = pos + 1;
+			while (i < limit && buffer.get(i) == ' ') {
+				i++;
+			}
+			int nameStart = i;
+			while (i < limit && buffer.get(i) != ' ' && buffer.get(i) != '"' && buffer.get(i) != ']' && buffer.get(i) != '\n') {
+				i++;
+			}
+			int nameEnd = i;
+			while (i < limit && buffer.get(i) != '"' && buffer.get(i) != ']' && buffer.get(i) != '\n') {
+				i++;
+			}
+			if (i < limit && buffer.get(i) == '"') {
+				int valueStart = ++i;
+				while (i < limit && buffer.get(i) != '"' && buffer.get(i) != '\n') {
+					i += (buffer.get(i) == '\\') ? 2 : 1;
+				}
+				int valueEnd = Math.min(i, limit);
+				if (equals(nameStart, nameEnd, "FEN")) {
+					fenStart = valueStart;
+					fenEnd = valueEnd;
+				}
+			}
+			while (i < limit && buffer.get(i) != ']' && buffer.get(i) != '\n') {
+				i++;
+			}
+			return (i < limit && buffer.get(i) == ']') ? i + 1 : i;
+		}
+
+		// Skips a variation, nested ones and comments inside included
+		private int skipVariation(int pos, int limit) {
+			int depth = 0;
+			while (pos < limit) {
+				byte c = buffer.get(pos);
+				if (c == '(') {
+					depth++;
+				}
+				else if (c == ')' && --depth == 0) {
+					return pos + 1;
+				}
+				else if (c == '{') {
+					pos = skipPast(pos + 1, limit, '}');
+					continue;
+				}
+				else if (c == ';') {
+					pos = skipPast(pos + 1, limit, '\n');
+					continue;
+				}
+				pos++;
+			}
+			return limit;
+		}
+
+		private int skipPast(int pos, int limit, char terminator) {
+			while (pos < limit && buffer.get(pos) != terminator) {
+				pos++;
+			}
+			return Math.min(pos + 1, limit);
+		}
+
+		private int tokenEnd(int pos, int limit) {
+			while (pos < limit) {
+				byte c = buffer.get(pos);
+				if (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '{' || c == '(' || c == ')' || c == ';' || c == '[' || c == '$') {
+					break;
+				}
+				pos++;
+			}
+			return pos;
+		}
+
+		private boolean equals(int start, int end, String text) {
+			if (end - start != text.length()) {
+				return false;
+			}
+			for (int i = 0; i < text.length(); i++) {
+				if (buffer.get(start + i) != text.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean isDigit(byte c) {
+			return c >= '0' && c <= '9';
+		}
+
+	}
+
+}
@@ -1,9 +1,11 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.ChessBoard;
 import chess.ChessPiece;
+import chess.MagicBitboards;
 import chess.enums.Color;
+import chess.enums.PieceType;
 
 public class Bishop extends ChessPiece {
 
@@ -15,58 +17,18 @@ public class Bishop extends ChessPiece {
 	public String toString() {
 		return "B";
 	}
-	
-	/*  Instantiates a matrix of booleans using as arguments:
-	 *  getBoard: method from abstract class Piece
-	 	getRows/Columns: method from class Board, returning number of rows and columns of the already created board */ 
+
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		Position p = new Position(0, 0);
-		
-		//Above-Left
-		p.setValues(position.getRow() - 1, position.getColumn() - 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() - 1, p.getColumn() - 1);
-		}
-		//After leaving while loop by reaching the end of the board or finding an occupied position, tests if the chesspiece in that position can be taken/belongs to the opponent
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Above-Right
-		p.setValues(position.getRow() - 1, position.getColumn() + 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() - 1, p.getColumn() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Below-Left
-		p.setValues(position.getRow() + 1, position.getColumn() - 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() + 1, p.getColumn() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Below-Right
-		p.setValues(position.getRow() + 1, position.getColumn() + 1);
-		while (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-			p.setValues(p.getRow() + 1, p.getColumn() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-	
-		
-		return mat;
+	public PieceType getType() {
+		return PieceType.BISHOP;
 	}
 	
+	//Diagonal rays from the magic tables, up to and including the first piece in the way, minus own pieces
+	@Override
+	public long possibleMovesMask() {
+		ChessBoard board = getChessBoard();
+		long mask = MagicBitboards.bishopAttacks(getSquare(), board.getOccupancy());
+		return mask & ~board.getColorMask(getColor());
+	}
+
 }
@@ -1,18 +1,18 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
-import chess.ChessMatch;
+import chess.Bitboards;
+import chess.ChessBoard;
 import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
 import chess.enums.Color;
+import chess.enums.PieceType;
 
 public class King extends ChessPiece {
 
-	private ChessMatch chessMatch;
-	
-	public King(Board board, Color color, ChessMatch chessMatch) {
+	public King(Board board, Color color) {
 		super(board, color);
-		this.chessMatch = chessMatch;
 	}
 	
 	@Override
@@ -20,99 +20,66 @@ public class King extends ChessPiece {
 		return "K";
 	}
 
-	public boolean canMove(Position position) {
-		ChessPiece p = (ChessPiece)getBoard().piece(position);
-		return p == null || p.getColor() != getColor();
+	@Override
+	public PieceType getType() {
+		return PieceType.KING;
 	}
 
-	private boolean testCastling(Position position) {		
-		ChessPiece p = (ChessPiece)getBoard().piece(position);
-		return p != null && p instanceof Rook && p.getMoveCount() == 0;
+	private boolean testCastling(int row, int column) {		
+		ChessPiece p = (ChessPiece)getBoard().piece(row, column);
+		return p != null && p instanceof Rook && p.getColor() == getColor() && p.getMoveCount() == 0;
 	}
 	
-	/*  Instantiates a matrix of booleans using as arguments:
-	 *  getBoard: method from abstract class Piece
-	 	getRows/Columns: method from class Board, returning number of rows and columns of the already created board */ 
-	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-		
-		//Above
-		p.setValues(position.getRow() - 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Below
-		p.setValues(position.getRow() + 1, position.getColumn());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Left
-		p.setValues(position.getRow(), position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Right
-		p.setValues(position.getRow(), position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Above-Left
-		p.setValues(position.getRow() - 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}
-		
-		//Above-Right
-		p.setValues(position.getRow() - 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
+	//The eight neighbouring squares minus the ones holding own pieces
+	private long stepMask() {
+		return Bitboards.kingAttacks(getSquare()) & ~getChessBoard().getColorMask(getColor());
+	}
+	
+	/*  Castling squares are added when king and rook are unmoved on their home squares, the squares between them are empty
+	 	and the king neither stands on nor crosses an attacked square. Landing on an attacked square is rejected by the check test */ 
+	private long castlingMask() {
+		ChessBoard board = getChessBoard();
+		int row = Bitboards.row(getSquare());
+		int column = Bitboards.column(getSquare());
+		Color opponent = (getColor() == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		long mask = 0L;
+
+		int homeRow = (getColor() == Color.WHITE) ? 7 : 0;
+		if (getMoveCount() == 0 && row == homeRow && column == 4) {
+			long attacked = board.getAttackedSquares(opponent);
+			if ((attacked & Bitboards.bit(row, column)) != 0) {
+				return 0L;
+			}
+			//Short Castling
+			if (testCastling(row, 7) && (board.getOccupancy() & (Bitboards.bit(row, 5) | Bitboards.bit(row, 6))) == 0
+					&& (attacked & Bitboards.bit(row, 5)) == 0) {
+				mask |= Bitboards.bit(row, 6);
+			}
+			//Long Castling
+			if (testCastling(row, 0) && (board.getOccupancy() & (Bitboards.bit(row, 1) | Bitboards.bit(row, 2) | Bitboards.bit(row, 3))) == 0
+					&& (attacked & Bitboards.bit(row, 3)) == 0) {
+				mask |= Bitboards.bit(row, 2);
+			}
 		}
-		
-		//Below-Left
-		p.setValues(position.getRow() + 1, position.getColumn() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
-		}		
-		
-		//Below-Right
-		p.setValues(position.getRow() + 1, position.getColumn() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColumn()] = true;
+		return mask;
+	}
+	
+	@Override
+	public long possibleMovesMask() {
+		return stepMask() | castlingMask();
+	}
+	
+	@Override
+	public void generateMoves(MoveList list) {
+		int source = getSquare();
+		addMoves(list, source, stepMask());
+		long castling = castlingMask();
+		if ((castling & Bitboards.bit(source + 2)) != 0) {
+			list.add(Move.encode(source, source + 2, Move.SHORT_CASTLING));
 		}
-
-		//Short Castling
-		if (getMoveCount() == 0 && !chessMatch.getCheck()) {
-			Position closeRook = new Position(position.getRow(), position.getColumn() + 3);
-			if (testCastling(closeRook)) {
-				Position p1 = new Position(position.getRow(), position.getColumn() + 1);
-				Position p2 = new Position(position.getRow(), position.getColumn() + 2);
-				if (!getBoard().thereIsAPiece(p1) && !getBoard().thereIsAPiece(p2)) {
-					mat[p2.getRow()][p2.getColumn()] = true;
-				}
-			}	
+		if ((castling & Bitboards.bit(source - 2)) != 0) {
+			list.add(Move.encode(source, source - 2, Move.LONG_CASTLING));
 		}
-		
-		//Long Castling
-				if (getMoveCount() == 0 && !chessMatch.getCheck()) {
-					Position closeRook = new Position(position.getRow(), position.getColumn() - 4);
-					if (testCastling(closeRook)) {
-						Position p1 = new Position(position.getRow(), position.getColumn() - 1);
-						Position p2 = new Position(position.getRow(), position.getColumn() - 2);
-						Position p3 = new Position(position.getRow(), position.getColumn() - 3);
-						if (!getBoard().thereIsAPiece(p1) && !getBoard().thereIsAPiece(p2) && !getBoard().thereIsAPiece(p3)) {
-							mat[p2.getRow()][p2.getColumn()] = true;
-						}
-					}	
-				}
-		
-		return mat;
 	}
 	
 }
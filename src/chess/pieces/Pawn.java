@@ -1,10 +1,14 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Bitboards;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
 import chess.enums.Color;
+import chess.enums.PieceType;
 
 public class Pawn extends ChessPiece {
 
@@ -20,93 +24,93 @@ public class Pawn extends ChessPiece {
 		return "P";
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.PAWN;
+	}
+
 	/*
-	 * Instantiates a matrix of booleans using as arguments: getBoard: method from
-	 * abstract class Piece getRows/Columns: method from class Board, returning
-	 * number of rows and columns of the already created board
+	 * White pawns move up the matrix (row - 1) and black pawns down (row + 1). A
+	 * pawn steps forward onto an empty square, two squares from its start row when
+	 * both are empty, and captures diagonally forward, including en passant
 	 */
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+	public long possibleMovesMask() {
+		ChessBoard board = getChessBoard();
+		int square = getSquare();
+		long empty = ~board.getOccupancy();
+		long opponents = board.getOccupancy() & ~board.getColorMask(getColor());
+		long pawn = Bitboards.bit(square);
+		long mask;
 
-		Position p = new Position(0, 0);
-
-		// Black
-		if (getColor() == Color.BLACK) {
-			p.setValues(position.getRow() + 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 2, position.getColumn());
-			Position p2 = new Position(position.getRow() + 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2)
-					&& !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() + 1, position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
+		if (getColor() == Color.WHITE) {
+			mask = (pawn >>> 8) & empty;
+			if (Bitboards.row(square) == 6) {
+				mask |= (mask >>> 8) & empty;
 			}
-			p.setValues(position.getRow() + 1, position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
+		}
+		else {
+			mask = (pawn << 8) & empty;
+			if (Bitboards.row(square) == 1) {
+				mask |= (mask << 8) & empty;
 			}
 		}
+		mask |= Bitboards.pawnAttacks(getColor(), square) & opponents;
+		return mask | enPassantMask();
+	}
 
-		// En Passant(Black)
-		if (position.getRow() == 4) {
-			// Left
-			p.setValues(position.getRow(), position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)
-					&& getBoard().piece(p) == chessMatch.getEnPassantVulnerable()) {
-				mat[p.getRow() + 1][p.getColumn()] = true;
-			}
-			// Right
-			p.setValues(position.getRow(), position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)
-					&& getBoard().piece(p) == chessMatch.getEnPassantVulnerable()) {
-				mat[p.getRow() + 1][p.getColumn()] = true;
-			}
+	// En Passant: the square behind an opponent pawn that has just made a double step next to this pawn
+	private long enPassantMask() {
+		ChessPiece vulnerable = chessMatch.getEnPassantVulnerable();
+		int row = Bitboards.row(getSquare());
+		int column = Bitboards.column(getSquare());
+		if (vulnerable == null || vulnerable.getColor() == getColor() || row != (getColor() == Color.WHITE ? 3 : 4)) {
+			return 0L;
+		}
+		int forward = (getColor() == Color.WHITE) ? -1 : 1;
+		long mask = 0L;
+		// Left
+		if (column > 0 && getBoard().piece(row, column - 1) == vulnerable) {
+			mask |= Bitboards.bit(row + forward, column - 1);
+		}
+		// Right
+		if (column < 7 && getBoard().piece(row, column + 1) == vulnerable) {
+			mask |= Bitboards.bit(row + forward, column + 1);
 		}
+		return mask;
+	}
 
-		// White
-		if (getColor() == Color.WHITE) {
-			p.setValues(position.getRow() - 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
-			}
-			p.setValues(position.getRow() - 2, position.getColumn());
-			Position p2 = new Position(position.getRow() - 1, position.getColumn());
-			if (getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2)
-					&& !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColumn()] = true;
+	// Adds the move flags the board needs to replay a pawn move: double steps, en passant and one move per promotion choice
+	@Override
+	public void generateMoves(MoveList list) {
+		int source = getSquare();
+		long opponents = getChessBoard().getOccupancy() & ~getChessBoard().getColorMask(getColor());
+		long enPassant = enPassantMask();
+		long targets = possibleMovesMask();
+		while (targets != 0) {
+			int target = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			long bit = Bitboards.bit(target);
+			int row = Bitboards.row(target);
+			if (row == 0 || row == 7) {
+				int flags = (opponents & bit) != 0 ? Move.CAPTURE_PROMOTION : Move.PROMOTION;
+				for (int promotion = 3; promotion >= 0; promotion--) {
+					list.add(Move.encode(source, target, flags | promotion));
+				}
 			}
-			p.setValues(position.getRow() - 1, position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
+			else if ((enPassant & bit) != 0) {
+				list.add(Move.encode(source, target, Move.EN_PASSANT));
 			}
-			p.setValues(position.getRow() - 1, position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColumn()] = true;
+			else if ((opponents & bit) != 0) {
+				list.add(Move.encode(source, target, Move.CAPTURE));
 			}
-		}
-		// En Passant(White)
-		if (position.getRow() == 3) {
-			// Left
-			p.setValues(position.getRow(), position.getColumn() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)
-					&& getBoard().piece(p) == chessMatch.getEnPassantVulnerable()) {
-				mat[p.getRow() - 1][p.getColumn()] = true;
+			else if (target == source + 16 || target == source - 16) {
+				list.add(Move.encode(source, target, Move.DOUBLE_PAWN_PUSH));
 			}
-			// Right
-			p.setValues(position.getRow(), position.getColumn() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)
-					&& getBoard().piece(p) == chessMatch.getEnPassantVulnerable()) {
-				mat[p.getRow() - 1][p.getColumn()] = true;
+			else {
+				list.add(Move.encode(source, target, Move.QUIET));
 			}
 		}
-
-		return mat;
 	}
 
 }
@@ -0,0 +1,171 @@
+package chess.tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Material of a tablebase, named like KBNK: the white king and white pieces, then the black king and black pieces.
+ 	The name is canonical, with the stronger side as white; a position where black is stronger is looked up mirrored.
+ 	Every piece has a slot: white king, black king, then the other pieces in name order, and a position is indexed by
+ 	the side to move followed by 6 bits per slot */
+final class Signature {
+
+	static final int MAX_PIECES = 4;
+
+	static final PieceType[] PROMOTIONS = { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT };
+
+	private static final String LETTERS = "PNBRQK";
+
+	final String name;
+	final int pieces;
+	final PieceType[] types;
+	final Color[] colors;
+
+	private Signature(String name, PieceType[] types, Color[] colors) {
+		this.name = name;
+		this.pieces = types.length;
+		this.types = types;
+		this.colors = colors;
+	}
+
+	// Parses a name in either orientation, e.g. KPK or KKP, and returns the canonical material
+	static Signature parse(String name) {
+		int secondKing = name.indexOf('K', 1);
+		if (name.isEmpty() || name.charAt(0) != 'K' || secondKing < 0) {
+			throw new IllegalArgumentException("Tablebase material must look like KQK or KRKP, not " + name);
+		}
+		List<PieceType> white = pieceTypes(name.substring(1, secondKing), name);
+		List<PieceType> black = pieceTypes(name.substring(secondKing + 1), name);
+		return of(white, black);
+	}
+
+	private static List<PieceType> pieceTypes(String letters, String name) {
+		List<PieceType> types = new ArrayList<>();
+		for (int i = 0; i < letters.length(); i++) {
+			int type = LETTERS.indexOf(letters.charAt(i));
+			if (type < 0 || type == PieceType.KING.ordinal()) {
+				throw new IllegalArgumentException("Unexpected piece " + letters.charAt(i) + " in tablebase material " + name);
+			}
+			types.add(PieceType.values()[type]);
+		}
+		return types;
+	}
+
+	// Canonical material of the given non-king pieces of each side
+	static Signature of(List<PieceType> white, List<PieceType> black) {
+		if (white.size() + black.size() + 2 > MAX_PIECES) {
+			throw new IllegalArgumentException("Tablebases hold at most " + MAX_PIECES + " pieces");
+		}
+		List<PieceType> strong = sorted(white);
+		List<PieceType> weak = sorted(black);
+		if (isStronger(weak, strong)) {
+			List<PieceType> swap = strong;
+			strong = weak;
+			weak = swap;
+		}
+		int pieces = 2 + strong.size() + weak.size();
+		PieceType[] types = new PieceType[pieces];
+		Color[] colors = new Color[pieces];
+		types[0] = PieceType.KING;
+		colors[0] = Color.WHITE;
+		types[1] = PieceType.KING;
+		colors[1] = Color.BLACK;
+		StringBuilder name = new StringBuilder("K");
+		int slot = 2;
+		for (PieceType type : strong) {
+			types[slot] = type;
+			colors[slot++] = Color.WHITE;
+			name.append(LETTERS.charAt(type.ordinal()));
+		}
+		name.append('K');
+		for (PieceType type : weak) {
+			types[slot] = type;
+			colors[slot++] = Color.BLACK;
+			name.append(LETTERS.charAt(type.ordinal()));
+		}
+		return new Signature(name.toString(), types, colors);
+	}
+
+	// Strongest piece first: queen, rook, bishop, knight, pawn
+	private static List<PieceType> sorted(List<PieceType> types) {
+		List<PieceType> sorted = new ArrayList<>(types);
+		sorted.sort((a, b) -> b.ordinal() - a.ordinal());
+		return sorted;
+	}
+
+	// More pieces, or as many and stronger ones piece by piece
+	static boolean isStronger(List<PieceType> a, List<PieceType> b) {
+		if (a.size() != b.size()) {
+			return a.size() > b.size();
+		}
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i) != b.get(i)) {
+				return a.get(i).ordinal() > b.get(i).ordinal();
+			}
+		}
+		return false;
+	}
+
+	int size() {
+		return 2 << (6 * pieces);
+	}
+
+	int index(Color toMove, int[] squares) {
+		int index = (toMove == Color.WHITE) ? 1 : 0;
+		for (int slot = 0; slot < pieces; slot++) {
+			index = (index << 6) | squares[slot];
+		}
+		return index;
+	}
+
+	// Fills squares with the slot squares of the index and returns the side to move
+	Color decode(int index, int[] squares) {
+		for (int slot = pieces - 1; slot >= 0; slot--) {
+			squares[slot] = index & 63;
+			index >>>= 6;
+		}
+		return (index == 1) ? Color.WHITE : Color.BLACK;
+	}
+
+	// Materials reached by a capture, a promotion or both; the bare kings are left out, every position of theirs being a draw
+	List<String> successors() {
+		List<String> successors = new ArrayList<>();
+		for (int taken = 2; taken < pieces; taken++) {
+			addSuccessor(successors, taken, -1, null);
+		}
+		for (int pawn = 2; pawn < pieces; pawn++) {
+			if (types[pawn] != PieceType.PAWN) {
+				continue;
+			}
+			for (PieceType promotion : PROMOTIONS) {
+				addSuccessor(successors, -1, pawn, promotion);
+				for (int taken = 2; taken < pieces; taken++) {
+					if (colors[taken] != colors[pawn]) {
+						addSuccessor(successors, taken, pawn, promotion);
+					}
+				}
+			}
+		}
+		return successors;
+	}
+
+	private void addSuccessor(List<String> successors, int taken, int pawn, PieceType promotion) {
+		List<PieceType> white = new ArrayList<>();
+		List<PieceType> black = new ArrayList<>();
+		for (int slot = 2; slot < pieces; slot++) {
+			if (slot != taken) {
+				(colors[slot] == Color.WHITE ? white : black).add(slot == pawn ? promotion : types[slot]);
+			}
+		}
+		if (white.isEmpty() && black.isEmpty()) {
+			return;
+		}
+		String name = of(white, black).name;
+		if (!successors.contains(name)) {
+			successors.add(name);
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*  One tablebase file, memory-mapped read-only. Layout, big-endian: a 32-byte header (magic "CTB1", version, bits per entry,
+ 	piece count, entry count, material name in ASCII padded with zeros), then the entries as a bit stream in 64-bit words,
+ 	entry i taking bits i * bits to (i + 1) * bits - 1 counted from the low end of word 0. An entry holds the result for the
+ 	side to move in its two low bits (Tablebases.DRAW, WIN, LOSS, or ILLEGAL for positions that cannot occur) and the
+ 	distance to mate in plies above them */
+final class Tablebase implements AutoCloseable {
+
+	static final int MAGIC = 0x43544231;
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int NAME_LENGTH = 16;
+	static final int ILLEGAL = 3;
+
+	private final FileChannel channel;
+	private final ByteBuffer data;
+	private final Signature signature;
+	private final int bits;
+	private final long mask;
+
+	Tablebase(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too large for a tablebase");
+			}
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (size < HEADER_SIZE || data.getInt(0) != MAGIC) {
+				throw new IOException(file + " is not a tablebase");
+			}
+			if (data.getShort(4) != VERSION) {
+				throw new IOException(file + ": unsupported tablebase version " + data.getShort(4));
+			}
+			bits = data.get(6);
+			byte[] name = new byte[NAME_LENGTH];
+			data.get(16, name);
+			int length = 0;
+			while (length < NAME_LENGTH && name[length] != 0) {
+				length++;
+			}
+			signature = Signature.parse(new String(name, 0, length, StandardCharsets.US_ASCII));
+			if (data.get(7) != signature.pieces || data.getLong(8) != signature.size()
+					|| size < HEADER_SIZE + words(signature.size(), bits) * 8L) {
+				throw new IOException(file + " is truncated or does not match its material " + signature.name);
+			}
+			mask = (1L << bits) - 1;
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	Signature getSignature() {
+		return signature;
+	}
+
+	// Entry of the position index; see Signature.index
+	int get(int index) {
+		long bit = (long) index * bits;
+		int word = (int) (bit >>> 6);
+		int offset = (int) (bit & 63);
+		long value = data.getLong(HEADER_SIZE + word * 8) >>> offset;
+		if (offset + bits > 64) {
+			value |= data.getLong(HEADER_SIZE + (word + 1) * 8) << (64 - offset);
+		}
+		return (int) (value & mask);
+	}
+
+	static long words(long entries, int bits) {
+		return (entries * bits + 63) / 64;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,510 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chess.Bitboards;
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Builds tablebases of up to 4 pieces by retrograde analysis. Every position of the material is first classified by
+ 	looking at its moves: those leaving the material (captures, promotions) are resolved in the smaller tables, built
+ 	beforehand, and the others are counted. Then the results spread backwards one ply at a time: from the positions decided
+ 	at level n, un-moves reach their predecessors, which win at n + 1 when a successor loses and lose once every successor
+ 	wins. What is still open when nothing more can be decided is a draw. Each pass is split into index ranges run in
+ 	parallel; the per-position counters are decremented atomically and every other shared write stores the same value
+ 	whichever thread makes it, so the passes need no locks */
+public class TablebaseGenerator {
+
+	// Positions per parallel task
+	private static final int CHUNK = 1 << 16;
+
+	// Working states next to the final Tablebases.DRAW, WIN, LOSS and Tablebase.ILLEGAL
+	private static final byte OPEN = 4;
+
+	// Levels are plies to mate, kept in unsigned bytes; NONE marks no level yet, NEVER a position that cannot be lost
+	private static final int NONE = 0xFF;
+	private static final int NEVER = 0xFF;
+	private static final int MAX_LEVEL = 0xFE;
+
+	private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+	private final Path directory;
+	private final int threads;
+	private final Tablebases tablebases;
+
+	public TablebaseGenerator(Path directory, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Tablebase generation needs at least 1 thread");
+		}
+		this.directory = directory;
+		this.threads = threads;
+		this.tablebases = new Tablebases(directory);
+	}
+
+	/*  Builds the table of the material, e.g. KBNK, after the smaller tables it depends on. Tables already in the directory
+	 	are kept. Progress goes to log when it is not null */
+	public void generate(String material, PrintStream log) throws IOException {
+		Signature signature = Signature.parse(material);
+		Path file = directory.resolve(signature.name + Tablebases.EXTENSION);
+		if (Files.exists(file)) {
+			return;
+		}
+		for (String successor : signature.successors()) {
+			generate(successor, log);
+		}
+		long start = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Builder builder = new Builder(signature, pool);
+		int levels;
+		try {
+			levels = builder.build();
+		}
+		finally {
+			pool.shutdown();
+		}
+		builder.write(file);
+		tablebases.refresh(signature.name);
+		if (log != null) {
+			log.printf("%s: %d positions, %d wins, %d losses, %d draws, longest mate %d plies, %d levels in %.2f s%n", signature.name,
+					builder.legal, builder.wins, builder.losses, builder.legal - builder.wins - builder.losses, builder.maxDepth, levels,
+					(System.nanoTime() - start) / 1e9);
+		}
+	}
+
+	// The working arrays of one table
+	private class Builder {
+
+		private final Signature signature;
+		private final ExecutorService pool;
+		private final int size;
+		private final byte[] state;
+		private final byte[] depth;
+		// Moves staying in the table whose result is not known yet
+		private final byte[] count;
+		// Lowest level at which a winning move is known
+		private final byte[] winLevel;
+		// Highest level of the losing moves seen so far, or NEVER once a move is known to draw or win
+		private final byte[] lossLevel;
+
+		private long legal;
+		private long wins;
+		private long losses;
+		private int maxDepth;
+
+		Builder(Signature signature, ExecutorService pool) {
+			this.signature = signature;
+			this.pool = pool;
+			size = signature.size();
+			state = new byte[size];
+			depth = new byte[size];
+			count = new byte[size];
+			winLevel = new byte[size];
+			lossLevel = new byte[size];
+		}
+
+		// Returns the number of levels
+		int build() {
+			parallel(this::initialize);
+			int level = 0;
+			while (true) {
+				AtomicInteger decided = new AtomicInteger();
+				AtomicInteger pending = new AtomicInteger();
+				int current = level;
+				parallel((from, to) -> decide(current, from, to, decided, pending));
+				if (decided.get() == 0 && pending.get() <= level) {
+					break;
+				}
+				if (level == MAX_LEVEL) {
+					throw new IllegalStateException(signature.name + ": mates longer than " + MAX_LEVEL + " plies");
+				}
+				if (decided.get() > 0) {
+					parallel((from, to) -> propagate(current, from, to));
+				}
+				level++;
+			}
+			for (int i = 0; i < size; i++) {
+				if (state[i] == OPEN) {
+					state[i] = Tablebases.DRAW;
+				}
+				if (state[i] != Tablebase.ILLEGAL) {
+					legal++;
+					wins += (state[i] == Tablebases.WIN) ? 1 : 0;
+					losses += (state[i] == Tablebases.LOSS) ? 1 : 0;
+					maxDepth = Math.max(maxDepth, depth[i] & 0xFF);
+				}
+			}
+			return level;
+		}
+
+		// Runs the range over the whole table in chunks shared out between the threads, and waits for all of them
+		private void parallel(Range range) {
+			List<Callable<Void>> tasks = new ArrayList<>();
+			for (int from = 0; from < size; from += CHUNK) {
+				int start = from;
+				int end = Math.min(size, from + CHUNK);
+				tasks.add(() -> {
+					range.run(start, end);
+					return null;
+				});
+			}
+			try {
+				for (Future<Void> task : pool.invokeAll(tasks)) {
+					task.get();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Tablebase generation interrupted", e);
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(signature.name + ": generation failed", e.getCause());
+			}
+		}
+
+		private void initialize(int from, int to) {
+			int pieces = signature.pieces;
+			int[] squares = new int[pieces];
+			int[] child = new int[pieces];
+			PieceType[] childTypes = new PieceType[pieces];
+			Color[] childColors = new Color[pieces];
+			for (int index = from; index < to; index++) {
+				Color toMove = signature.decode(index, squares);
+				if (!isValid(squares, toMove)) {
+					state[index] = Tablebase.ILLEGAL;
+					continue;
+				}
+				state[index] = OPEN;
+				Color opponent = opponent(toMove);
+				long occupancy = occupancy(squares, -1);
+				int moves = 0;
+				int inTable = 0;
+				int win = NONE;
+				int loss = 0;
+				for (int slot = 0; slot < pieces; slot++) {
+					if (signature.colors[slot] != toMove) {
+						continue;
+					}
+					int source = squares[slot];
+					PieceType type = signature.types[slot];
+					long own = 0;
+					for (int other = 0; other < pieces; other++) {
+						if (signature.colors[other] == toMove) {
+							own |= Bitboards.bit(squares[other]);
+						}
+					}
+					for (long targets = targets(type, toMove, source, occupancy) & ~own; targets != 0; targets &= targets - 1) {
+						int target = Long.numberOfTrailingZeros(targets);
+						int taken = slotOn(squares, target);
+						squares[slot] = target;
+						boolean legalMove = !isAttacked(squares, king(toMove, squares), opponent, taken);
+						squares[slot] = source;
+						if (!legalMove) {
+							continue;
+						}
+						moves++;
+						boolean promotion = type == PieceType.PAWN && (Bitboards.row(target) == 0 || Bitboards.row(target) == 7);
+						if (taken < 0 && !promotion) {
+							inTable++;
+							continue;
+						}
+						// The move leaves the material: its result comes from the smaller table, seen from the opponent
+						for (int p = 0; p < (promotion ? Signature.PROMOTIONS.length : 1); p++) {
+							int childCount = 0;
+							for (int other = 0; other < pieces; other++) {
+								if (other != taken) {
+									childTypes[childCount] = (other == slot && promotion) ? Signature.PROMOTIONS[p] : signature.types[other];
+									childColors[childCount] = signature.colors[other];
+									child[childCount++] = (other == slot) ? target : squares[other];
+								}
+							}
+							int result = tablebases.probe(childTypes, childColors, child, childCount, opponent);
+							if (result == Tablebases.UNKNOWN) {
+								throw new IllegalStateException(signature.name + ": a capture or promotion leads to a material without a table");
+							}
+							int level = Tablebases.distanceToMate(result) + 1;
+							if (Tablebases.wdl(result) == Tablebases.LOSS) {
+								win = Math.min(win, level);
+								loss = NEVER;
+							}
+							else if (Tablebases.wdl(result) == Tablebases.DRAW) {
+								loss = NEVER;
+							}
+							else if (loss != NEVER) {
+								loss = Math.max(loss, level);
+							}
+						}
+					}
+				}
+				if (moves == 0) {
+					// Checkmate is a loss at level 0, found by the first decide pass; stalemate is a draw
+					if (isAttacked(squares, king(toMove, squares), opponent, -1)) {
+						winLevel[index] = (byte) NONE;
+						lossLevel[index] = 0;
+					}
+					else {
+						state[index] = Tablebases.DRAW;
+					}
+					continue;
+				}
+				count[index] = (byte) inTable;
+				winLevel[index] = (byte) win;
+				lossLevel[index] = (byte) loss;
+			}
+		}
+
+		// Settles the open positions whose result becomes known at this level
+		private void decide(int level, int from, int to, AtomicInteger decided, AtomicInteger pending) {
+			int settled = 0;
+			int later = 0;
+			for (int index = from; index < to; index++) {
+				if (state[index] != OPEN) {
+					continue;
+				}
+				int win = winLevel[index] & 0xFF;
+				int loss = lossLevel[index] & 0xFF;
+				boolean allMovesLose = count[index] == 0 && loss != NEVER;
+				if (win == level) {
+					state[index] = Tablebases.WIN;
+					depth[index] = (byte) level;
+					settled++;
+				}
+				else if (allMovesLose && loss == level) {
+					state[index] = Tablebases.LOSS;
+					depth[index] = (byte) level;
+					settled++;
+				}
+				else {
+					if (win != NONE) {
+						later = Math.max(later, win);
+					}
+					if (allMovesLose) {
+						later = Math.max(later, loss);
+					}
+				}
+			}
+			decided.addAndGet(settled);
+			pending.accumulateAndGet(later, Math::max);
+		}
+
+		// Passes the positions decided at this level on to their predecessors
+		private void propagate(int level, int from, int to) {
+			int pieces = signature.pieces;
+			int[] squares = new int[pieces];
+			int next = level + 1;
+			for (int index = from; index < to; index++) {
+				byte result = state[index];
+				if ((result != Tablebases.WIN && result != Tablebases.LOSS) || (depth[index] & 0xFF) != level) {
+					continue;
+				}
+				Color toMove = signature.decode(index, squares);
+				Color mover = opponent(toMove);
+				long occupancy = occupancy(squares, -1);
+				for (int slot = 0; slot < pieces; slot++) {
+					if (signature.colors[slot] != mover) {
+						continue;
+					}
+					int target = squares[slot];
+					for (long sources = origins(signature.types[slot], mover, target, occupancy); sources != 0; sources &= sources - 1) {
+						squares[slot] = Long.numberOfTrailingZeros(sources);
+						if (isValid(squares, mover)) {
+							int predecessor = signature.index(mover, squares);
+							if (state[predecessor] == OPEN) {
+								if (result == Tablebases.LOSS) {
+									if ((winLevel[predecessor] & 0xFF) > next) {
+										winLevel[predecessor] = (byte) next;
+									}
+								}
+								else {
+									int loss = lossLevel[predecessor] & 0xFF;
+									if (loss != NEVER && loss < next) {
+										lossLevel[predecessor] = (byte) next;
+									}
+									BYTES.getAndAdd(count, predecessor, (byte) -1);
+								}
+							}
+						}
+						squares[slot] = target;
+					}
+				}
+			}
+		}
+
+		// Distinct squares, no pawn on the first or last rank, and the side that just moved not in check
+		private boolean isValid(int[] squares, Color toMove) {
+			long occupied = 0;
+			for (int slot = 0; slot < signature.pieces; slot++) {
+				long bit = Bitboards.bit(squares[slot]);
+				if ((occupied & bit) != 0) {
+					return false;
+				}
+				occupied |= bit;
+				if (signature.types[slot] == PieceType.PAWN && (Bitboards.row(squares[slot]) == 0 || Bitboards.row(squares[slot]) == 7)) {
+					return false;
+				}
+			}
+			Color moved = opponent(toMove);
+			return !isAttacked(squares, king(moved, squares), toMove, -1);
+		}
+
+		private int king(Color color, int[] squares) {
+			return squares[color == Color.WHITE ? 0 : 1];
+		}
+
+		private int slotOn(int[] squares, int square) {
+			for (int slot = 0; slot < signature.pieces; slot++) {
+				if (squares[slot] == square) {
+					return slot;
+				}
+			}
+			return -1;
+		}
+
+		private long occupancy(int[] squares, int skipped) {
+			long occupancy = 0;
+			for (int slot = 0; slot < signature.pieces; slot++) {
+				if (slot != skipped) {
+					occupancy |= Bitboards.bit(squares[slot]);
+				}
+			}
+			return occupancy;
+		}
+
+		// Whether square is attacked by the pieces of color `by`, leaving out the captured slot
+		private boolean isAttacked(int[] squares, int square, Color by, int captured) {
+			long occupancy = occupancy(squares, captured);
+			for (int slot = 0; slot < signature.pieces; slot++) {
+				if (slot != captured && signature.colors[slot] == by
+						&& (attacks(signature.types[slot], by, squares[slot], occupancy) & Bitboards.bit(square)) != 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		// Squares a piece can move to, own pieces included; pawns push only onto empty squares and capture only pieces
+		private long targets(PieceType type, Color color, int square, long occupancy) {
+			if (type != PieceType.PAWN) {
+				return attacks(type, color, square, occupancy);
+			}
+			long targets = Bitboards.pawnAttacks(color, square) & occupancy;
+			int forward = (color == Color.WHITE) ? -8 : 8;
+			int push = square + forward;
+			if ((occupancy & Bitboards.bit(push)) == 0) {
+				targets |= Bitboards.bit(push);
+				int startRow = (color == Color.WHITE) ? 6 : 1;
+				if (Bitboards.row(square) == startRow && (occupancy & Bitboards.bit(push + forward)) == 0) {
+					targets |= Bitboards.bit(push + forward);
+				}
+			}
+			return targets;
+		}
+
+		// Empty squares a piece now on square may have come from without capturing
+		private long origins(PieceType type, Color color, int square, long occupancy) {
+			if (type != PieceType.PAWN) {
+				return attacks(type, color, square, occupancy) & ~occupancy;
+			}
+			int backward = (color == Color.WHITE) ? 8 : -8;
+			int from = square + backward;
+			int row = Bitboards.row(from);
+			if (row == 0 || row == 7 || (occupancy & Bitboards.bit(from)) != 0) {
+				return 0;
+			}
+			long origins = Bitboards.bit(from);
+			int startRow = (color == Color.WHITE) ? 6 : 1;
+			if (Bitboards.row(from + backward) == startRow && (occupancy & Bitboards.bit(from + backward)) == 0) {
+				origins |= Bitboards.bit(from + backward);
+			}
+			return origins;
+		}
+
+		private void write(Path file) throws IOException {
+			int bits = 2 + Math.max(1, 32 - Integer.numberOfLeadingZeros(maxDepth));
+			long[] words = new long[(int) Tablebase.words(size, bits) + 1];
+			for (int index = 0; index < size; index++) {
+				long value = state[index] | (long) (depth[index] & 0xFF) << 2;
+				long bit = (long) index * bits;
+				int word = (int) (bit >>> 6);
+				int offset = (int) (bit & 63);
+				words[word] |= value << offset;
+				if (offset + bits > 64) {
+					words[word + 1] |= value >>> (64 - offset);
+				}
+			}
+
+			// Written aside and moved into place, so a reader never maps a half-written table
+			Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+				byte[] name = signature.name.getBytes(StandardCharsets.US_ASCII);
+				buffer.putInt(Tablebase.MAGIC).putShort(Tablebase.VERSION).put((byte) bits).put((byte) signature.pieces).putLong(size)
+						.put(name).put(new byte[Tablebase.NAME_LENGTH - name.length]);
+				for (long word : words) {
+					if (buffer.remaining() < 8) {
+						flush(channel, buffer);
+					}
+					buffer.putLong(word);
+				}
+				flush(channel, buffer);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+	}
+
+	private interface Range {
+		void run(int from, int to);
+	}
+
+	private static long attacks(PieceType type, Color color, int square, long occupancy) {
+		switch (type) {
+		case KING:
+			return Bitboards.kingAttacks(square);
+		case KNIGHT:
+			return Bitboards.knightAttacks(square);
+		case BISHOP:
+			return Bitboards.bishopAttacks(square, occupancy);
+		case ROOK:
+			return Bitboards.rookAttacks(square, occupancy);
+		case QUEEN:
+			return Bitboards.queenAttacks(square, occupancy);
+		default:
+			return Bitboards.pawnAttacks(color, square);
+		}
+	}
+
+	private static Color opponent(Color color) {
+		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,224 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.Move;
+import chess.MoveList;
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+/*  Exact results for positions of up to 4 pieces, read from the tablebase files of a directory (see TablebaseGenerator).
+ 	A probe answers for the side to move with a packed int: unpack it with wdl and distanceToMate. Tables are opened on
+ 	first use and shared by every thread. Castling and en passant are outside the tables, so positions where either is
+ 	possible are not answered */
+public class Tablebases implements AutoCloseable {
+
+	public static final int UNKNOWN = -1;
+	public static final int DRAW = 0;
+	public static final int WIN = 1;
+	public static final int LOSS = 2;
+
+	static final String EXTENSION = ".ctb";
+
+	private final Path directory;
+	// Copied on write, so that lookups need no lock; an empty Optional records a missing file
+	private volatile Map<String, Optional<Tablebase>> tables = new HashMap<>();
+
+	public Tablebases(Path directory) {
+		this.directory = directory;
+	}
+
+	public static int wdl(int result) {
+		return result & 3;
+	}
+
+	// Plies to mate with best play: the winner mates in that many, the loser is mated in that many
+	public static int distanceToMate(int result) {
+		return result >>> 2;
+	}
+
+	// Packed result for the side to move, or UNKNOWN
+	public int probe(ChessMatch chessMatch) {
+		ChessBoard board = chessMatch.getChessBoard();
+		int count = Long.bitCount(board.getOccupancy());
+		if (count > Signature.MAX_PIECES || chessMatch.getCastlingRights() != 0) {
+			return UNKNOWN;
+		}
+		Color toMove = chessMatch.getSideToMove();
+		int enPassantSquare = chessMatch.getEnPassantSquare();
+		if (enPassantSquare >= 0
+				&& (Bitboards.pawnAttacks(opponent(toMove), enPassantSquare) & board.getMask(toMove, PieceType.PAWN)) != 0) {
+			return UNKNOWN;
+		}
+		PieceType[] types = new PieceType[count];
+		Color[] colors = new Color[count];
+		int[] squares = new int[count];
+		int piece = 0;
+		for (Color color : Color.values()) {
+			for (PieceType type : PieceType.values()) {
+				for (long pieces = board.getMask(color, type); pieces != 0; pieces &= pieces - 1) {
+					types[piece] = type;
+					colors[piece] = color;
+					squares[piece++] = Long.numberOfTrailingZeros(pieces);
+				}
+			}
+		}
+		return probe(types, colors, squares, count, toMove);
+	}
+
+	/*  The legal move with the best result: the fastest win, else a draw, else the slowest loss. Move.NONE when the position
+	 	has no legal move or a result is missing. moves is scratch space */
+	public int bestMove(ChessMatch chessMatch, MoveList moves) {
+		chessMatch.generateLegalMoves(moves);
+		int bestMove = Move.NONE;
+		int bestRank = Integer.MIN_VALUE;
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			chessMatch.playMove(move);
+			int reply = probe(chessMatch);
+			chessMatch.takeBack();
+			if (reply == UNKNOWN) {
+				return Move.NONE;
+			}
+			// Ranked for the mover: the opponent losing sooner is better, the opponent winning later is less bad
+			int distance = distanceToMate(reply);
+			int rank = wdl(reply) == LOSS ? 1000 - distance : wdl(reply) == DRAW ? 0 : distance - 1000;
+			if (rank > bestRank) {
+				bestRank = rank;
+				bestMove = move;
+			}
+		}
+		return bestMove;
+	}
+
+	/*  Result of a position given as pieces; count of them are used. Bare kings are a draw without a table.
+	 	Positions that cannot occur, and materials with no table in the directory, give UNKNOWN */
+	int probe(PieceType[] types, Color[] colors, int[] squares, int count, Color toMove) {
+		if (count == 2) {
+			return DRAW;
+		}
+		List<PieceType> white = new ArrayList<>(Signature.MAX_PIECES);
+		List<PieceType> black = new ArrayList<>(Signature.MAX_PIECES);
+		int[] whiteSquares = new int[Signature.MAX_PIECES];
+		int[] blackSquares = new int[Signature.MAX_PIECES];
+		int whiteKing = -1;
+		int blackKing = -1;
+		for (int i = 0; i < count; i++) {
+			if (types[i] == PieceType.KING) {
+				if (colors[i] == Color.WHITE) {
+					whiteKing = squares[i];
+				}
+				else {
+					blackKing = squares[i];
+				}
+			}
+			else if (colors[i] == Color.WHITE) {
+				insert(white, whiteSquares, types[i], squares[i]);
+			}
+			else {
+				insert(black, blackSquares, types[i], squares[i]);
+			}
+		}
+		if (whiteKing < 0 || blackKing < 0) {
+			return UNKNOWN;
+		}
+
+		// The table has the stronger side as white; a position where black is stronger is looked up with colors swapped
+		// and the board turned upside down, which keeps pawns moving the right way
+		boolean swapped = Signature.isStronger(black, white);
+		Tablebase table = table(Signature.of(white, black).name);
+		if (table == null) {
+			return UNKNOWN;
+		}
+		int flip = swapped ? 56 : 0;
+		List<PieceType> strong = swapped ? black : white;
+		int[] slots = new int[count];
+		slots[0] = (swapped ? blackKing : whiteKing) ^ flip;
+		slots[1] = (swapped ? whiteKing : blackKing) ^ flip;
+		int[] strongSquares = swapped ? blackSquares : whiteSquares;
+		int[] weakSquares = swapped ? whiteSquares : blackSquares;
+		for (int i = 0; i < strong.size(); i++) {
+			slots[2 + i] = strongSquares[i] ^ flip;
+		}
+		for (int i = 0; i < count - 2 - strong.size(); i++) {
+			slots[2 + strong.size() + i] = weakSquares[i] ^ flip;
+		}
+		Color tableToMove = swapped ? opponent(toMove) : toMove;
+		int entry = table.get(table.getSignature().index(tableToMove, slots));
+		return (wdl(entry) == Tablebase.ILLEGAL) ? UNKNOWN : entry;
+	}
+
+	// Keeps the pieces of a side sorted like Signature names them, strongest first
+	private static void insert(List<PieceType> types, int[] squares, PieceType type, int square) {
+		int i = types.size();
+		types.add(type);
+		while (i > 0 && types.get(i - 1).ordinal() < type.ordinal()) {
+			types.set(i, types.get(i - 1));
+			squares[i] = squares[i - 1];
+			i--;
+		}
+		types.set(i, type);
+		squares[i] = square;
+	}
+
+	private Tablebase table(String name) {
+		Optional<Tablebase> table = tables.get(name);
+		if (table == null) {
+			table = open(name);
+		}
+		return table.orElse(null);
+	}
+
+	private synchronized Optional<Tablebase> open(String name) {
+		Optional<Tablebase> table = tables.get(name);
+		if (table != null) {
+			return table;
+		}
+		Path file = directory.resolve(name + EXTENSION);
+		try {
+			table = Files.exists(file) ? Optional.of(new Tablebase(file)) : Optional.empty();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Cannot open tablebase " + file, e);
+		}
+		Map<String, Optional<Tablebase>> copy = new HashMap<>(tables);
+		copy.put(name, table);
+		tables = copy;
+		return table;
+	}
+
+	// Forgets a table recorded as missing, once the generator has written it
+	synchronized void refresh(String name) {
+		Optional<Tablebase> table = tables.get(name);
+		if (table != null && table.isEmpty()) {
+			Map<String, Optional<Tablebase>> copy = new HashMap<>(tables);
+			copy.remove(name);
+			tables = copy;
+		}
+	}
+
+	private static Color opponent(Color color) {
+		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		for (Optional<Tablebase> table : tables.values()) {
+			if (table.isPresent()) {
+				table.get().close();
+			}
+		}
+		tables = new HashMap<>();
+	}
+
+}
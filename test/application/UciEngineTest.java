@@ -0,0 +1,122 @@
+package application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Drives the engine over its standard input and output, as a GUI does
+class UciEngineTest {
+
+	private static final long TIMEOUT_MILLIS = 30000;
+
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+	private PipedOutputStream commands;
+
+	private List<String> transcript(String... lines) throws Exception {
+		InputStream in = System.in;
+		PrintStream out = System.out;
+		commands = new PipedOutputStream();
+		System.setIn(new PipedInputStream(commands));
+		System.setOut(new PrintStream(output, true, StandardCharsets.US_ASCII));
+		Thread engine = new Thread(() -> {
+			try {
+				UciEngine.main(new String[0]);
+			}
+			catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		try {
+			engine.start();
+			for (String line : lines) {
+				if (line.startsWith("wait ")) {
+					waitFor(line.substring(5));
+				}
+				else {
+					send(line);
+				}
+			}
+			send("quit");
+			engine.join(TIMEOUT_MILLIS);
+			assertFalse(engine.isAlive(), "the engine did not quit");
+		}
+		finally {
+			commands.close();
+			System.setIn(in);
+			System.setOut(out);
+		}
+		return List.of(output.toString(StandardCharsets.US_ASCII).split("\\R"));
+	}
+
+	private void send(String line) throws IOException {
+		commands.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+		commands.flush();
+	}
+
+	private void waitFor(String text) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!output.toString(StandardCharsets.US_ASCII).contains(text)) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("No " + text + " in " + output);
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private static List<String> lines(List<String> transcript, String prefix) {
+		List<String> lines = new ArrayList<>();
+		for (String line : transcript) {
+			if (line.startsWith(prefix)) {
+				lines.add(line);
+			}
+		}
+		return lines;
+	}
+
+	// Every token after pv must be a move in coordinate notation, so hashfull and the other fields come before it
+	@Test
+	void infoLinesEndWithThePrincipalVariation() throws Exception {
+		List<String> transcript = transcript("uci", "wait uciok", "position startpos moves e2e4 e7e5", "go depth 4", "wait bestmove");
+		assertTrue(transcript.contains("uciok"));
+		List<String> infos = lines(transcript, "info depth");
+		assertEquals(4, infos.size());
+		for (String info : infos) {
+			String[] tokens = info.split(" ");
+			int pv = List.of(tokens).indexOf("pv");
+			assertTrue(pv > 0 && pv < tokens.length - 1, info);
+			assertTrue(List.of(tokens).subList(0, pv).contains("hashfull"), info);
+			for (int i = pv + 1; i < tokens.length; i++) {
+				assertTrue(tokens[i].matches("[a-h][1-8][a-h][1-8][qrbn]?"), info);
+			}
+		}
+		List<String> bestMoves = lines(transcript, "bestmove ");
+		assertEquals(1, bestMoves.size());
+		assertTrue(bestMoves.get(0).matches("bestmove [a-h][1-8][a-h][1-8][qrbn]?"), bestMoves.get(0));
+	}
+
+	@Test
+	void stopEndsAnInfiniteSearchWithABestMove() throws Exception {
+		List<String> transcript = transcript("position startpos", "go infinite", "wait info depth 2", "stop", "wait bestmove", "isready",
+				"wait readyok");
+		assertEquals(1, lines(transcript, "bestmove ").size());
+	}
+
+	@Test
+	void finishedGameAnswersWithTheNullMove() throws Exception {
+		List<String> transcript = transcript("position startpos moves f2f3 e7e5 g2g4 d8h4", "go depth 3", "wait bestmove");
+		assertEquals(List.of("bestmove 0000"), lines(transcript, "bestmove "));
+	}
+
+}
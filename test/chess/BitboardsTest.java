@@ -0,0 +1,52 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+
+class BitboardsTest {
+
+	private static final int[][] KING_STEPS = { { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, -1 }, { 0, 1 }, { 1, -1 }, { 1, 0 }, { 1, 1 } };
+	private static final int[][] KNIGHT_JUMPS = { { -2, -1 }, { -2, 1 }, { -1, -2 }, { -1, 2 }, { 1, -2 }, { 1, 2 }, { 2, -1 }, { 2, 1 } };
+	// White pawns take towards row 0, black pawns towards row 7
+	private static final int[][] WHITE_PAWN_CAPTURES = { { -1, -1 }, { -1, 1 } };
+	private static final int[][] BLACK_PAWN_CAPTURES = { { 1, -1 }, { 1, 1 } };
+
+	// Squares reached from square by the offsets, tested one by one against the board edges
+	private static long targets(int square, int[][] offsets) {
+		long targets = 0L;
+		for (int[] offset : offsets) {
+			int row = Bitboards.row(square) + offset[0];
+			int column = Bitboards.column(square) + offset[1];
+			if (row >= 0 && row < 8 && column >= 0 && column < 8) {
+				targets |= Bitboards.bit(row, column);
+			}
+		}
+		return targets;
+	}
+
+	@Test
+	void attackTablesMatchTheOffsets() {
+		for (int square = 0; square < 64; square++) {
+			assertEquals(targets(square, KING_STEPS), Bitboards.kingAttacks(square), "king on " + square);
+			assertEquals(targets(square, KNIGHT_JUMPS), Bitboards.knightAttacks(square), "knight on " + square);
+			assertEquals(targets(square, WHITE_PAWN_CAPTURES), Bitboards.pawnAttacks(Color.WHITE, square), "white pawn on " + square);
+			assertEquals(targets(square, BLACK_PAWN_CAPTURES), Bitboards.pawnAttacks(Color.BLACK, square), "black pawn on " + square);
+		}
+	}
+
+	@Test
+	void pawnSetAttacksIsTheUnionOfThePawnAttacks() {
+		long pawns = 0x00FF00000000FF00L | Bitboards.bit(3, 0) | Bitboards.bit(4, 7);
+		for (Color color : Color.values()) {
+			long union = 0L;
+			for (long rest = pawns; rest != 0; rest &= rest - 1) {
+				union |= Bitboards.pawnAttacks(color, Long.numberOfTrailingZeros(rest));
+			}
+			assertEquals(union, Bitboards.pawnSetAttacks(color, pawns), color.toString());
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+
+class FenTest {
+
+	private static void move(ChessMatch chessMatch, String move) {
+		chessMatch.performChessMove(ChessPosition.of(move.charAt(0), move.charAt(1) - '0'), ChessPosition.of(move.charAt(2), move.charAt(3) - '0'));
+	}
+
+	@Test
+	void referencePositionsAreWrittenAsLoaded() {
+		for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+			assertEquals(reference[1], Fen.toString(Fen.newMatch((String) reference[1])));
+		}
+	}
+
+	// The winner is reported as the current player, but the record has the mated side to move
+	@Test
+	void checkmatedPositionRoundTrips() {
+		ChessMatch chessMatch = new ChessMatch();
+		for (String move : new String[] { "f2f3", "e7e5", "g2g4", "d8h4" }) {
+			move(chessMatch, move);
+		}
+		assertTrue(chessMatch.getCheckMate());
+		assertEquals(Color.BLACK, chessMatch.getCurrentPlayer());
+		String fen = Fen.toString(chessMatch);
+		assertEquals("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", fen);
+		ChessMatch loaded = Fen.newMatch(fen);
+		assertTrue(loaded.getCheckMate());
+		assertEquals(fen, Fen.toString(loaded));
+	}
+
+	@Test
+	void stalematedPositionRoundTrips() {
+		ChessMatch chessMatch = Fen.newMatch("7k/8/6K1/8/8/8/8/5Q2 w - - 0 60");
+		move(chessMatch, "f1f7");
+		assertTrue(chessMatch.getStalemate());
+		String fen = Fen.toString(chessMatch);
+		assertEquals("7k/5Q2/6K1/8/8/8/8/8 b - - 1 60", fen);
+		assertTrue(Fen.newMatch(fen).getStalemate());
+	}
+
+	@Test
+	void pawnsMayNotStandOnTheFirstOrLastRank() {
+		assertThrows(ChessException.class, () -> Fen.newMatch("P3k3/8/8/8/8/8/8/4K3 w - - 0 1"));
+		assertThrows(ChessException.class, () -> Fen.newMatch("4k3/8/8/8/8/8/8/4K2p b - - 0 1"));
+	}
+
+	// Counters too large for the match are rejected rather than wrapped around
+	@Test
+	void moveCountersMayNotOverflow() {
+		assertEquals(65535, Fen.newMatch("4k3/8/8/8/8/8/8/4K3 w - - 65535 1").getHalfmoveClock());
+		assertThrows(ChessException.class, () -> Fen.newMatch("4k3/8/8/8/8/8/8/4K3 w - - 65536 1"));
+		assertThrows(ChessException.class, () -> Fen.newMatch("4k3/8/8/8/8/8/8/4K3 w - - 0 4294967297"));
+		assertThrows(ChessException.class, () -> Fen.newMatch("4k3/8/8/8/8/8/8/4K3 w - - 0 99999999999999999999"));
+	}
+
+	// Checkmate and stalemate of a loaded position are worked out when first asked for
+	@Test
+	void loadedGameEndIsFoundOnRequest() {
+		ChessMatch mated = Fen.newMatch("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+		assertTrue(mated.getCheck());
+		assertTrue(mated.getCheckMate());
+		ChessMatch reused = Fen.newMatch(Fen.INITIAL);
+		Fen.load(reused, "7k/5Q2/6K1/8/8/8/8/8 b - - 1 60");
+		assertTrue(reused.getStalemate());
+		Fen.load(reused, Fen.INITIAL);
+		assertFalse(reused.getCheckMate());
+		assertFalse(reused.getStalemate());
+	}
+
+	@Test
+	void sideNotToMoveMayNotBeInCheck() {
+		assertThrows(ChessException.class, () -> Fen.newMatch("4k3/4R3/8/8/8/8/8/4K3 w - - 0 1"));
+	}
+
+}
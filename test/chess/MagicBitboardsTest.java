@@ -0,0 +1,35 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class MagicBitboardsTest {
+
+	// Fixed, so that a failure names the same square and occupancy on every run
+	private static final long SEED = 20261018L;
+
+	@Test
+	void tablesMatchTheRayWalkOnEverySquare() {
+		MagicBitboards.selfCheck(SEED, 2000);
+	}
+
+	@Test
+	void emptyBoardAttacks() {
+		for (int square = 0; square < 64; square++) {
+			assertEquals(14, Long.bitCount(MagicBitboards.rookAttacks(square, 0L)));
+		}
+		assertEquals(7, Long.bitCount(MagicBitboards.bishopAttacks(Bitboards.square(7, 0), 0L)));
+		assertEquals(13, Long.bitCount(MagicBitboards.bishopAttacks(Bitboards.square(4, 3), 0L)));
+		assertEquals(27, Long.bitCount(MagicBitboards.queenAttacks(Bitboards.square(4, 3), 0L)));
+	}
+
+	// A rook on a1 blocked on a3 and c1 reaches a2, a3, b1 and c1, including the blockers
+	@Test
+	void raysStopOnTheFirstBlocker() {
+		long blockers = Bitboards.bit(5, 0) | Bitboards.bit(7, 2) | Bitboards.bit(2, 0);
+		long expected = Bitboards.bit(6, 0) | Bitboards.bit(5, 0) | Bitboards.bit(7, 1) | Bitboards.bit(7, 2);
+		assertEquals(expected, MagicBitboards.rookAttacks(Bitboards.square(7, 0), blockers));
+	}
+
+}
@@ -0,0 +1,52 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+
+class MoveGeneratorTest {
+
+	private static void move(ChessMatch chessMatch, String move) {
+		chessMatch.performChessMove(ChessPosition.of(move.charAt(0), move.charAt(1) - '0'), ChessPosition.of(move.charAt(2), move.charAt(3) - '0'));
+	}
+
+	// Only the evasions: three king moves and two blocks by the free knight; the knight pinned on e2 may not block on c3
+	@Test
+	void inCheckOnlyEvasionsAreLegal() {
+		ChessMatch chessMatch = Fen.newMatch("7k/4r3/8/8/1b6/8/4N3/RN2K3 w - - 0 1");
+		MoveList list = new MoveList();
+		chessMatch.generateLegalMoves(list);
+		assertEquals(5, list.size());
+	}
+
+	// The winner is the current player of a finished game, but the mated side is the one to move and it has no moves
+	@Test
+	void finishedGameHasNoMoves() {
+		ChessMatch chessMatch = new ChessMatch();
+		for (String move : new String[] { "f2f3", "e7e5", "g2g4", "d8h4" }) {
+			move(chessMatch, move);
+		}
+		assertTrue(chessMatch.getCheckMate());
+		assertEquals(Color.BLACK, chessMatch.getCurrentPlayer());
+		assertEquals(Color.WHITE, chessMatch.getSideToMove());
+		MoveList list = new MoveList();
+		chessMatch.generateLegalMoves(list);
+		assertEquals(0, list.size());
+		chessMatch.generateCaptures(list);
+		assertEquals(0, list.size());
+	}
+
+	@Test
+	void stalematedGameHasNoMoves() {
+		ChessMatch chessMatch = Fen.newMatch("7k/8/6K1/8/8/8/8/5Q2 w - - 0 60");
+		move(chessMatch, "f1f7");
+		assertTrue(chessMatch.getStalemate());
+		MoveList list = new MoveList();
+		chessMatch.generateLegalMoves(list);
+		assertEquals(0, list.size());
+	}
+
+}
@@ -0,0 +1,84 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+
+class MoveHistoryTest {
+
+	// Random games, each moved through with undo, redo and jumpTo and compared with the positions recorded on the way
+	@Test
+	void undoRedoAndJumpToRestoreEveryPosition() {
+		Random random = new Random(42);
+		MoveList moves = new MoveList();
+		for (int game = 0; game < 100; game++) {
+			ChessMatch chessMatch = new ChessMatch();
+			List<String> fens = new ArrayList<>();
+			List<Long> hashes = new ArrayList<>();
+			List<Boolean> checks = new ArrayList<>();
+			fens.add(Fen.toString(chessMatch));
+			hashes.add(chessMatch.getHash());
+			checks.add(chessMatch.getCheck());
+			while (!chessMatch.getCheckMate() && !chessMatch.getStalemate() && chessMatch.getPly() < 300) {
+				chessMatch.generateLegalMoves(moves);
+				int move = moves.get(random.nextInt(moves.size()));
+				chessMatch.performChessMove(Move.source(move), Move.target(move));
+				if (chessMatch.getPromoted() != null) {
+					chessMatch.replacePromotedPiece(String.valueOf("NBRQ".charAt(random.nextInt(4))));
+				}
+				assertEquals(chessMatch.getLastMove(), chessMatch.getMoveRecord(chessMatch.getPly() - 1).move());
+				fens.add(Fen.toString(chessMatch));
+				hashes.add(chessMatch.getHash());
+				checks.add(chessMatch.getCheck());
+			}
+			boolean over = chessMatch.getCheckMate() || chessMatch.getStalemate();
+			Color winner = chessMatch.getCurrentPlayer();
+			int length = chessMatch.getPly();
+			for (int i = 0; i < 60; i++) {
+				int operation = random.nextInt(3);
+				if (operation == 0 && chessMatch.getPly() > 0) {
+					chessMatch.undo();
+				}
+				else if (operation == 1 && chessMatch.getPly() < chessMatch.getHistoryLength()) {
+					chessMatch.redo();
+				}
+				else {
+					chessMatch.jumpTo(random.nextInt(length + 1));
+				}
+				int ply = chessMatch.getPly();
+				assertEquals(fens.get(ply), Fen.toString(chessMatch), "game " + game + " ply " + ply);
+				assertEquals(hashes.get(ply), chessMatch.getHash(), fens.get(ply));
+				assertEquals(checks.get(ply), chessMatch.getCheck(), fens.get(ply));
+				if (ply > 0) {
+					assertEquals(hashes.get(ply - 1), chessMatch.getMoveRecord(ply - 1).hash(), fens.get(ply));
+				}
+				assertEquals(over && ply == length, chessMatch.getCheckMate() || chessMatch.getStalemate(), fens.get(ply));
+			}
+			chessMatch.jumpTo(length);
+			assertEquals(length, chessMatch.getHistoryLength());
+			if (over) {
+				assertEquals(winner, chessMatch.getCurrentPlayer());
+			}
+		}
+	}
+
+	@Test
+	void anotherMoveDropsTheMovesTakenBack() {
+		ChessMatch chessMatch = new ChessMatch();
+		chessMatch.performChessMove(ChessPosition.of('e', 2), ChessPosition.of('e', 4));
+		chessMatch.performChessMove(ChessPosition.of('e', 7), ChessPosition.of('e', 5));
+		chessMatch.undo();
+		assertEquals(2, chessMatch.getHistoryLength());
+		chessMatch.performChessMove(ChessPosition.of('c', 7), ChessPosition.of('c', 5));
+		assertEquals(2, chessMatch.getHistoryLength());
+		assertThrows(IllegalStateException.class, chessMatch::redo);
+	}
+
+}
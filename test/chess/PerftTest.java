@@ -0,0 +1,52 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+	// Deep enough to go through castling, en passant, promotions and discovered checks in every reference position
+	private static final int DEPTH = 3;
+
+	@Test
+	void referencePositionsMatchThePublishedCounts() {
+		for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+			long[] expected = (long[]) reference[2];
+			for (int depth = 1; depth <= DEPTH; depth++) {
+				assertEquals(expected[depth - 1], Perft.perft(Fen.newMatch((String) reference[1]), depth), reference[0] + " depth " + depth);
+			}
+		}
+	}
+
+	@Test
+	void divideNeedsAtLeastOnePly() {
+		ChessMatch chessMatch = new ChessMatch();
+		PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+		assertEquals(1, Perft.perft(chessMatch, 0));
+		assertEquals(20, Perft.divide(chessMatch, 1, out));
+		assertThrows(IllegalArgumentException.class, () -> Perft.divide(chessMatch, 0, out));
+		assertThrows(IllegalArgumentException.class, () -> Perft.parallelDivide(chessMatch, 0, ForkJoinPool.commonPool(), out));
+		assertThrows(IllegalArgumentException.class, () -> Perft.perft(chessMatch, -1));
+	}
+
+	@Test
+	void parallelPerftMatchesPerft() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+				assertEquals(((long[]) reference[2])[DEPTH - 1], Perft.parallelPerft(Fen.newMatch((String) reference[1]), DEPTH, pool),
+						(String) reference[0]);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+class PieceSquareTablesTest {
+
+	// Middlegame score, endgame score and phase summed over the board from scratch, to compare with the incremental ones
+	private static void assertIncrementalScores(ChessMatch chessMatch) {
+		ChessBoard board = chessMatch.getChessBoard();
+		int middlegame = 0;
+		int endgame = 0;
+		int phase = 0;
+		for (Color color : Color.values()) {
+			for (PieceType type : PieceType.values()) {
+				for (long pieces = board.getMask(color, type); pieces != 0; pieces &= pieces - 1) {
+					int square = Long.numberOfTrailingZeros(pieces);
+					middlegame += PieceSquareTables.middlegame(color, type, square);
+					endgame += PieceSquareTables.endgame(color, type, square);
+					phase += PieceSquareTables.phase(type);
+				}
+			}
+		}
+		String fen = Fen.toString(chessMatch);
+		assertEquals(middlegame, board.getMiddlegameScore(), fen);
+		assertEquals(endgame, board.getEndgameScore(), fen);
+		assertEquals(phase, board.getPhase(), fen);
+	}
+
+	// Random games mixing validated moves, with every promotion choice, and played moves that are taken back and played again
+	@Test
+	void incrementalScoresFollowEveryMove() {
+		Random random = new Random(7);
+		MoveList moves = new MoveList();
+		for (int game = 0; game < 200; game++) {
+			ChessMatch chessMatch = new ChessMatch();
+			// Played moves do not work out mate, so the game also ends when there is no legal move
+			for (int ply = 0; ply < 300 && !chessMatch.getCheckMate() && !chessMatch.getStalemate(); ply++) {
+				chessMatch.generateLegalMoves(moves);
+				if (moves.size() == 0) {
+					break;
+				}
+				int move = moves.get(random.nextInt(moves.size()));
+				if (random.nextInt(3) == 0) {
+					chessMatch.performChessMove(Move.source(move), Move.target(move));
+					if (chessMatch.getPromoted() != null) {
+						chessMatch.replacePromotedPiece(String.valueOf("NBRQ".charAt(random.nextInt(4))));
+					}
+					assertIncrementalScores(chessMatch);
+				}
+				else {
+					chessMatch.playMove(move);
+					assertIncrementalScores(chessMatch);
+					chessMatch.takeBack();
+					assertIncrementalScores(chessMatch);
+					chessMatch.playMove(move);
+					assertIncrementalScores(chessMatch);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.PieceType;
+
+class SanTest {
+
+	private final MoveList scratch = new MoveList();
+
+	private int resolve(String fen, String san) {
+		return San.resolve(Fen.newMatch(fen), san, scratch);
+	}
+
+	private static int square(String name) {
+		return (8 - (name.charAt(1) - '0')) * 8 + name.charAt(0) - 'a';
+	}
+
+	@Test
+	void pawnAndPieceMoves() {
+		int move = resolve(Fen.INITIAL, "e4");
+		assertEquals(Move.encode(square("e2"), square("e4"), Move.DOUBLE_PAWN_PUSH), move);
+		move = resolve(Fen.INITIAL, "Nf3");
+		assertEquals(Move.encode(square("g1"), square("f3"), Move.QUIET), move);
+	}
+
+	@Test
+	void enPassantCapture() {
+		int move = resolve("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "exd6");
+		assertEquals(Move.encode(square("e5"), square("d6"), Move.EN_PASSANT), move);
+	}
+
+	// Both knights reach d2: the file of the source picks one
+	@Test
+	void disambiguationByFile() {
+		String fen = "4k3/8/8/8/8/5N2/8/1N2K3 w - - 0 1";
+		assertEquals(San.AMBIGUOUS, resolve(fen, "Nd2"));
+		assertEquals(square("b1"), Move.source(resolve(fen, "Nbd2")));
+		assertEquals(square("f3"), Move.source(resolve(fen, "Nfd2")));
+		assertEquals(square("f3"), Move.source(resolve(fen, "Nf3d2")));
+	}
+
+	// Both rooks on the a-file reach a3: the rank of the source picks one
+	@Test
+	void disambiguationByRank() {
+		String fen = "4k3/8/8/R7/8/8/8/R3K3 w - - 0 1";
+		assertEquals(San.AMBIGUOUS, resolve(fen, "Ra3"));
+		assertEquals(square("a1"), Move.source(resolve(fen, "R1a3")));
+		assertEquals(square("a5"), Move.source(resolve(fen, "R5a3")));
+		assertEquals(square("a1"), Move.source(resolve(fen, "Rb1")));
+	}
+
+	@Test
+	void promotions() {
+		String fen = "r3k3/1P6/8/8/8/8/8/4K3 w - - 0 1";
+		int move = resolve(fen, "b8=Q");
+		assertTrue(Move.isPromotion(move));
+		assertEquals(PieceType.QUEEN, Move.promotionType(move));
+		assertEquals(PieceType.KNIGHT, Move.promotionType(resolve(fen, "b8N")));
+		move = resolve(fen, "bxa8=R+");
+		assertEquals(Move.CAPTURE_PROMOTION, Move.flags(move) & Move.CAPTURE_PROMOTION);
+		assertEquals(PieceType.ROOK, Move.promotionType(move));
+		assertEquals(square("a8"), Move.target(move));
+		assertEquals(San.ILLEGAL, resolve(fen, "b8"));
+	}
+
+	@Test
+	void castling() {
+		String fen = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+		assertEquals(Move.SHORT_CASTLING, Move.flags(resolve(fen, "O-O")));
+		assertEquals(Move.LONG_CASTLING, Move.flags(resolve(fen, "0-0-0")));
+		assertEquals(Move.SHORT_CASTLING, Move.flags(resolve(fen, "O-O+")));
+		assertEquals(San.ILLEGAL, resolve("r3k2r/8/8/8/8/8/8/R3K2R w Qkq - 0 1", "O-O"));
+	}
+
+	@Test
+	void rejectedTokens() {
+		assertEquals(San.ILLEGAL, resolve(Fen.INITIAL, "e5"));
+		assertEquals(San.ILLEGAL, resolve(Fen.INITIAL, "Nd2"));
+		assertEquals(San.MALFORMED, resolve(Fen.INITIAL, "e9"));
+		assertEquals(San.MALFORMED, resolve(Fen.INITIAL, "Zf3"));
+		assertEquals(San.MALFORMED, resolve(Fen.INITIAL, "x"));
+	}
+
+}
@@ -0,0 +1,71 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.enums.Color;
+
+class SnapshotTest {
+
+	private static void walk(ChessMatch chessMatch, int depth, MoveList[] lists) {
+		assertRoundTrip(chessMatch);
+		if (depth == 0) {
+			return;
+		}
+		MoveList moves = lists[depth];
+		chessMatch.generateLegalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			chessMatch.playMove(moves.get(i));
+			walk(chessMatch, depth - 1, lists);
+			chessMatch.takeBack();
+		}
+	}
+
+	private static void assertRoundTrip(ChessMatch chessMatch) {
+		Snapshot snapshot = chessMatch.snapshot();
+		ChessMatch restored = snapshot.toMatch();
+		String fen = Fen.toString(chessMatch);
+		assertEquals(fen, Fen.toString(restored));
+		assertEquals(fen, snapshot.toString());
+		assertEquals(chessMatch.getHash(), restored.getHash(), fen);
+		assertEquals(snapshot, restored.snapshot(), fen);
+	}
+
+	@Test
+	void snapshotsRestoreTheSamePosition() {
+		MoveList[] lists = { null, new MoveList(), new MoveList() };
+		for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+			walk(Fen.newMatch((String) reference[1]), 2, lists);
+		}
+	}
+
+	// getCurrentPlayer names the winner once the game is over; the snapshot keeps the mated side to move
+	@Test
+	void checkmatedPositionRoundTrips() {
+		ChessMatch chessMatch = new ChessMatch();
+		chessMatch.performChessMove(ChessPosition.of('f', 2), ChessPosition.of('f', 3));
+		chessMatch.performChessMove(ChessPosition.of('e', 7), ChessPosition.of('e', 5));
+		chessMatch.performChessMove(ChessPosition.of('g', 2), ChessPosition.of('g', 4));
+		chessMatch.performChessMove(ChessPosition.of('d', 8), ChessPosition.of('h', 4));
+		assertTrue(chessMatch.getCheckMate());
+		Snapshot snapshot = chessMatch.snapshot();
+		assertEquals(Color.WHITE, snapshot.getCurrentPlayer());
+		assertEquals(3, snapshot.getFullmoveNumber());
+		ChessMatch restored = snapshot.toMatch();
+		assertTrue(restored.getCheckMate());
+		assertRoundTrip(chessMatch);
+	}
+
+	@Test
+	void snapshotIsNotChangedByLaterMoves() {
+		ChessMatch chessMatch = new ChessMatch();
+		Snapshot snapshot = chessMatch.snapshot();
+		chessMatch.performChessMove(ChessPosition.of('e', 2), ChessPosition.of('e', 4));
+		assertEquals(Fen.INITIAL, snapshot.toString());
+		snapshot.load(chessMatch);
+		assertEquals(Fen.INITIAL, Fen.toString(chessMatch));
+	}
+
+}
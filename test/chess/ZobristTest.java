@@ -0,0 +1,93 @@
+package chess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ZobristTest {
+
+	// Piece part of the key worked out from scratch
+	private static long pieceKey(ChessMatch chessMatch) {
+		long key = 0L;
+		ChessPiece[][] pieces = chessMatch.getPieces();
+		for (int row = 0; row < 8; row++) {
+			for (int column = 0; column < 8; column++) {
+				ChessPiece piece = pieces[row][column];
+				if (piece != null) {
+					key ^= Zobrist.piece(piece.getColor(), piece.getType(), Bitboards.square(row, column));
+				}
+			}
+		}
+		return key;
+	}
+
+	private static void walk(ChessMatch chessMatch, int depth, MoveList[] lists) {
+		MoveList moves = lists[depth];
+		chessMatch.generateLegalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			long hash = chessMatch.getHash();
+			chessMatch.playMove(moves.get(i));
+			assertEquals(pieceKey(chessMatch), chessMatch.getChessBoard().getZobristKey(), Fen.toString(chessMatch));
+			assertEquals(Fen.newMatch(Fen.toString(chessMatch)).getHash(), chessMatch.getHash(), Fen.toString(chessMatch));
+			if (depth > 1) {
+				walk(chessMatch, depth - 1, lists);
+			}
+			chessMatch.takeBack();
+			assertEquals(hash, chessMatch.getHash(), Move.toString(moves.get(i)));
+		}
+	}
+
+	@Test
+	void incrementalKeyMatchesTheKeyOfTheLoadedPosition() {
+		MoveList[] lists = { null, new MoveList(), new MoveList(), new MoveList() };
+		for (Object[] reference : Perft.REFERENCE_POSITIONS) {
+			walk(Fen.newMatch((String) reference[1]), 2, lists);
+		}
+	}
+
+	// The winner is the current player once the game is over, but the key is that of the position with the mated side to move
+	@Test
+	void checkmatedPositionHasTheKeyOfItsFen() {
+		ChessMatch chessMatch = new ChessMatch();
+		move(chessMatch, "f2", "f3");
+		move(chessMatch, "e7", "e5");
+		move(chessMatch, "g2", "g4");
+		move(chessMatch, "d8", "h4");
+		assertTrue(chessMatch.getCheckMate());
+		assertEquals(Fen.newMatch("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3").getHash(), chessMatch.getHash());
+		chessMatch.undo();
+		assertEquals(chessMatch.getMoveRecord(3).hash(), chessMatch.getHash());
+	}
+
+	@Test
+	void castlingRightsFollowKingAndRookMoves() {
+		ChessMatch chessMatch = Fen.newMatch("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+		move(chessMatch, "h1", "h8");
+		assertEquals(MoveGenerator.WHITE_LONG | MoveGenerator.BLACK_LONG, chessMatch.getCastlingRights());
+		assertEquals(Fen.newMatch(Fen.toString(chessMatch)).getHash(), chessMatch.getHash());
+		move(chessMatch, "e8", "d7");
+		assertEquals(MoveGenerator.WHITE_LONG, chessMatch.getCastlingRights());
+		chessMatch.jumpTo(0);
+		assertEquals(MoveGenerator.WHITE_SHORT | MoveGenerator.WHITE_LONG | MoveGenerator.BLACK_SHORT | MoveGenerator.BLACK_LONG,
+				chessMatch.getCastlingRights());
+	}
+
+	private static void move(ChessMatch chessMatch, String source, String target) {
+		chessMatch.performChessMove(ChessPosition.of(source.charAt(0), source.charAt(1) - '0'), ChessPosition.of(target.charAt(0), target.charAt(1) - '0'));
+	}
+
+	@Test
+	void transpositionsGetEqualKeys() {
+		ChessMatch first = new ChessMatch();
+		move(first, "e2", "e4");
+		move(first, "e7", "e5");
+		move(first, "g1", "f3");
+		ChessMatch second = new ChessMatch();
+		move(second, "g1", "f3");
+		move(second, "e7", "e5");
+		move(second, "e2", "e4");
+		assertEquals(first.getHash(), second.getHash());
+	}
+
+}
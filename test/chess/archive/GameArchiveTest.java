@@ -0,0 +1,114 @@
+package chess.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.pgn.PgnGame;
+
+class GameArchiveTest {
+
+	private static final String PROMOTION_FEN = "4k3/1P6/8/8/8/8/8/4K3 w - - 0 1";
+
+	private static void move(ChessMatch chessMatch, String move) {
+		chessMatch.performChessMove(ChessPosition.of(move.charAt(0), move.charAt(1) - '0'), ChessPosition.of(move.charAt(2), move.charAt(3) - '0'));
+	}
+
+	// An opening up to short castling, then an underpromotion from a FEN position; returns the final FEN of each game
+	private static String[] write(Path file) throws IOException {
+		String[] fens = new String[2];
+		try (GameArchiveWriter writer = new GameArchiveWriter(file)) {
+			ChessMatch chessMatch = new ChessMatch();
+			writer.beginGame(chessMatch);
+			for (String move : new String[] { "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "e1g1" }) {
+				move(chessMatch, move);
+				writer.addLastMove(chessMatch);
+			}
+			writer.endGame(PgnGame.UNKNOWN);
+			fens[0] = Fen.toString(chessMatch);
+
+			chessMatch = Fen.newMatch(PROMOTION_FEN);
+			writer.beginGame(chessMatch);
+			move(chessMatch, "b7b8");
+			chessMatch.replacePromotedPiece("N");
+			writer.addLastMove(chessMatch);
+			move(chessMatch, "e8e7");
+			writer.addLastMove(chessMatch);
+			writer.endGame(PgnGame.DRAW);
+			fens[1] = Fen.toString(chessMatch);
+		}
+		return fens;
+	}
+
+	@Test
+	void roundTrip(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("games.cga");
+		String[] fens = write(file);
+		try (GameArchive archive = new GameArchive(file)) {
+			assertEquals(2, archive.getGameCount());
+			assertEquals(7, archive.getPlyCount(0));
+			assertEquals(PgnGame.UNKNOWN, archive.getResult(0));
+			assertNull(archive.getStartFen(0));
+			assertEquals(2, archive.getPlyCount(1));
+			assertEquals(PgnGame.DRAW, archive.getResult(1));
+			assertEquals(PROMOTION_FEN, archive.getStartFen(1));
+
+			ChessMatch chessMatch = new ChessMatch();
+			for (int game = 0; game < fens.length; game++) {
+				archive.replay(game, chessMatch);
+				assertEquals(fens[game], Fen.toString(chessMatch));
+			}
+			archive.replay(0, 4, chessMatch);
+			assertEquals("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3", Fen.toString(chessMatch));
+			assertThrows(IndexOutOfBoundsException.class, () -> archive.replay(1, 3, new ChessMatch()));
+		}
+	}
+
+	// A writer that was never closed leaves no index: the records are scanned, and a record cut short is left out
+	@Test
+	void unclosedArchiveIsScanned(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("games.cga");
+		String[] fens = write(file);
+		byte[] bytes = Files.readAllBytes(file);
+		int indexOffset = (int) ByteBuffer.wrap(bytes).getLong((int) GameArchive.INDEX_OFFSET_POSITION);
+		ByteBuffer.wrap(bytes).putLong((int) GameArchive.INDEX_OFFSET_POSITION, 0L);
+
+		Path unclosed = dir.resolve("unclosed.cga");
+		Files.write(unclosed, Arrays.copyOf(bytes, indexOffset));
+		try (GameArchive archive = new GameArchive(unclosed)) {
+			assertEquals(2, archive.getGameCount());
+			ChessMatch chessMatch = new ChessMatch();
+			archive.replay(1, chessMatch);
+			assertEquals(fens[1], Fen.toString(chessMatch));
+		}
+
+		Path truncated = dir.resolve("truncated.cga");
+		Files.write(truncated, Arrays.copyOf(bytes, indexOffset - 1));
+		try (GameArchive archive = new GameArchive(truncated)) {
+			assertEquals(1, archive.getGameCount());
+			ChessMatch chessMatch = new ChessMatch();
+			archive.replay(0, chessMatch);
+			assertEquals(fens[0], Fen.toString(chessMatch));
+		}
+	}
+
+	@Test
+	void rejectsOtherFiles(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("games.pgn");
+		Files.writeString(file, "[Event \"Not an archive\"]\n");
+		assertThrows(IOException.class, () -> new GameArchive(file));
+	}
+
+}
@@ -0,0 +1,50 @@
+package chess.book;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+
+class PolyglotKeysTest {
+
+	// The example keys of the Polyglot book format description: moves from the initial position and the key reached
+	private static final String[][] EXAMPLES = {
+		{ "", "463b96181691fc9c" },
+		{ "e2e4", "823c9b50fd114196" },
+		{ "e2e4 d7d5", "0756b94461c50fb0" },
+		{ "e2e4 d7d5 e4e5", "662fafb965db29d4" },
+		{ "e2e4 d7d5 e4e5 f7f5", "22a48b5a8e47ff78" },
+		{ "e2e4 d7d5 e4e5 f7f5 e1e2", "652a607ca3f242c1" },
+		{ "e2e4 d7d5 e4e5 f7f5 e1e2 e8f7", "00fdd303c946bdd9" },
+		{ "a2a4 b7b5 h2h4 b5b4 c2c4", "3c8123ea7b067637" },
+		{ "a2a4 b7b5 h2h4 b5b4 c2c4 b4c3 a1a3", "5c3f9b829b279560" }
+	};
+
+	private static ChessMatch play(String moves) {
+		ChessMatch chessMatch = new ChessMatch();
+		for (String move : moves.split(" ")) {
+			if (!move.isEmpty()) {
+				chessMatch.performChessMove(ChessPosition.of(move.charAt(0), move.charAt(1) - '0'), ChessPosition.of(move.charAt(2), move.charAt(3) - '0'));
+			}
+		}
+		return chessMatch;
+	}
+
+	@Test
+	void defaultTableGivesThePublishedKeys() {
+		for (String[] example : EXAMPLES) {
+			assertEquals(Long.parseUnsignedLong(example[1], 16), PolyglotKeys.DEFAULT.key(play(example[0])), example[0]);
+		}
+	}
+
+	@Test
+	void customTableIsOnlyUsedWhenNamed() throws Exception {
+		assertEquals(PolyglotKeys.DEFAULT, PolyglotKeys.named(""));
+		assertEquals(PolyglotKeys.CUSTOM, PolyglotKeys.named("custom"));
+		assertNotEquals(PolyglotKeys.DEFAULT.key(play("")), PolyglotKeys.CUSTOM.key(play("")));
+	}
+
+}
@@ -0,0 +1,99 @@
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.enums.Color;
+
+class MoveOrderingTest {
+
+	// Winning captures of a queen, a queen again with a dearer piece, a rook and a loose pawn, then Rxd6 losing the rook
+	private static final String CAPTURES = "4k3/8/R2p4/2q1r3/1P5p/3N4/8/K6Q w - - 0 1";
+
+	private final ChessMatch chessMatch = Fen.newMatch(CAPTURES);
+	private final MoveOrdering ordering = new MoveOrdering(new StaticExchange());
+	private final MoveList moves = new MoveList();
+
+	private int find(String move) {
+		for (int i = 0; i < moves.size(); i++) {
+			if (Move.toString(moves.get(i)).equals(move)) {
+				return moves.get(i);
+			}
+		}
+		throw new AssertionError(move + " is not a legal move");
+	}
+
+	private String[] order(int hashMove, int ply) {
+		ordering.score(chessMatch, moves, hashMove, ply);
+		String[] order = new String[moves.size()];
+		for (int i = 0; i < moves.size(); i++) {
+			order[i] = Move.toString(moves.pickBest(i));
+		}
+		return order;
+	}
+
+	@Test
+	void capturesByMostValuableVictimThenLeastValuableAttacker() {
+		chessMatch.generateLegalMoves(moves);
+		String[] order = order(Move.NONE, 0);
+		assertEquals("b4c5", order[0]);
+		assertEquals("d3c5", order[1]);
+		assertEquals("d3e5", order[2]);
+		assertEquals("h1h4", order[3]);
+		assertEquals("a6d6", order[order.length - 1]);
+	}
+
+	// The latest killer of the ply comes first, then the older one, then the quiet move with the most history
+	@Test
+	void killersThenHistory() {
+		chessMatch.generateLegalMoves(moves);
+		ordering.recordCutoff(Color.WHITE, find("a1b1"), 0, 3);
+		ordering.recordCutoff(Color.WHITE, find("h1h2"), 0, 3);
+		ordering.recordCutoff(Color.WHITE, find("h1g2"), 5, 4);
+		String[] order = order(Move.NONE, 0);
+		assertEquals("h1h4", order[3]);
+		assertEquals("h1h2", order[4]);
+		assertEquals("a1b1", order[5]);
+		assertEquals("h1g2", order[6]);
+
+		// A new search forgets the killers but keeps half the history
+		ordering.newSearch();
+		order = order(Move.NONE, 0);
+		assertEquals("h1g2", order[4]);
+		assertEquals(8, moves.getScore(4));
+	}
+
+	@Test
+	void hashMoveFirst() {
+		chessMatch.generateLegalMoves(moves);
+		assertEquals("a6a7", order(find("a6a7"), 0)[0]);
+	}
+
+	@Test
+	void switchedOff() {
+		chessMatch.generateLegalMoves(moves);
+		ordering.recordCutoff(Color.WHITE, find("h1h2"), 0, 3);
+		ordering.setFlags(0);
+		ordering.score(chessMatch, moves, find("a6a7"), 0);
+		for (int i = 0; i < moves.size(); i++) {
+			assertEquals(0, moves.getScore(i));
+		}
+	}
+
+	@Test
+	void losingCapturesScoreBelowZero() {
+		chessMatch.generateCaptures(moves);
+		ordering.scoreCaptures(chessMatch, moves);
+		for (int i = 0; i < moves.size(); i++) {
+			boolean losing = Move.toString(moves.get(i)).equals("a6d6");
+			assertTrue(losing == (moves.getScore(i) < 0), Move.toString(moves.get(i)));
+		}
+	}
+
+}
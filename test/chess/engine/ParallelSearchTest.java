@@ -0,0 +1,66 @@
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.Move;
+
+class ParallelSearchTest {
+
+	private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+	@Test
+	void everySearchAgesTheTableOnce() {
+		TranspositionTable table = new TranspositionTable(1, false);
+		ParallelSearch search = new ParallelSearch(table, 4);
+		try {
+			ChessMatch chessMatch = Fen.newMatch(KIWIPETE);
+			for (int i = 1; i <= 3; i++) {
+				search.search(chessMatch, 3, 0, 0);
+				assertEquals(i, table.getGeneration());
+			}
+			assertEquals(KIWIPETE, Fen.toString(chessMatch));
+		}
+		finally {
+			search.shutdown();
+		}
+	}
+
+	@Test
+	void singleSearchAgesTheTableOnce() {
+		TranspositionTable table = new TranspositionTable(1, false);
+		new Search(table).search(Fen.newMatch(KIWIPETE), 2, 0, 0);
+		assertEquals(1, table.getGeneration());
+	}
+
+	@Test
+	void findsMateWithHelpers() {
+		ParallelSearch search = new ParallelSearch(new TranspositionTable(1, false), 4);
+		try {
+			SearchResult result = search.search(Fen.newMatch("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 4, 0, 0);
+			assertEquals("a1a8", Move.toString(result.getBestMove()));
+			assertEquals(1, Search.movesToMate(result.getScore()));
+		}
+		finally {
+			search.shutdown();
+		}
+	}
+
+	// Helpers search a copy, which must be the same position as the match even when the game is over
+	@Test
+	void copyOfFinishedGameIsTheSamePosition() {
+		ChessMatch chessMatch = new ChessMatch();
+		for (String move : new String[] { "f2f3", "e7e5", "g2g4", "d8h4" }) {
+			chessMatch.performChessMove(ChessPosition.of(move.charAt(0), move.charAt(1) - '0'), ChessPosition.of(move.charAt(2), move.charAt(3) - '0'));
+		}
+		ChessMatch copy = chessMatch.copy();
+		assertEquals(Fen.toString(chessMatch), Fen.toString(copy));
+		assertEquals(chessMatch.getHash(), copy.getHash());
+		assertEquals(chessMatch.getSideToMove(), copy.getSideToMove());
+	}
+
+}
@@ -0,0 +1,70 @@
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.Move;
+
+class SearchTest {
+
+	private static SearchResult search(ChessMatch chessMatch, int depth) {
+		return new Search(new TranspositionTable(1, false)).search(chessMatch, depth, 0, 0);
+	}
+
+	private static void move(ChessMatch chessMatch, String move) {
+		chessMatch.performChessMove(ChessPosition.of(move.charAt(0), move.charAt(1) - '0'), ChessPosition.of(move.charAt(2), move.charAt(3) - '0'));
+	}
+
+	@Test
+	void findsBackRankMateInOne() {
+		SearchResult result = search(Fen.newMatch("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 4);
+		assertEquals("a1a8", Move.toString(result.getBestMove()));
+		assertEquals(1, Search.movesToMate(result.getScore()));
+	}
+
+	// Ra7 shuts the king in on the back rank and Rb8 mates; no check on the first move mates at once
+	@Test
+	void findsRookLadderMateInTwo() {
+		SearchResult result = search(Fen.newMatch("6k1/8/8/8/8/8/R7/1R4K1 w - - 0 1"), 5);
+		assertTrue(Search.isMateScore(result.getScore()));
+		assertEquals(2, Search.movesToMate(result.getScore()));
+		assertEquals("a2a7", Move.toString(result.getBestMove()));
+	}
+
+	@Test
+	void leavesTheMatchAsItFoundIt() {
+		String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+		ChessMatch chessMatch = Fen.newMatch(fen);
+		long hash = chessMatch.getHash();
+		search(chessMatch, 4);
+		assertEquals(fen, Fen.toString(chessMatch));
+		assertEquals(hash, chessMatch.getHash());
+	}
+
+	// performChessMove hands the turn of a finished game back to the winner; the search still sees the mated side to move
+	@Test
+	void gameEndedByCheckmateIsLost() {
+		ChessMatch chessMatch = new ChessMatch();
+		for (String move : new String[] { "f2f3", "e7e5", "g2g4", "d8h4" }) {
+			move(chessMatch, move);
+		}
+		SearchResult result = search(chessMatch, 3);
+		assertEquals(Move.NONE, result.getBestMove());
+		assertEquals(-Search.MATE, result.getScore());
+	}
+
+	@Test
+	void gameEndedByStalemateIsDrawn() {
+		ChessMatch chessMatch = Fen.newMatch("7k/8/6K1/8/8/8/8/5Q2 w - - 0 60");
+		move(chessMatch, "f1f7");
+		SearchResult result = search(chessMatch, 3);
+		assertEquals(Move.NONE, result.getBestMove());
+		assertEquals(0, result.getScore());
+	}
+
+}
@@ -0,0 +1,72 @@
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import chess.Fen;
+import chess.Move;
+
+class StaticExchangeTest {
+
+	private static final int PAWN = 82;
+	private static final int KNIGHT = 337;
+	private static final int ROOK = 477;
+	private static final int QUEEN = 1025;
+
+	private final StaticExchange exchange = new StaticExchange();
+
+	private static int square(String name) {
+		return (8 - (name.charAt(1) - '0')) * 8 + name.charAt(0) - 'a';
+	}
+
+	private int evaluate(String fen, String source, String target, int flags) {
+		return exchange.evaluate(Fen.newMatch(fen).getChessBoard(), Move.encode(square(source), square(target), flags));
+	}
+
+	@Test
+	void undefendedPawn() {
+		assertEquals(PAWN, evaluate("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1", "e1", "e5", Move.CAPTURE));
+	}
+
+	// The knight takes first and the queen, rook and bishop behind it never get back the knight it loses
+	@Test
+	void knightForPawn() {
+		assertEquals(PAWN - KNIGHT, evaluate("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1", "d3", "e5", Move.CAPTURE));
+	}
+
+	@Test
+	void pawnTakesDefendedKnight() {
+		assertEquals(KNIGHT - PAWN, evaluate("4k3/8/2p5/3n4/4P3/8/8/4K3 w - - 0 1", "e4", "d5", Move.CAPTURE));
+	}
+
+	@Test
+	void queenTakesDefendedPawn() {
+		assertEquals(PAWN - QUEEN, evaluate("4k3/8/2p5/3p4/8/8/8/3QK3 w - - 0 1", "d1", "d5", Move.CAPTURE));
+	}
+
+	// Doubled rooks on both sides: the second white rook joins through the first, and black still has the last word
+	@Test
+	void xRayRooks() {
+		assertEquals(PAWN - ROOK, evaluate("3rk3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2", "d5", Move.CAPTURE));
+	}
+
+	// The king only takes back on a square the other side no longer attacks
+	@Test
+	void kingRecapture() {
+		assertEquals(PAWN - ROOK, evaluate("8/8/5k2/4p3/8/8/8/4RK2 w - - 0 1", "e1", "e5", Move.CAPTURE));
+		assertEquals(PAWN, evaluate("8/8/5k2/4p3/3P4/8/8/4RK2 w - - 0 1", "e1", "e5", Move.CAPTURE));
+	}
+
+	@Test
+	void enPassant() {
+		assertEquals(PAWN, evaluate("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5", "d6", Move.EN_PASSANT));
+	}
+
+	@Test
+	void quietMoves() {
+		assertEquals(0, evaluate(Fen.INITIAL, "g1", "f3", Move.QUIET));
+		assertEquals(-KNIGHT, evaluate("4k3/8/8/8/6p1/8/8/4K1N1 w - - 0 1", "g1", "f3", Move.QUIET));
+	}
+
+}
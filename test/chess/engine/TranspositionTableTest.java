@@ -0,0 +1,99 @@
+package chess.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+
+	// Keys that share the bucket of key 1 in a 1 MB table, whatever its bucket count
+	private static long sameBucket(int i) {
+		return 1L + ((long) i << 40);
+	}
+
+	@Test
+	void storedDataIsReadBack() {
+		for (boolean offHeap : new boolean[] { false, true }) {
+			TranspositionTable table = new TranspositionTable(1, offHeap);
+			table.store(0x1234_5678_9ABC_DEF0L, 0x0ABC, -250, 7, TranspositionTable.LOWER_BOUND);
+			long data = table.probe(0x1234_5678_9ABC_DEF0L);
+			assertEquals(0x0ABC, TranspositionTable.move(data));
+			assertEquals(-250, TranspositionTable.score(data));
+			assertEquals(7, TranspositionTable.depth(data));
+			assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(data));
+		}
+	}
+
+	// A key landing in the same bucket, or a torn entry whose halves no longer XOR back to the key, reads as a miss
+	@Test
+	void probeVerifiesTheKey() {
+		TranspositionTable table = new TranspositionTable(1, false);
+		table.store(sameBucket(0), 1, 10, 3, TranspositionTable.EXACT);
+		assertEquals(0L, table.probe(sameBucket(1)));
+		assertEquals(0L, table.probe(sameBucket(0) ^ 1L << 63));
+		assertEquals(10, TranspositionTable.score(table.probe(sameBucket(0))));
+	}
+
+	// A shallower result for the same position does not overwrite a much deeper one from this search unless it is exact
+	@Test
+	void deeperEntryOfTheSameSearchIsKept() {
+		TranspositionTable table = new TranspositionTable(1, false);
+		table.newSearch();
+		table.store(42L, 5, 100, 10, TranspositionTable.EXACT);
+		table.store(42L, 6, 50, 2, TranspositionTable.UPPER_BOUND);
+		assertEquals(10, TranspositionTable.depth(table.probe(42L)));
+		table.store(42L, 6, 50, 2, TranspositionTable.EXACT);
+		assertEquals(2, TranspositionTable.depth(table.probe(42L)));
+		// Without a move of its own the new result keeps the move found before
+		table.store(42L, 0, 60, 3, TranspositionTable.EXACT);
+		assertEquals(6, TranspositionTable.move(table.probe(42L)));
+	}
+
+	// With the bucket full, an entry from an older search goes before a shallower one from the current search
+	@Test
+	void olderSearchesAreReplacedFirst() {
+		TranspositionTable table = new TranspositionTable(1, false);
+		table.newSearch();
+		table.store(sameBucket(0), 1, 0, 20, TranspositionTable.EXACT);
+		table.newSearch();
+		table.newSearch();
+		table.newSearch();
+		for (int i = 1; i < 4; i++) {
+			table.store(sameBucket(i), 1, 0, 5, TranspositionTable.EXACT);
+		}
+		table.store(sameBucket(4), 1, 0, 1, TranspositionTable.EXACT);
+		assertEquals(0L, table.probe(sameBucket(0)));
+		for (int i = 1; i <= 4; i++) {
+			assertEquals(i == 4 ? 1 : 5, TranspositionTable.depth(table.probe(sameBucket(i))));
+		}
+	}
+
+	// Within one search the shallowest entry of the bucket is replaced
+	@Test
+	void shallowestEntryIsReplacedWithinASearch() {
+		TranspositionTable table = new TranspositionTable(1, false);
+		table.newSearch();
+		for (int i = 0; i < 4; i++) {
+			table.store(sameBucket(i), 1, 0, 10 - i, TranspositionTable.EXACT);
+		}
+		table.store(sameBucket(4), 1, 0, 1, TranspositionTable.EXACT);
+		assertEquals(0L, table.probe(sameBucket(3)));
+		assertEquals(10, TranspositionTable.depth(table.probe(sameBucket(0))));
+	}
+
+	// hashfull samples the first 1000 entries, the first 250 buckets: one entry in each of them is a quarter
+	@Test
+	void hashfullCountsTheCurrentSearchOnly() {
+		TranspositionTable table = new TranspositionTable(1, false);
+		table.newSearch();
+		for (long key = 0; key < 250; key++) {
+			table.store(key, 1, 0, 1, TranspositionTable.EXACT);
+		}
+		assertEquals(250, table.hashfull());
+		table.newSearch();
+		assertEquals(0, table.hashfull());
+		table.clear();
+		assertEquals(0L, table.probe(7L));
+	}
+
+}
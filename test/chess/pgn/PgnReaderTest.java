@@ -0,0 +1,131 @@
+package chess.pgn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.Fen;
+import chess.Move;
+
+class PgnReaderTest {
+
+	private static final String GAMES = """
+			[Event "Comments and variations"]
+			[Result "1-0"]
+
+			1. e4 {best by test} e5 2. Nf3 (2. f4 exf4 3. Nf3) 2... Nc6 $1 3. Bb5 a6
+			; an escape to the end of the line
+			4. Ba4 Nf6 5. O-O 1-0
+
+			[Event "From a FEN tag"]
+			[SetUp "1"]
+			[FEN "4k3/1P6/8/8/8/8/8/4K3 w - - 0 1"]
+			[Result "1/2-1/2"]
+
+			1. b8=Q+ Kd7 1/2-1/2
+
+			[Event "Illegal"]
+			[Result "0-1"]
+
+			1. e4 e5 2. Ke3 0-1
+
+			[Event "Unfinished"]
+			[Result "*"]
+
+			1. d4 *
+			""";
+
+	// What the consumer saw, copied out since the game is reused once the consumer returns
+	private record Replayed(String fen, int plies, int result, String error, String startFen, String lastMove) {
+	}
+
+	private static List<Replayed> replay(Path file) throws IOException {
+		List<Replayed> games = new ArrayList<>();
+		long count = PgnReader.replay(file, game -> games.add(new Replayed(Fen.toString(game.getChessMatch()),
+				game.getPlyCount(), game.getResult(), game.getError(),
+				game.getStartFen() == null ? null : game.getStartFen().toString(),
+				game.getPlyCount() == 0 ? null : Move.toString(game.getMove(game.getPlyCount() - 1)))));
+		assertEquals(count, games.size());
+		return games;
+	}
+
+	@Test
+	void replaysGames(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("games.pgn");
+		Files.writeString(file, GAMES);
+		List<Replayed> games = replay(file);
+		assertEquals(4, games.size());
+
+		Replayed game = games.get(0);
+		assertNull(game.error());
+		assertEquals(9, game.plies());
+		assertEquals(PgnGame.WHITE_WINS, game.result());
+		assertNull(game.startFen());
+		assertEquals("e1g1", game.lastMove());
+		assertEquals("r1bqkb1r/1ppp1ppp/p1n2n2/4p3/B3P3/5N2/PPPP1PPP/RNBQ1RK1 b kq - 3 5", game.fen());
+
+		game = games.get(1);
+		assertNull(game.error());
+		assertEquals("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", game.startFen());
+		assertEquals(2, game.plies());
+		assertEquals(PgnGame.DRAW, game.result());
+		assertEquals("e8d7", game.lastMove());
+		assertEquals("1Q6/3k4/8/8/8/8/8/4K3 w - - 1 2", game.fen());
+
+		game = games.get(2);
+		assertNotNull(game.error());
+		assertEquals(2, game.plies());
+		assertEquals("e7e5", game.lastMove());
+		assertEquals(PgnGame.BLACK_WINS, game.result());
+
+		game = games.get(3);
+		assertNull(game.error());
+		assertEquals(1, game.plies());
+		assertEquals(PgnGame.UNKNOWN, game.result());
+	}
+
+	// Over a megabyte the file is split into chunks: every game is still replayed once, whatever the thread count
+	@Test
+	void chunksCoverEveryGame(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("many.pgn");
+		StringBuilder pgn = new StringBuilder();
+		int copies = 0;
+		while (pgn.length() < 3 << 20) {
+			pgn.append(GAMES).append('\n');
+			copies++;
+		}
+		Files.writeString(file, pgn);
+		for (int threads : new int[] { 1, 3 }) {
+			AtomicLong legal = new AtomicLong();
+			AtomicLong plies = new AtomicLong();
+			long count = PgnReader.replay(file, threads, game -> {
+				if (game.isLegal()) {
+					legal.incrementAndGet();
+				}
+				plies.addAndGet(game.getPlyCount());
+			});
+			assertEquals(4L * copies, count);
+			assertEquals(3L * copies, legal.get());
+			assertEquals((9 + 2 + 2 + 1) * (long) copies, plies.get());
+		}
+	}
+
+	@Test
+	void emptyFileHasNoGames(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("empty.pgn");
+		Files.writeString(file, "");
+		assertTrue(replay(file).isEmpty());
+	}
+
+}
@@ -0,0 +1,29 @@
+package chess.pieces;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.MoveList;
+import chess.enums.Color;
+
+class KingTest {
+
+	private static int kingMoves(ChessMatch chessMatch, int square) {
+		MoveList moves = new MoveList();
+		((King) chessMatch.getChessBoard().piece(square)).generateMoves(moves);
+		return moves.size();
+	}
+
+	// Unmoved kings and rooks set up away from their home squares, as a FEN can place them, may not castle
+	@Test
+	void castlesOnlyFromTheHomeSquare() {
+		ChessMatch chessMatch = Fen.newMatch("4k3/8/8/8/R3K2R/8/8/8 w - - 0 1");
+		assertEquals(8, kingMoves(chessMatch, chessMatch.getChessBoard().getKingSquare(Color.WHITE)));
+		chessMatch = Fen.newMatch("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+		assertEquals(7, kingMoves(chessMatch, chessMatch.getChessBoard().getKingSquare(Color.WHITE)));
+	}
+
+}
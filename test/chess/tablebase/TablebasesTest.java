@@ -0,0 +1,102 @@
+package chess.tablebase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.enums.Color;
+import chess.enums.PieceType;
+
+class TablebasesTest {
+
+	@TempDir
+	static Path directory;
+
+	private static Tablebases tablebases;
+
+	@BeforeAll
+	static void generate() throws IOException {
+		TablebaseGenerator generator = new TablebaseGenerator(directory, 2);
+		generator.generate("KQK", null);
+		generator.generate("KRK", null);
+		tablebases = new Tablebases(directory);
+	}
+
+	@AfterAll
+	static void close() throws IOException {
+		tablebases.close();
+	}
+
+	private static int probe(String fen) {
+		return tablebases.probe(Fen.newMatch(fen));
+	}
+
+	// Longest mate with the strong side to move, over every position of the material
+	private static int longestWin(PieceType piece) {
+		PieceType[] types = { PieceType.KING, PieceType.KING, piece };
+		Color[] colors = { Color.WHITE, Color.BLACK, Color.WHITE };
+		int[] squares = new int[3];
+		int longest = 0;
+		for (squares[0] = 0; squares[0] < 64; squares[0]++) {
+			for (squares[1] = 0; squares[1] < 64; squares[1]++) {
+				for (squares[2] = 0; squares[2] < 64; squares[2]++) {
+					int result = tablebases.probe(types, colors, squares, 3, Color.WHITE);
+					if (result != Tablebases.UNKNOWN && Tablebases.wdl(result) == Tablebases.WIN) {
+						longest = Math.max(longest, Tablebases.distanceToMate(result));
+					}
+				}
+			}
+		}
+		return longest;
+	}
+
+	// The queen mates in at most 10 moves and the rook in at most 16, counted here in plies
+	@Test
+	void longestMates() {
+		assertEquals(19, longestWin(PieceType.QUEEN));
+		assertEquals(31, longestWin(PieceType.ROOK));
+	}
+
+	@Test
+	void knownPositions() {
+		int result = probe("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1");
+		assertEquals(Tablebases.WIN, Tablebases.wdl(result));
+		assertEquals(1, Tablebases.distanceToMate(result));
+
+		result = probe("1Q5k/8/6K1/8/8/8/8/8 b - - 0 1");
+		assertEquals(Tablebases.LOSS, Tablebases.wdl(result));
+		assertEquals(0, Tablebases.distanceToMate(result));
+
+		result = probe("7k/8/5K2/8/8/8/8/6R1 w - - 0 1");
+		assertEquals(Tablebases.WIN, Tablebases.wdl(result));
+		assertEquals(3, Tablebases.distanceToMate(result));
+
+		// Stalemate, and a rook the king can take
+		assertEquals(Tablebases.DRAW, Tablebases.wdl(probe("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1")));
+		assertEquals(Tablebases.DRAW, Tablebases.wdl(probe("7k/6R1/8/8/8/8/8/K7 b - - 0 1")));
+	}
+
+	// With black as the strong side the table is looked up with the colors swapped
+	@Test
+	void swappedColors() {
+		int result = probe("1q6/8/8/8/8/6k1/8/7K b - - 0 1");
+		assertEquals(Tablebases.WIN, Tablebases.wdl(result));
+		assertEquals(1, Tablebases.distanceToMate(result));
+	}
+
+	@Test
+	void bestMoveMates() {
+		int move = tablebases.bestMove(Fen.newMatch("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1"), new MoveList());
+		assertEquals("b1b8", Move.toString(move));
+	}
+
+}